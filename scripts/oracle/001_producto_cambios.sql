@@ -0,0 +1,18 @@
+-- TABLA DE REGISTRO DE CAMBIOS (app.cambios.enabled=true)
+-- En producción Hibernate no genera el esquema: ejecutar una vez antes de habilitar la propiedad.
+-- ORDER: en Autonomous Database (RAC) garantiza que los números salgan en orden entre nodos,
+-- que es lo que las instancias usan para leer "los cambios posteriores al último que vi".
+
+CREATE SEQUENCE PRODUCTO_CAMBIOS_SEQ START WITH 1 INCREMENT BY 1 CACHE 20 ORDER;
+
+CREATE TABLE PRODUCTO_CAMBIOS (
+    ID          NUMBER(19)    NOT NULL,
+    PRODUCTO_ID NUMBER(19)    NOT NULL,
+    TIPO        VARCHAR2(20)  NOT NULL,
+    INSTANCIA   VARCHAR2(64)  NOT NULL,
+    FECHA       TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    CONSTRAINT PK_PRODUCTO_CAMBIOS PRIMARY KEY (ID)
+);
+
+-- La limpieza periódica borra por fecha
+CREATE INDEX IDX_PRODUCTO_CAMBIOS_FECHA ON PRODUCTO_CAMBIOS (FECHA);
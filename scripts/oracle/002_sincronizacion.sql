@@ -0,0 +1,31 @@
+-- SINCRONIZACIÓN INCREMENTAL (GET /api/productos/changes)
+-- Ejecutar una vez antes de desplegar la versión que numera los cambios.
+
+-- Secuencia del último cambio de cada producto
+ALTER TABLE PRODUCTOS ADD (SECUENCIA_CAMBIO NUMBER(19));
+
+-- Los productos existentes se numeran con su ID para que la primera descarga completa se pueda paginar
+UPDATE PRODUCTOS SET SECUENCIA_CAMBIO = ID WHERE SECUENCIA_CAMBIO IS NULL;
+
+CREATE INDEX IDX_PRODUCTOS_SECUENCIA ON PRODUCTOS (SECUENCIA_CAMBIO);
+
+-- Contador de cambios (una sola fila): arranca después de la numeración anterior
+CREATE TABLE CONTADOR_CAMBIOS (
+    ID    NUMBER(19) NOT NULL,
+    VALOR NUMBER(19) NOT NULL,
+    CONSTRAINT PK_CONTADOR_CAMBIOS PRIMARY KEY (ID)
+);
+
+INSERT INTO CONTADOR_CAMBIOS (ID, VALOR) SELECT 1, NVL(MAX(ID), 0) FROM PRODUCTOS;
+
+-- Lápidas de productos eliminados (se compactan después de app.sync.retencion-horas)
+CREATE TABLE PRODUCTOS_ELIMINADOS (
+    PRODUCTO_ID      NUMBER(19)    NOT NULL,
+    SECUENCIA_CAMBIO NUMBER(19)    NOT NULL,
+    FECHA            TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    CONSTRAINT PK_PRODUCTOS_ELIMINADOS PRIMARY KEY (PRODUCTO_ID)
+);
+
+CREATE INDEX IDX_PRODUCTOS_ELIM_SECUENCIA ON PRODUCTOS_ELIMINADOS (SECUENCIA_CAMBIO);
+
+COMMIT;
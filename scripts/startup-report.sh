@@ -0,0 +1,86 @@
+#!/usr/bin/env bash
+# REPORTE DE TIEMPO DE ARRANQUE
+# Compara el fat jar normal contra el build del perfil fast-startup (AOT + CDS)
+# midiendo el tiempo desde que se lanza la JVM hasta la primera respuesta HTTP 200.
+# Las dos variantes arrancan desde la raíz del proyecto con el perfil prod, igual que en Railway
+# (Procfile) y que el build AOT, que procesa las condiciones de los beans con ese perfil.
+#
+# Uso:   scripts/startup-report.sh
+# Variables opcionales:
+#   URL_PATH      ruta a consultar (por defecto /api/productos, necesita la BD disponible;
+#                 /actuator/health/liveness mide el arranque sin depender de Oracle)
+#   DATABASE_URL  por defecto la del wallet Wallet_BDFULLSTACK con ruta absoluta
+#   PORT          puerto local (por defecto 8089)
+#   RUNS          repeticiones por variante (por defecto 5)
+#   SKIP_BUILD=1 para reutilizar los artefactos ya construidos
+# El resultado queda en target/startup-report.md
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+URL_PATH=${URL_PATH:-/api/productos}
+PORT=${PORT:-8089}
+# El wallet se pasa con ruta absoluta: no depende del directorio desde el que arranque la JVM
+export DATABASE_URL=${DATABASE_URL:-"jdbc:oracle:thin:@bdfullstack_high?TNS_ADMIN=$PWD/Wallet_BDFULLSTACK"}
+RUNS=${RUNS:-5}
+JAR=prueba-0.0.1-SNAPSHOT.jar
+BASELINE_DIR=target/baseline
+REPORT=target/startup-report.md
+
+if [ "${SKIP_BUILD:-0}" != "1" ]; then
+    # 1. Fat jar actual (el que hoy usa Railway)
+    mvn -B -q clean package -DskipTests
+    mkdir -p "$BASELINE_DIR"
+    cp "target/$JAR" "$BASELINE_DIR/$JAR"
+    # 2. Build AOT + CDS (no hace clean para conservar el fat jar de referencia)
+    mvn -B -q package -Pfast-startup -DskipTests
+fi
+
+# Lanza la JVM desde la raíz del proyecto con el jar y los argumentos recibidos y devuelve
+# los milisegundos hasta que URL_PATH responde 200. CDS exige la misma ruta de classpath
+# que en el entrenamiento (target/app/...), que también se hizo desde la raíz.
+medir() {
+    local jar=$1; shift
+    local inicio fin pid
+    inicio=$(date +%s%N)
+    java "$@" -Dspring.profiles.active=prod -Dserver.port="$PORT" -jar "$jar" > /dev/null 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null "http://localhost:$PORT$URL_PATH"; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "La aplicación terminó antes de responder" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+    fin=$(date +%s%N)
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    echo $(( (fin - inicio) / 1000000 ))
+}
+
+promedio() {
+    local total=0
+    for v in "$@"; do total=$(( total + v )); done
+    echo $(( total / $# ))
+}
+
+base=()
+rapido=()
+for _ in $(seq "$RUNS"); do
+    base+=("$(medir "$BASELINE_DIR/$JAR")")
+    rapido+=("$(medir "target/app/$JAR" -XX:SharedArchiveFile=target/app/application.jsa -Dspring.aot.enabled=true)")
+done
+
+base_prom=$(promedio "${base[@]}")
+rapido_prom=$(promedio "${rapido[@]}")
+
+{
+    echo "# Tiempo hasta la primera petición exitosa ($URL_PATH)"
+    echo
+    echo "| Variante | Mediciones (ms) | Promedio (ms) |"
+    echo "|---|---|---|"
+    echo "| Fat jar | ${base[*]} | $base_prom |"
+    echo "| AOT + CDS | ${rapido[*]} | $rapido_prom |"
+    echo
+    echo "Mejora: $(( 100 - rapido_prom * 100 / base_prom ))%"
+} | tee "$REPORT"
@@ -0,0 +1,195 @@
+package prueba.com.prueba.Config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Control de admisión (load shedding) para /api/** y /graphql
+ * Limita las peticiones en vuelo por clase de endpoint con un LimiteAdaptativo (AIMD) y,
+ * cuando el servicio está saturado, responde 503 + Retry-After de inmediato en lugar de dejar
+ * que las peticiones se acumulen en la cola de Tomcat ocupando conexiones de Hikari.
+ * Prioridad: las consultas puntuales pueden usar todo el máximo global; las escrituras y
+ * el listado completo (una llamada a inventario por producto) solo una parte, así bajo
+ * sobrecarga son las primeras en rechazarse.
+ * Va justo después de CorsFilter para que los 503 también lleven los headers CORS.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class AdmissionControlFilter implements Filter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionControlFilter.class);
+
+    // Clases de endpoint, de mayor a menor prioridad, con la fracción del máximo global que pueden ocupar
+    public enum ClaseEndpoint {
+        CONSULTA(1.0), ESCRITURA(0.8), LISTADO(0.6);
+
+        private final double cuota;
+
+        ClaseEndpoint(double cuota) { this.cuota = cuota; }
+    }
+
+    @Value("${app.admission.enabled:true}")
+    private boolean enabled = true;
+
+    // Máximo de peticiones en vuelo entre todas las clases (por defecto, los hilos de Tomcat)
+    @Value("${app.admission.max-global:200}")
+    private int maxGlobal = 200;
+
+    @Value("${app.admission.consulta.latencia-objetivo-ms:200}")
+    private long latenciaConsultaMs = 200;
+
+    @Value("${app.admission.escritura.latencia-objetivo-ms:500}")
+    private long latenciaEscrituraMs = 500;
+
+    @Value("${app.admission.listado.latencia-objetivo-ms:2000}")
+    private long latenciaListadoMs = 2000;
+
+    @Value("${app.admission.retry-after-segundos:1}")
+    private int retryAfterSegundos = 1;
+
+    @Value("${spring.graphql.path:/graphql}")
+    private String rutaGraphql = "/graphql";
+
+    // Las métricas son opcionales: en los tests de slice puede no haber MeterRegistry
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    private final Map<ClaseEndpoint, LimiteAdaptativo> limites = new EnumMap<>(ClaseEndpoint.class);
+    private final Map<ClaseEndpoint, Counter> rechazos = new EnumMap<>(ClaseEndpoint.class);
+    private final AtomicInteger totalEnVuelo = new AtomicInteger();
+
+    @PostConstruct
+    public void init() {
+        limites.put(ClaseEndpoint.CONSULTA, nuevoLimite(ClaseEndpoint.CONSULTA, latenciaConsultaMs));
+        limites.put(ClaseEndpoint.ESCRITURA, nuevoLimite(ClaseEndpoint.ESCRITURA, latenciaEscrituraMs));
+        limites.put(ClaseEndpoint.LISTADO, nuevoLimite(ClaseEndpoint.LISTADO, latenciaListadoMs));
+
+        MeterRegistry registry = meterRegistry != null ? meterRegistry.getIfAvailable() : null;
+        if (registry != null) {
+            for (ClaseEndpoint clase : ClaseEndpoint.values()) {
+                String nombre = clase.name().toLowerCase();
+                LimiteAdaptativo limite = limites.get(clase);
+                Gauge.builder("admission.limite", limite, LimiteAdaptativo::getLimite).tag("clase", nombre).register(registry);
+                Gauge.builder("admission.en_vuelo", limite, LimiteAdaptativo::getEnVuelo).tag("clase", nombre).register(registry);
+                rechazos.put(clase, Counter.builder("admission.rechazos").tag("clase", nombre).register(registry));
+            }
+        }
+    }
+
+    private LimiteAdaptativo nuevoLimite(ClaseEndpoint clase, long latenciaObjetivoMs) {
+        int maximoClase = Math.max(1, (int) (maxGlobal * clase.cuota));
+        // Arranca en la mitad de su máximo y se ajusta según la latencia observada
+        return new LimiteAdaptativo(Math.max(1, maximoClase / 2), 1, maximoClase, latenciaObjetivoMs, 0.9);
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+
+        ClaseEndpoint clase = clasificar(httpRequest);
+        if (!enabled || clase == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        LimiteAdaptativo limite = limites.get(clase);
+        if (!admitir(clase, limite)) {
+            rechazar(clase, httpResponse);
+            return;
+        }
+
+        long inicio = System.nanoTime();
+        boolean exito = false;
+        try {
+            chain.doFilter(request, response);
+            exito = httpResponse.getStatus() < 500;
+        } finally {
+            totalEnVuelo.decrementAndGet();
+            if (request.getAttribute(Deadline.ATRIBUTO_EXCEDIDO) != null) {
+                // 504 por el deadline del cliente: ni su latencia ni el fallo son del servicio, y un
+                // cliente con X-Request-Timeout-Ms: 1 no puede achicar el límite de todos
+                limite.liberarSinMedir();
+            } else {
+                limite.liberar(System.nanoTime() - inicio, exito);
+            }
+        }
+    }
+
+    private boolean admitir(ClaseEndpoint clase, LimiteAdaptativo limite) {
+        // 1. Cupo global según la prioridad de la clase
+        int total = totalEnVuelo.incrementAndGet();
+        if (total > (int) (maxGlobal * clase.cuota)) {
+            totalEnVuelo.decrementAndGet();
+            return false;
+        }
+        // 2. Límite adaptativo de la clase
+        if (!limite.intentarAdquirir()) {
+            totalEnVuelo.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    private void rechazar(ClaseEndpoint clase, HttpServletResponse response) throws IOException {
+        Counter contador = rechazos.get(clase);
+        if (contador != null) {
+            contador.increment();
+        }
+        logger.debug("Petición {} rechazada por sobrecarga (límite {})", clase, limites.get(clase).getLimite());
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader("Retry-After", String.valueOf(retryAfterSegundos));
+        response.setContentType("application/json");
+        response.getWriter().write("{\"error\":\"Servicio sobrecargado, reintente en " + retryAfterSegundos + " s\"}");
+    }
+
+    // Solo se controla la API de productos; actuator, Swagger y preflights OPTIONS pasan siempre
+    ClaseEndpoint clasificar(HttpServletRequest request) {
+        String ruta = request.getRequestURI().substring(request.getContextPath().length());
+        boolean graphql = ruta.equals(rutaGraphql);
+        if (!graphql && !ruta.startsWith("/api/")) {
+            return null;
+        }
+        String metodo = request.getMethod();
+        if ("OPTIONS".equals(metodo) || "HEAD".equals(metodo)) {
+            return null;
+        }
+        if (graphql) {
+            // Una consulta GraphQL puede pedir hasta limite-maximo productos con stock: pesa como un listado
+            return ClaseEndpoint.LISTADO;
+        }
+        if (!"GET".equals(metodo)) {
+            // POST /api/productos/por-ids es una lectura de muchos productos: pesa como un listado
+            return ruta.endsWith("/por-ids") ? ClaseEndpoint.LISTADO : ClaseEndpoint.ESCRITURA;
+        }
+        // GET /api/productos es el listado completo con enriquecimiento de stock; con ?ids= (hasta
+        // max-ids productos) hace el mismo trabajo que POST /por-ids y pesa igual
+        boolean listado = ruta.equals("/api/productos") || ruta.equals("/api/productos/");
+        return listado ? ClaseEndpoint.LISTADO : ClaseEndpoint.CONSULTA;
+    }
+
+    public LimiteAdaptativo getLimite(ClaseEndpoint clase) {
+        return limites.get(clase);
+    }
+}
@@ -0,0 +1,99 @@
+package prueba.com.prueba.Config;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deadline de la petición en curso (lo fija DeadlineFilter a partir de los headers de entrada)
+ * Se guarda en un ThreadLocal para que las llamadas salientes (RestTemplateConfig, DeadlineInterceptor,
+ * InventarioHedging) usen solo el tiempo que le queda al cliente en lugar de sus timeouts fijos.
+ * El límite local se mide con nanoTime (inmune a saltos de reloj); el epoch solo se usa para reenviarlo.
+ */
+public final class Deadline {
+
+    // Instante absoluto en milisegundos epoch
+    public static final String HEADER_DEADLINE = "X-Request-Deadline";
+    // Tiempo restante relativo en milisegundos
+    public static final String HEADER_TIMEOUT = "X-Request-Timeout-Ms";
+
+    // Atributo de la petición: la respuesta es un 504 por el deadline del propio cliente
+    public static final String ATRIBUTO_EXCEDIDO = Deadline.class.getName() + ".EXCEDIDO";
+
+    private static final ThreadLocal<Deadline> ACTUAL = new ThreadLocal<>();
+
+    private final long limiteNanos;
+    private final long limiteEpochMs;
+
+    private Deadline(long restanteMs) {
+        this.limiteNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(restanteMs);
+        this.limiteEpochMs = System.currentTimeMillis() + restanteMs;
+    }
+
+    public static Deadline dentroDe(long restanteMs) {
+        return new Deadline(restanteMs);
+    }
+
+    // Deadline de la petición en curso, o null si el cliente no envió ninguno
+    public static Deadline actual() {
+        return ACTUAL.get();
+    }
+
+    public static void establecer(Deadline deadline) {
+        if (deadline == null) {
+            ACTUAL.remove();
+        } else {
+            ACTUAL.set(deadline);
+        }
+    }
+
+    public static void limpiar() {
+        ACTUAL.remove();
+    }
+
+    // Lanza DeadlineExcedidoException si la petición en curso ya no tiene tiempo: el trabajo que siga no lo lee nadie
+    public static void verificar(String operacion) {
+        Deadline deadline = ACTUAL.get();
+        if (deadline != null && deadline.vencido()) {
+            throw new DeadlineExcedidoException(operacion);
+        }
+    }
+
+    // Envuelve una tarea para que corra en otro hilo con el deadline del hilo que la crea
+    public static <T> Callable<T> propagar(Callable<T> tarea) {
+        Deadline deadline = ACTUAL.get();
+        if (deadline == null) {
+            return tarea;
+        }
+        return () -> {
+            Deadline anterior = ACTUAL.get();
+            ACTUAL.set(deadline);
+            try {
+                return tarea.call();
+            } finally {
+                establecer(anterior);
+            }
+        };
+    }
+
+    public long restanteNanos() {
+        return limiteNanos - System.nanoTime();
+    }
+
+    public long restanteMs() {
+        return TimeUnit.NANOSECONDS.toMillis(restanteNanos());
+    }
+
+    public boolean vencido() {
+        return restanteNanos() <= 0;
+    }
+
+    public long getLimiteEpochMs() {
+        return limiteEpochMs;
+    }
+
+    // Timeout para una llamada saliente: el configurado, recortado a lo que queda (mínimo 1 ms)
+    public int recortar(int timeoutMs) {
+        long restante = Math.max(1, restanteMs());
+        return timeoutMs > 0 ? (int) Math.min(timeoutMs, restante) : (int) Math.min(Integer.MAX_VALUE, restante);
+    }
+}
@@ -0,0 +1,12 @@
+package prueba.com.prueba.Config;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+// El deadline de la petición venció antes de terminar: se abandona el trabajo y se responde 504
+public class DeadlineExcedidoException extends ResponseStatusException {
+
+    public DeadlineExcedidoException(String operacion) {
+        super(HttpStatus.GATEWAY_TIMEOUT, "Deadline de la petición excedido (" + operacion + ")");
+    }
+}
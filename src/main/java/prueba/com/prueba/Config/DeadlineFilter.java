@@ -0,0 +1,126 @@
+package prueba.com.prueba.Config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+
+/**
+ * Convierte el deadline que envía el cliente (o el gateway) en un Deadline de la petición
+ * - X-Request-Deadline: instante absoluto en milisegundos epoch
+ * - X-Request-Timeout-Ms: milisegundos restantes
+ * Si llegan ambos se usa el más cercano. Una petición que llega ya vencida se responde 504 sin
+ * procesarla; durante el proceso las llamadas a inventario solo reciben el tiempo restante.
+ * Los 504 por el deadline del cliente se marcan con Deadline.ATRIBUTO_EXCEDIDO: no dicen nada de la
+ * carga del servicio y el control de admisión no los cuenta como fallos.
+ * Va después del control de admisión: primero se decide si hay lugar, después cuánto tiempo hay.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class DeadlineFilter implements Filter {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadlineFilter.class);
+
+    @Value("${app.deadline.enabled:true}")
+    private boolean enabled = true;
+
+    // Tope al deadline pedido por el cliente
+    @Value("${app.deadline.maximo-ms:30000}")
+    private long maximoMs = 30000;
+
+    // Deadline para peticiones sin header (0 = ninguno, se usan solo los timeouts fijos)
+    @Value("${app.deadline.por-defecto-ms:0}")
+    private long porDefectoMs = 0;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    private Counter vencidasAlLlegar;
+    private Counter vencidasEnProceso;
+
+    @PostConstruct
+    public void init() {
+        MeterRegistry registry = meterRegistry != null ? meterRegistry.getIfAvailable() : null;
+        if (registry != null) {
+            vencidasAlLlegar = Counter.builder("deadline.excedidos").tag("fase", "entrada").register(registry);
+            vencidasEnProceso = Counter.builder("deadline.excedidos").tag("fase", "proceso").register(registry);
+        }
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+
+        Long restanteMs = enabled ? leerRestanteMs(httpRequest) : null;
+        if (restanteMs == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (restanteMs <= 0) {
+            incrementar(vencidasAlLlegar);
+            request.setAttribute(Deadline.ATRIBUTO_EXCEDIDO, Boolean.TRUE);
+            httpResponse.setStatus(HttpServletResponse.SC_GATEWAY_TIMEOUT);
+            httpResponse.setContentType("application/json");
+            httpResponse.getWriter().write("{\"error\":\"Deadline de la petición excedido antes de procesarla\"}");
+            return;
+        }
+
+        Deadline deadline = Deadline.dentroDe(Math.min(restanteMs, maximoMs));
+        Deadline.establecer(deadline);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            Deadline.limpiar();
+            if (httpResponse.getStatus() == HttpServletResponse.SC_GATEWAY_TIMEOUT && deadline.vencido()) {
+                incrementar(vencidasEnProceso);
+                request.setAttribute(Deadline.ATRIBUTO_EXCEDIDO, Boolean.TRUE);
+            }
+        }
+    }
+
+    // Milisegundos que le quedan a la petición según sus headers, o null si no tiene deadline
+    Long leerRestanteMs(HttpServletRequest request) {
+        Long restante = null;
+        String absoluto = request.getHeader(Deadline.HEADER_DEADLINE);
+        String relativo = request.getHeader(Deadline.HEADER_TIMEOUT);
+        try {
+            if (absoluto != null) {
+                restante = Long.parseLong(absoluto.trim()) - System.currentTimeMillis();
+            }
+            if (relativo != null) {
+                long ms = Long.parseLong(relativo.trim());
+                restante = restante == null ? ms : Math.min(restante, ms);
+            }
+        } catch (NumberFormatException e) {
+            // Un header mal formado no debe tumbar la petición: se ignora
+            logger.debug("Header de deadline inválido: {} / {}", absoluto, relativo);
+            restante = null;
+        }
+        if (restante == null && porDefectoMs > 0) {
+            restante = porDefectoMs;
+        }
+        return restante;
+    }
+
+    private static void incrementar(Counter contador) {
+        if (contador != null) {
+            contador.increment();
+        }
+    }
+}
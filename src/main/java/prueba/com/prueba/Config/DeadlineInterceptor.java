@@ -0,0 +1,32 @@
+package prueba.com.prueba.Config;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.lang.NonNull;
+
+import java.io.IOException;
+
+/**
+ * Interceptor de las llamadas salientes a inventario
+ * Si la petición en curso ya no tiene tiempo, la llamada no se hace; si lo tiene, el deadline
+ * se reenvía para que inventario (y lo que llame) también pueda abandonar el trabajo a tiempo.
+ */
+public class DeadlineInterceptor implements ClientHttpRequestInterceptor {
+
+    @Override
+    @NonNull
+    public ClientHttpResponse intercept(@NonNull HttpRequest request, @NonNull byte[] body,
+                                        @NonNull ClientHttpRequestExecution execution) throws IOException {
+        Deadline deadline = Deadline.actual();
+        if (deadline != null) {
+            if (deadline.vencido()) {
+                throw new DeadlineExcedidoException(request.getURI().getPath());
+            }
+            request.getHeaders().set(Deadline.HEADER_DEADLINE, String.valueOf(deadline.getLimiteEpochMs()));
+            request.getHeaders().set(Deadline.HEADER_TIMEOUT, String.valueOf(Math.max(1, deadline.restanteMs())));
+        }
+        return execution.execute(request, body);
+    }
+}
@@ -0,0 +1,97 @@
+package prueba.com.prueba.Config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.hateoas.RepresentationModel;
+import org.springframework.hateoas.mediatype.MessageResolver;
+import org.springframework.hateoas.mediatype.hal.CurieProvider;
+import org.springframework.hateoas.mediatype.hal.HalConfiguration;
+import org.springframework.hateoas.mediatype.hal.Jackson2HalModule;
+import org.springframework.hateoas.server.LinkRelationProvider;
+import org.springframework.hateoas.server.mvc.TypeConstrainedMappingJackson2HttpMessageConverter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.lang.NonNull;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Negociación de contenido para formatos binarios compactos
+ * Con Accept: application/cbor o application/x-jackson-smile las respuestas HATEOAS
+ * (CollectionModel, ProductoConStockDTO, ProductoDTO) se envían con la misma estructura HAL
+ * que el JSON (_links, _embedded) pero codificadas en binario
+ */
+@Configuration
+public class FormatosBinariosConfig implements WebMvcConfigurer {
+
+    public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private LinkRelationProvider linkRelationProvider;
+
+    @Autowired
+    private MessageResolver messageResolver;
+
+    @Autowired
+    private ObjectProvider<CurieProvider> curieProvider;
+
+    @Autowired
+    private ObjectProvider<HalConfiguration> halConfiguration;
+
+    @Autowired
+    private AutowireCapableBeanFactory beanFactory;
+
+    @Override
+    public void extendMessageConverters(@NonNull List<HttpMessageConverter<?>> converters) {
+        // Se insertan justo antes de los conversores CBOR/Smile por defecto de Spring (que no conocen HAL)
+        // y nunca antes de los JSON: con Accept */* el primer conversor que puede escribir gana,
+        // y la respuesta por defecto tiene que seguir siendo HAL JSON
+        int posicion = converters.size();
+        for (int i = 0; i < converters.size(); i++) {
+            if (converters.get(i) instanceof MappingJackson2CborHttpMessageConverter
+                    || converters.get(i) instanceof MappingJackson2SmileHttpMessageConverter) {
+                posicion = i;
+                break;
+            }
+        }
+        converters.add(posicion, halBinario(new SmileFactory(), APPLICATION_SMILE));
+        converters.add(posicion, halBinario(new CBORFactory(), MediaType.APPLICATION_CBOR));
+    }
+
+    private HttpMessageConverter<?> halBinario(JsonFactory factory, MediaType mediaType) {
+        Jackson2HalModule.HalHandlerInstantiator instantiator = new Jackson2HalModule.HalHandlerInstantiator(
+                linkRelationProvider,
+                curieProvider.getIfAvailable(() -> CurieProvider.NONE),
+                messageResolver,
+                halConfiguration.getIfAvailable(HalConfiguration::new),
+                beanFactory);
+        ObjectMapper mapper = halMapper(objectMapper, factory, instantiator);
+        return new TypeConstrainedMappingJackson2HttpMessageConverter(RepresentationModel.class, List.of(mediaType), mapper);
+    }
+
+    /**
+     * Copia el ObjectMapper de la aplicación sobre otro formato (CBOR, Smile...) y le aplica la configuración HAL
+     * Es estático para poder reutilizarlo en los benchmarks sin levantar Spring
+     */
+    public static ObjectMapper halMapper(ObjectMapper base, JsonFactory factory,
+                                         Jackson2HalModule.HalHandlerInstantiator instantiator) {
+        // Mismo pool de buffers que el ObjectMapper base (ver HilosVirtualesConfig)
+        factory.setRecyclerPool(base.getFactory()._getRecyclerPool());
+        ObjectMapper mapper = base.copyWith(factory);
+        mapper.registerModule(new Jackson2HalModule());
+        mapper.setHandlerInstantiator(instantiator);
+        return mapper;
+    }
+}
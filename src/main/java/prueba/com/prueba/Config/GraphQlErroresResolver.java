@@ -0,0 +1,26 @@
+package prueba.com.prueba.Config;
+
+import graphql.GraphQLError;
+import graphql.GraphqlErrorBuilder;
+import graphql.schema.DataFetchingEnvironment;
+import org.springframework.graphql.execution.DataFetcherExceptionResolverAdapter;
+import org.springframework.graphql.execution.ErrorType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+// Traduce los 4xx del service (ResponseStatusException) a errores GraphQL con su mensaje
+// Sin esto GraphQL los informa como INTERNAL_ERROR sin detalle; el resto de excepciones sigue igual
+@Component
+public class GraphQlErroresResolver extends DataFetcherExceptionResolverAdapter {
+
+    @Override
+    protected GraphQLError resolveToSingleError(Throwable ex, DataFetchingEnvironment env) {
+        if (ex instanceof ResponseStatusException e && e.getStatusCode().is4xxClientError()) {
+            return GraphqlErrorBuilder.newError(env)
+                    .errorType(e.getStatusCode().value() == 404 ? ErrorType.NOT_FOUND : ErrorType.BAD_REQUEST)
+                    .message(e.getReason())
+                    .build();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,33 @@
+package prueba.com.prueba.Config;
+
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Ajustes para el modo de hilos virtuales (spring.threads.virtual.enabled=true con Java 21+)
+ * Spring Boot ya ejecuta en hilos virtuales las peticiones de Tomcat, @Async y @Scheduled.
+ * Lo que depende de ThreadLocal para reutilizar recursos deja de servir: cada petición es un hilo
+ * nuevo. Por eso los buffers de Jackson pasan del pool por hilo a un pool compartido.
+ * El modo se consulta al arrancar y no con @ConditionalOnThreading, que el build AOT fija en build.
+ */
+@Configuration
+public class HilosVirtualesConfig {
+
+    @Autowired
+    private Environment environment;
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer poolDeBuffersCompartido() {
+        return builder -> {
+            if (Threading.VIRTUAL.isActive(environment)) {
+                builder.postConfigurer(mapper ->
+                        mapper.getFactory().setRecyclerPool(JsonRecyclerPools.sharedConcurrentDequePool()));
+            }
+        };
+    }
+}
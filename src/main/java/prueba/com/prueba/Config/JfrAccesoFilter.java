@@ -0,0 +1,82 @@
+package prueba.com.prueba.Config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+// PROTECCIÓN DE /actuator/jfr
+// El proyecto no usa Spring Security, así que el endpoint de perfilado se protege con un token
+// compartido en el header X-Diagnostico-Token (app.jfr.token, variable JFR_TOKEN).
+// Sin token configurado el endpoint queda cerrado (403); con un token incorrecto, 401.
+// Con app.jfr.enabled=false responde 404 antes de mirar el token. El flag se lee al arrancar en
+// lugar de condicionar el bean: con el perfil fast-startup la condición quedaría fijada en build.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 5)
+public class JfrAccesoFilter implements Filter {
+
+    private static final Logger logger = LoggerFactory.getLogger(JfrAccesoFilter.class);
+
+    public static final String HEADER = "X-Diagnostico-Token";
+
+    @Value("${app.jfr.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.jfr.token:}")
+    private String token = "";
+
+    @Value("${management.endpoints.web.base-path:/actuator}")
+    private String basePath = "/actuator";
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+        String ruta = httpRequest.getRequestURI().substring(httpRequest.getContextPath().length());
+        if (!ruta.equals(basePath + "/jfr") && !ruta.startsWith(basePath + "/jfr/")) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        if (!enabled) {
+            rechazar(httpResponse, HttpServletResponse.SC_NOT_FOUND, "Perfilado JFR deshabilitado");
+            return;
+        }
+        if (token == null || token.isBlank()) {
+            rechazar(httpResponse, HttpServletResponse.SC_FORBIDDEN, "Perfilado JFR sin token configurado");
+            return;
+        }
+        String recibido = httpRequest.getHeader(HEADER);
+        // Comparación en tiempo constante: no revela cuántos caracteres coinciden
+        if (recibido == null || !MessageDigest.isEqual(
+                token.getBytes(StandardCharsets.UTF_8), recibido.getBytes(StandardCharsets.UTF_8))) {
+            logger.warn("Acceso rechazado a {} desde {}", ruta, httpRequest.getRemoteAddr());
+            rechazar(httpResponse, HttpServletResponse.SC_UNAUTHORIZED, "Token de diagnóstico inválido");
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    private void rechazar(HttpServletResponse response, int estado, String mensaje) throws IOException {
+        response.setStatus(estado);
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write("{\"error\":\"" + mensaje + "\"}");
+    }
+}
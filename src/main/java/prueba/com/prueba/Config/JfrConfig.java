@@ -0,0 +1,49 @@
+package prueba.com.prueba.Config;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.RootClassFilter;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import prueba.com.prueba.Service.ProductoService;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+// Emite un OperacionProductoJfrEvent por cada llamada a un método público de ProductoService
+// Es un advisor (no código en cada método) para cubrir todas las operaciones, incluidas las que se
+// agreguen después. Las llamadas internas del service a sí mismo no pasan por el proxy y no se registran.
+@Configuration
+public class JfrConfig {
+
+    @Bean
+    public Advisor operacionesProductoJfrAdvisor() {
+        StaticMethodMatcherPointcut pointcut = new StaticMethodMatcherPointcut() {
+            @Override
+            public boolean matches(Method method, Class<?> targetClass) {
+                return method.getDeclaringClass() == ProductoService.class && Modifier.isPublic(method.getModifiers());
+            }
+        };
+        pointcut.setClassFilter(new RootClassFilter(ProductoService.class));
+
+        MethodInterceptor interceptor = invocation -> {
+            OperacionProductoJfrEvent evento = new OperacionProductoJfrEvent(invocation.getMethod().getName());
+            if (!evento.isEnabled()) {
+                return invocation.proceed();
+            }
+            evento.begin();
+            try {
+                return invocation.proceed();
+            } catch (Throwable e) {
+                evento.marcarError();
+                throw e;
+            } finally {
+                evento.commit();
+            }
+        };
+        return new DefaultPointcutAdvisor(pointcut, interceptor);
+    }
+}
@@ -0,0 +1,80 @@
+package prueba.com.prueba.Config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Límite de concurrencia adaptativo AIMD (Additive Increase / Multiplicative Decrease)
+ * Cada petición exitosa y rápida suma 1/límite (crece ~1 por "vuelta" completa de peticiones);
+ * una petición lenta o fallida multiplica el límite por el factor de reducción.
+ * Así el límite converge a la concurrencia que el backend (Oracle, inventario) soporta sin que suba la latencia
+ */
+public class LimiteAdaptativo {
+
+    private final int minimo;
+    private final int maximo;
+    private final long latenciaObjetivoNanos;
+    private final double factorReduccion;
+
+    private final AtomicInteger enVuelo = new AtomicInteger();
+    private final ReentrantLock ajuste = new ReentrantLock();
+    private volatile double limite;
+    // Solo se reduce una vez por ventana de latencia objetivo: si no, una ráfaga de respuestas
+    // lentas que ya estaban en vuelo hundiría el límite al mínimo de golpe
+    private long ultimaReduccionNanos;
+
+    public LimiteAdaptativo(int inicial, int minimo, int maximo, long latenciaObjetivoMs, double factorReduccion) {
+        this.minimo = Math.max(1, minimo);
+        this.maximo = Math.max(this.minimo, maximo);
+        this.limite = Math.min(this.maximo, Math.max(this.minimo, inicial));
+        this.latenciaObjetivoNanos = latenciaObjetivoMs * 1_000_000L;
+        this.factorReduccion = factorReduccion;
+        this.ultimaReduccionNanos = System.nanoTime() - latenciaObjetivoNanos - 1;
+    }
+
+    // Intenta ocupar un lugar; false si ya hay tantas peticiones en vuelo como el límite
+    public boolean intentarAdquirir() {
+        while (true) {
+            int actual = enVuelo.get();
+            if (actual >= (int) limite) {
+                return false;
+            }
+            if (enVuelo.compareAndSet(actual, actual + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // Libera el lugar y ajusta el límite según cómo terminó la petición
+    public void liberar(long latenciaNanos, boolean exito) {
+        int enVueloAntes = enVuelo.getAndDecrement();
+        ajuste.lock();
+        try {
+            long ahora = System.nanoTime();
+            if (!exito || latenciaNanos > latenciaObjetivoNanos) {
+                if (ahora - ultimaReduccionNanos > latenciaObjetivoNanos) {
+                    limite = Math.max(minimo, limite * factorReduccion);
+                    ultimaReduccionNanos = ahora;
+                }
+            } else if (enVueloAntes * 2 >= limite) {
+                // Solo crece si el límite realmente se está usando; con poco tráfico no tiene sentido inflarlo
+                limite = Math.min(maximo, limite + 1.0 / limite);
+            }
+        } finally {
+            ajuste.unlock();
+        }
+    }
+
+    // Libera el lugar sin ajustar el límite: la petición no dice nada de la capacidad del backend
+    public void liberarSinMedir() {
+        enVuelo.decrementAndGet();
+    }
+
+    public int getLimite() {
+        return (int) limite;
+    }
+
+    public int getEnVuelo() {
+        return enVuelo.get();
+    }
+}
@@ -0,0 +1,91 @@
+package prueba.com.prueba.Config;
+
+import graphql.ExecutionResult;
+import graphql.analysis.QueryTraverser;
+import graphql.analysis.QueryVisitorFieldEnvironment;
+import graphql.analysis.QueryVisitorStub;
+import graphql.execution.AbortExecutionException;
+import graphql.execution.ExecutionContext;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// LÍMITES DE PROFUNDIDAD Y COMPLEJIDAD DE LAS CONSULTAS GRAPHQL
+// Se calculan sobre el documento ya validado, antes de ejecutar nada (ni BD ni inventario).
+// Complejidad: cada campo cuesta 1 (stock cuesta costo-stock) multiplicado por el "limite" de cada
+// lista que lo contiene; productos(limite: 500) { id nombre } cuesta 1 + 500 * 2.
+// Los campos de introspección (__schema, __type, __typename) no cuentan: las herramientas los usan
+// con mucha profundidad y graphql-java ya los acota por su cuenta.
+@Component
+public class LimitesGraphQlInstrumentation extends SimplePerformantInstrumentation {
+
+    @Value("${app.graphql.max-profundidad:6}")
+    private int maxProfundidad = 6;
+
+    @Value("${app.graphql.max-complejidad:5000}")
+    private long maxComplejidad = 5000;
+
+    @Value("${app.graphql.costo-stock:2}")
+    private int costoStock = 2;
+
+    @Value("${app.graphql.limite-maximo:500}")
+    private int limiteMaximo = 500;
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters,
+                                                                         InstrumentationState state) {
+        ExecutionContext contexto = parameters.getExecutionContext();
+        QueryTraverser recorrido = QueryTraverser.newQueryTraverser()
+                .schema(contexto.getGraphQLSchema())
+                .document(contexto.getDocument())
+                .operationName(contexto.getExecutionInput().getOperationName())
+                .coercedVariables(contexto.getCoercedVariables())
+                .build();
+
+        long[] profundidadYComplejidad = new long[2];
+        recorrido.visitPreOrder(new QueryVisitorStub() {
+            @Override
+            public void visitField(QueryVisitorFieldEnvironment env) {
+                long multiplicador = 1;
+                int profundidad = 1;
+                for (QueryVisitorFieldEnvironment ancestro = env.getParentEnvironment(); ancestro != null;
+                     ancestro = ancestro.getParentEnvironment()) {
+                    if (esIntrospeccion(ancestro)) {
+                        return;
+                    }
+                    multiplicador *= limiteDe(ancestro);
+                    profundidad++;
+                }
+                if (esIntrospeccion(env)) {
+                    return;
+                }
+                long costo = "stock".equals(env.getFieldDefinition().getName()) ? costoStock : 1;
+                profundidadYComplejidad[0] = Math.max(profundidadYComplejidad[0], profundidad);
+                profundidadYComplejidad[1] += costo * multiplicador;
+            }
+        });
+
+        if (profundidadYComplejidad[0] > maxProfundidad) {
+            throw new AbortExecutionException("La consulta tiene profundidad " + profundidadYComplejidad[0]
+                    + " y el máximo es " + maxProfundidad);
+        }
+        if (profundidadYComplejidad[1] > maxComplejidad) {
+            throw new AbortExecutionException("La consulta tiene complejidad " + profundidadYComplejidad[1]
+                    + " y el máximo es " + maxComplejidad);
+        }
+        return super.beginExecuteOperation(parameters, state);
+    }
+
+    private static boolean esIntrospeccion(QueryVisitorFieldEnvironment env) {
+        return env.isTypeNameIntrospectionField() || env.getFieldDefinition().getName().startsWith("__");
+    }
+
+    // Tamaño de la lista que devuelve el campo: su argumento "limite" (recortado como en el controller)
+    private long limiteDe(QueryVisitorFieldEnvironment env) {
+        Object limite = env.getArguments().get("limite");
+        return limite instanceof Number n ? Math.max(1, Math.min(n.longValue(), limiteMaximo)) : 1;
+    }
+}
@@ -0,0 +1,347 @@
+package prueba.com.prueba.Config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import prueba.com.prueba.Service.PreciosAjustadosEvent;
+import prueba.com.prueba.Service.ProductoCambiadoEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache de la respuesta ya serializada de GET /api/productos (opcional, app.listado-cache.enabled)
+ * Entre escrituras el listado devuelve siempre los mismos bytes; aquí se guardan tal como salieron
+ * del conversor (HAL JSON, CBOR o Smile según el Accept, y cada ?fields=... por separado) junto
+ * con su versión gzip, y un acierto es una sola escritura del arreglo ya armado.
+ * - Cualquier escritura de ProductoService (o de otra réplica) publica ProductoCambiadoEvent y
+ *   sube la versión: las entradas viejas dejan de servirse.
+ * - El stock viene de inventario y cambia sin eventos: pasado refresco-ms se sigue sirviendo la
+ *   entrada pero se reconstruye en segundo plano (una reconstrucción a la vez); pasado
+ *   max-antiguedad-stock-ms ya no se sirve.
+ * - Un fallo con varias peticiones simultáneas genera la respuesta una sola vez; las demás esperan
+ *   ese resultado (single-flight).
+ * La reconstrucción en segundo plano es una petición HTTP a la propia instancia (como el
+ * calentamiento), así pasa por el controller y los conversores exactamente igual que un cliente.
+ * Va después de los filtros de admisión, deadline y tiempos: un acierto cuesta microsegundos y
+ * sigue apareciendo en esas métricas.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 4)
+public class ListadoCacheFilter implements Filter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ListadoCacheFilter.class);
+
+    public static final String HEADER_CACHE = "X-Cache";
+    // Solo se respeta desde loopback: lo usa la reconstrucción en segundo plano para saltear la cache
+    static final String HEADER_RECONSTRUIR = "X-Listado-Cache";
+
+    private static final Set<String> LOOPBACK = Set.of("127.0.0.1", "0:0:0:0:0:0:0:1", "::1");
+
+    // Una entrada por variante (Accept + query). Inmutable: se comparte entre peticiones
+    record Entrada(byte[] cuerpo, byte[] gzip, String contentType, long version, long creadaNanos) {}
+
+    @Value("${app.listado-cache.enabled:false}")
+    private boolean enabled = false;
+
+    // Pasado este tiempo la entrada se sigue sirviendo y se reconstruye en segundo plano
+    @Value("${app.listado-cache.refresco-ms:5000}")
+    private long refrescoMs = 5000;
+
+    // Antigüedad máxima del stock servido desde la cache
+    @Value("${app.listado-cache.max-antiguedad-stock-ms:30000}")
+    private long maxAntiguedadMs = 30000;
+
+    @Value("${app.listado-cache.max-variantes:16}")
+    private int maxVariantes = 16;
+
+    // Cuánto espera una petición a que otra termine de generar la misma variante
+    @Value("${app.listado-cache.espera-ms:10000}")
+    private long esperaMs = 10000;
+
+    // Igual que server.compression.min-response-size: debajo de esto no vale la pena comprimir
+    @Value("${app.listado-cache.gzip-min-bytes:2048}")
+    private int gzipMinBytes = 2048;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Autowired
+    private ObjectProvider<Environment> environment;
+
+    private final ConcurrentHashMap<String, Entrada> entradas = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<Entrada>> enCurso = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicBoolean reconstruyendo = new AtomicBoolean();
+
+    private ExecutorService reconstructor;
+    private RestTemplate loopback;
+
+    private Counter aciertos;
+    private Counter fallos;
+    private Counter coalescidas;
+    private Counter reconstrucciones;
+
+    @PostConstruct
+    public void init() {
+        MeterRegistry registry = meterRegistry != null ? meterRegistry.getIfAvailable() : null;
+        if (registry != null) {
+            aciertos = Counter.builder("listado.cache").tag("resultado", "acierto").register(registry);
+            fallos = Counter.builder("listado.cache").tag("resultado", "fallo").register(registry);
+            coalescidas = Counter.builder("listado.cache").tag("resultado", "coalescida").register(registry);
+            reconstrucciones = Counter.builder("listado.cache").tag("resultado", "reconstruccion").register(registry);
+        }
+        if (enabled) {
+            reconstructor = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "listado-cache-reconstruccion");
+                t.setDaemon(true);
+                return t;
+            });
+            SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+            factory.setConnectTimeout(2000);
+            factory.setReadTimeout((int) Math.min(Integer.MAX_VALUE, maxAntiguedadMs));
+            loopback = new RestTemplate(factory);
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        if (reconstructor != null) {
+            reconstructor.shutdownNow();
+        }
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+
+        if (!enabled || !esCacheable(httpRequest)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        String clave = clave(httpRequest);
+        boolean reconstruccion = "reconstruir".equals(httpRequest.getHeader(HEADER_RECONSTRUIR))
+                && LOOPBACK.contains(httpRequest.getRemoteAddr());
+
+        if (!reconstruccion) {
+            Entrada entrada = entradas.get(clave);
+            long ahora = System.nanoTime();
+            if (entrada != null && vigente(entrada, ahora)) {
+                if (ahora - entrada.creadaNanos() >= TimeUnit.MILLISECONDS.toNanos(refrescoMs)) {
+                    programarReconstruccion(httpRequest);
+                }
+                incrementar(aciertos);
+                escribir(entrada, httpRequest, httpResponse, ahora);
+                return;
+            }
+        }
+
+        // Fallo: solo una petición por variante genera la respuesta, el resto espera su resultado
+        CompletableFuture<Entrada> propia = new CompletableFuture<>();
+        CompletableFuture<Entrada> existente = enCurso.putIfAbsent(clave, propia);
+        if (existente != null) {
+            Entrada generada = esperar(existente);
+            if (generada != null) {
+                incrementar(coalescidas);
+                escribir(generada, httpRequest, httpResponse, System.nanoTime());
+            } else {
+                chain.doFilter(request, response);
+            }
+            return;
+        }
+        incrementar(fallos);
+        Entrada generada = null;
+        try {
+            generada = generar(clave, httpRequest, httpResponse, chain);
+        } finally {
+            enCurso.remove(clave, propia);
+            propia.complete(generada);
+        }
+    }
+
+    // Corre el controller capturando los bytes; se guarda solo una respuesta 200 y solo si ninguna
+    // escritura invalidó la cache mientras se generaba
+    private Entrada generar(String clave, HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        long versionInicial = version.get();
+        long inicio = System.nanoTime();
+        ContentCachingResponseWrapper captura = new ContentCachingResponseWrapper(response);
+        Entrada entrada = null;
+        try {
+            chain.doFilter(request, captura);
+            if (captura.getStatus() == HttpServletResponse.SC_OK && captura.getContentType() != null) {
+                byte[] cuerpo = captura.getContentAsByteArray();
+                entrada = new Entrada(cuerpo, comprimir(cuerpo), captura.getContentType(), versionInicial, inicio);
+                if (versionInicial == version.get()
+                        && (entradas.size() < maxVariantes || entradas.containsKey(clave))) {
+                    entradas.put(clave, entrada);
+                }
+            }
+        } finally {
+            captura.setHeader(HEADER_CACHE, "MISS");
+            captura.copyBodyToResponse();
+        }
+        return entrada;
+    }
+
+    private Entrada esperar(CompletableFuture<Entrada> enCurso) {
+        try {
+            return enCurso.get(esperaMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    // Un acierto es una sola escritura del arreglo compartido, con el Content-Length ya conocido
+    private void escribir(Entrada entrada, HttpServletRequest request, HttpServletResponse response, long ahora)
+            throws IOException {
+        String acceptEncoding = request.getHeader("Accept-Encoding");
+        boolean gzip = entrada.gzip() != null && acceptEncoding != null && acceptEncoding.contains("gzip");
+        byte[] cuerpo = gzip ? entrada.gzip() : entrada.cuerpo();
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(entrada.contentType());
+        response.addHeader("Vary", "Accept, Accept-Encoding");
+        response.setHeader(HEADER_CACHE, "HIT");
+        response.setHeader("Age", String.valueOf(TimeUnit.NANOSECONDS.toSeconds(ahora - entrada.creadaNanos())));
+        if (gzip) {
+            // Con Content-Encoding ya puesto, la compresión de Tomcat no vuelve a comprimir
+            response.setHeader("Content-Encoding", "gzip");
+        }
+        response.setContentLength(cuerpo.length);
+        response.getOutputStream().write(cuerpo);
+    }
+
+    private byte[] comprimir(byte[] cuerpo) throws IOException {
+        if (cuerpo.length < gzipMinBytes) {
+            return null;
+        }
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(cuerpo.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida)) {
+            gzip.write(cuerpo);
+        }
+        return salida.toByteArray();
+    }
+
+    // Como mucho una reconstrucción en curso en toda la instancia
+    private void programarReconstruccion(HttpServletRequest request) {
+        String puerto = environment.getIfAvailable() != null
+                ? environment.getIfAvailable().getProperty("local.server.port") : null;
+        if (puerto == null || reconstructor == null || !reconstruyendo.compareAndSet(false, true)) {
+            return;
+        }
+        String query = request.getQueryString();
+        URI uri = URI.create("http://localhost:" + puerto + request.getContextPath() + "/api/productos"
+                + (query != null ? "?" + query : ""));
+        String accept = request.getHeader("Accept");
+        try {
+            reconstructor.execute(() -> {
+                try {
+                    loopback.execute(uri, HttpMethod.GET, peticion -> {
+                        peticion.getHeaders().set(HEADER_RECONSTRUIR, "reconstruir");
+                        if (accept != null) {
+                            peticion.getHeaders().set("Accept", accept);
+                        }
+                    }, respuesta -> {
+                        StreamUtils.drain(respuesta.getBody());
+                        return null;
+                    });
+                    incrementar(reconstrucciones);
+                } catch (Exception e) {
+                    logger.warn("No se pudo reconstruir el listado en cache: {}", e.getMessage());
+                } finally {
+                    reconstruyendo.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            reconstruyendo.set(false);
+        }
+    }
+
+    // Solo el listado completo (con o sin ?fields=); ?ids= y cualquier otro parámetro pasan de largo
+    boolean esCacheable(HttpServletRequest request) {
+        if (!"GET".equals(request.getMethod())) {
+            return false;
+        }
+        String ruta = request.getRequestURI().substring(request.getContextPath().length());
+        if (!ruta.equals("/api/productos") && !ruta.equals("/api/productos/")) {
+            return false;
+        }
+        for (String parametro : request.getParameterMap().keySet()) {
+            if (!"fields".equals(parametro)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String clave(HttpServletRequest request) {
+        String accept = request.getHeader("Accept");
+        String query = request.getQueryString();
+        return (accept != null ? accept : "") + "|" + (query != null ? query : "");
+    }
+
+    private boolean vigente(Entrada entrada, long ahora) {
+        return entrada.version() == version.get()
+                && ahora - entrada.creadaNanos() < TimeUnit.MILLISECONDS.toNanos(maxAntiguedadMs);
+    }
+
+    // Cualquier alta, cambio o baja (local o de otra réplica) invalida todas las variantes
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alCambiarProducto(ProductoCambiadoEvent evento) {
+        invalidar();
+    }
+
+    // Un ajuste de precios por conjunto invalida una sola vez, no una por fila
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alAjustarPrecios(PreciosAjustadosEvent evento) {
+        invalidar();
+    }
+
+    public void invalidar() {
+        version.incrementAndGet();
+        entradas.clear();
+    }
+
+    private static void incrementar(Counter contador) {
+        if (contador != null) {
+            contador.increment();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package prueba.com.prueba.Config;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// EVENTO JFR: una llamada HTTP al servicio de inventario (incluye la espera del hedging si lo hay)
+@Name(LlamadaInventarioJfrEvent.NOMBRE)
+@Label("Llamada a inventario")
+@Category({ "Prueba", "Inventario" })
+@Description("Duración de una consulta al servicio de inventario")
+@StackTrace(false)
+public class LlamadaInventarioJfrEvent extends jdk.jfr.Event {
+
+    public static final String NOMBRE = "prueba.LlamadaInventario";
+
+    @Label("Operación")
+    private final String operacion;
+
+    @Label("Exitosa")
+    private boolean exitosa;
+
+    public LlamadaInventarioJfrEvent(String operacion) {
+        this.operacion = operacion;
+    }
+
+    public void marcarExitosa() {
+        this.exitosa = true;
+    }
+}
@@ -0,0 +1,35 @@
+package prueba.com.prueba.Config;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// EVENTO JFR: una llamada a un método público de ProductoService (ver JfrConfig)
+// Aparece en cualquier grabación de JFR (la de /actuator/jfr o una iniciada con jcmd) para alinear
+// las muestras de CPU y asignaciones con la operación de negocio que estaba corriendo.
+// Sin una grabación activa, begin/commit no hacen nada.
+@Name(OperacionProductoJfrEvent.NOMBRE)
+@Label("Operación de ProductoService")
+@Category({ "Prueba", "Productos" })
+@Description("Duración de una operación pública de ProductoService")
+@StackTrace(false)
+public class OperacionProductoJfrEvent extends jdk.jfr.Event {
+
+    public static final String NOMBRE = "prueba.OperacionProducto";
+
+    @Label("Operación")
+    private final String operacion;
+
+    @Label("Error")
+    private boolean error;
+
+    public OperacionProductoJfrEvent(String operacion) {
+        this.operacion = operacion;
+    }
+
+    public void marcarError() {
+        this.error = true;
+    }
+}
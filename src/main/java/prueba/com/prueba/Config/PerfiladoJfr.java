@@ -0,0 +1,365 @@
+package prueba.com.prueba.Config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// PERFILADO BAJO DEMANDA CON JAVA FLIGHT RECORDER (opcional: app.jfr.enabled)
+// Una grabación a la vez, acotada en duración (duracion-maxima-s) y en disco (max-bytes).
+// Los eventos se consumen en vivo con la API de streaming de JFR (RecordingStream) y se resumen
+// mientras llegan: métodos con más muestras de CPU, sitios con más bytes asignados, pausas de GC
+// y las operaciones de ProductoService / llamadas a inventario (eventos propios). Al terminar,
+// la grabación se vuelca a un .jfr para abrirlo en JDK Mission Control.
+// El resumen se arma con lo que el stream ya entregó: el último segundo de la ventana puede faltar.
+// El bean existe siempre y app.jfr.enabled se lee al arrancar (no es una condición: con el perfil
+// fast-startup las condiciones quedan fijadas en build y JFR_ENABLED se ignoraría).
+@Component
+public class PerfiladoJfr {
+
+    private static final Logger logger = LoggerFactory.getLogger(PerfiladoJfr.class);
+
+    @Value("${app.jfr.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.jfr.duracion-por-defecto-s:60}")
+    private int duracionPorDefectoS = 60;
+
+    @Value("${app.jfr.duracion-maxima-s:300}")
+    private int duracionMaximaS = 300;
+
+    // Tope del repositorio en disco de la grabación (y por lo tanto del .jfr)
+    @Value("${app.jfr.max-bytes:52428800}")
+    private long maxBytes = 52_428_800;
+
+    // Período del muestreo de CPU (jdk.ExecutionSample)
+    @Value("${app.jfr.periodo-muestreo-ms:20}")
+    private long periodoMuestreoMs = 20;
+
+    // Cuántas entradas devuelve cada ranking del resumen
+    @Value("${app.jfr.top:15}")
+    private int top = 15;
+
+    @Value("${app.jfr.directorio:${java.io.tmpdir}}")
+    private String directorio = System.getProperty("java.io.tmpdir");
+
+    public record Conteo(String nombre, long valor) {}
+    public record PausaGc(String gc, String causa, Instant inicio, double pausaMs) {}
+    public record ResumenGc(long cantidad, double totalMs, double maxMs, List<PausaGc> mayores) {}
+    public record Operacion(String nombre, long veces, long errores, double totalMs, double maxMs) {}
+    public record Resumen(long muestrasCpu, List<Conteo> metodosCpu,
+                          long muestrasAsignacion, List<Conteo> sitiosAsignacionBytes,
+                          ResumenGc gc, List<Operacion> operacionesProducto, List<Operacion> llamadasInventario) {}
+    public record Estado(long id, String estado, Instant inicio, Instant fin, int segundos,
+                         Long bytesArchivo, Resumen resumen) {}
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicLong secuencia = new AtomicLong();
+    private volatile Grabacion actual;
+
+    private final ScheduledExecutorService programador = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "jfr-perfilado");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public boolean isHabilitado() {
+        return enabled;
+    }
+
+    // Inicia una grabación de "segundos" (recortado a duracion-maxima-s).
+    // Devuelve null si ya hay una en curso.
+    public Estado iniciar(Integer segundos) {
+        if (!enabled) {
+            throw new IllegalStateException("Perfilado JFR deshabilitado (app.jfr.enabled=false)");
+        }
+        int duracion = Math.max(1, Math.min(duracionMaximaS, segundos != null ? segundos : duracionPorDefectoS));
+        lock.lock();
+        try {
+            if (actual != null && actual.fin == null) {
+                return null;
+            }
+            if (actual != null) {
+                borrar(actual.archivo);
+            }
+            long id = secuencia.incrementAndGet();
+            Agregado agregado = new Agregado();
+            RecordingStream stream = new RecordingStream();
+            stream.setMaxSize(maxBytes);
+            stream.enable("jdk.ExecutionSample").withPeriod(Duration.ofMillis(periodoMuestreoMs));
+            stream.enable("jdk.ObjectAllocationSample").with("throttle", "150/s");
+            stream.enable("jdk.GarbageCollection");
+            stream.enable(OperacionProductoJfrEvent.class).withoutThreshold();
+            stream.enable(LlamadaInventarioJfrEvent.class).withoutThreshold();
+            stream.onEvent("jdk.ExecutionSample", agregado::muestraCpu);
+            stream.onEvent("jdk.ObjectAllocationSample", agregado::asignacion);
+            stream.onEvent("jdk.GarbageCollection", agregado::pausaGc);
+            stream.onEvent(OperacionProductoJfrEvent.NOMBRE, agregado::operacionProducto);
+            stream.onEvent(LlamadaInventarioJfrEvent.NOMBRE, agregado::llamadaInventario);
+            stream.startAsync();
+
+            Grabacion grabacion = new Grabacion(id, Instant.now(), duracion, stream, agregado,
+                    Path.of(directorio).resolve("prueba-" + id + ".jfr"));
+            actual = grabacion;
+            programador.schedule(() -> terminar(grabacion), duracion, TimeUnit.SECONDS);
+            logger.info("Grabación JFR {} iniciada por {} s", id, duracion);
+            return estado(grabacion);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Corta la grabación en curso antes de tiempo; devuelve false si no había ninguna
+    public boolean detener() {
+        Grabacion grabacion = actual;
+        if (grabacion == null || grabacion.fin != null) {
+            return false;
+        }
+        terminar(grabacion);
+        return true;
+    }
+
+    // Estado de la última grabación (el resumen es parcial mientras sigue grabando); null si nunca hubo
+    public Estado estado() {
+        Grabacion grabacion = actual;
+        return grabacion != null ? estado(grabacion) : null;
+    }
+
+    // El .jfr de la grabación "id" si ya terminó y sigue siendo la última; null si no
+    public Path archivo(long id) {
+        Grabacion grabacion = actual;
+        if (grabacion == null || grabacion.id != id || grabacion.fin == null || !Files.exists(grabacion.archivo)) {
+            return null;
+        }
+        return grabacion.archivo;
+    }
+
+    private void terminar(Grabacion grabacion) {
+        lock.lock();
+        try {
+            if (grabacion.fin != null) {
+                return;
+            }
+            try {
+                grabacion.stream.dump(grabacion.archivo);
+            } catch (IOException e) {
+                logger.warn("No se pudo escribir la grabación JFR {}: {}", grabacion.id, e.getMessage());
+            }
+            grabacion.stream.close();
+            grabacion.fin = Instant.now();
+            logger.info("Grabación JFR {} terminada: {}", grabacion.id, grabacion.archivo);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Estado estado(Grabacion g) {
+        Long bytes = null;
+        if (g.fin != null) {
+            try {
+                bytes = Files.exists(g.archivo) ? Files.size(g.archivo) : null;
+            } catch (IOException e) {
+                bytes = null;
+            }
+        }
+        return new Estado(g.id, g.fin == null ? "GRABANDO" : "TERMINADA", g.inicio, g.fin, g.segundos,
+                bytes, g.agregado.resumen(top));
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        programador.shutdownNow();
+        Grabacion grabacion = actual;
+        if (grabacion != null) {
+            if (grabacion.fin == null) {
+                grabacion.stream.close();
+            }
+            borrar(grabacion.archivo);
+        }
+    }
+
+    private static void borrar(Path archivo) {
+        try {
+            Files.deleteIfExists(archivo);
+        } catch (IOException e) {
+            logger.warn("No se pudo borrar {}: {}", archivo, e.getMessage());
+        }
+    }
+
+    private static final class Grabacion {
+        final long id;
+        final Instant inicio;
+        final int segundos;
+        final RecordingStream stream;
+        final Agregado agregado;
+        final Path archivo;
+        volatile Instant fin;
+
+        Grabacion(long id, Instant inicio, int segundos, RecordingStream stream, Agregado agregado, Path archivo) {
+            this.id = id;
+            this.inicio = inicio;
+            this.segundos = segundos;
+            this.stream = stream;
+            this.agregado = agregado;
+            this.archivo = archivo;
+        }
+    }
+
+    // Acumuladores de una grabación. Los escribe el hilo del RecordingStream y los lee el endpoint.
+    static final class Agregado {
+        private final Map<String, LongAdder> cpu = new ConcurrentHashMap<>();
+        private final LongAdder muestrasCpu = new LongAdder();
+        private final Map<String, LongAdder> asignaciones = new ConcurrentHashMap<>();
+        private final LongAdder muestrasAsignacion = new LongAdder();
+        private final Map<String, Estadistica> operaciones = new ConcurrentHashMap<>();
+        private final Map<String, Estadistica> inventario = new ConcurrentHashMap<>();
+
+        private final ReentrantLock lockGc = new ReentrantLock();
+        private final PriorityQueue<PausaGc> mayoresPausas = new PriorityQueue<>(Comparator.comparingDouble(PausaGc::pausaMs));
+        private long pausas;
+        private double pausasTotalMs;
+        private double pausaMaxMs;
+
+        void muestraCpu(RecordedEvent evento) {
+            RecordedFrame frame = primerFrame(evento.getStackTrace(), false);
+            if (frame != null) {
+                muestrasCpu.increment();
+                cpu.computeIfAbsent(metodo(frame), k -> new LongAdder()).increment();
+            }
+        }
+
+        // El sitio es el primer frame fuera del JDK (el código que pidió la memoria), con el tipo asignado
+        void asignacion(RecordedEvent evento) {
+            RecordedFrame frame = primerFrame(evento.getStackTrace(), true);
+            if (frame == null) {
+                return;
+            }
+            muestrasAsignacion.increment();
+            String sitio = metodo(frame) + " [" + evento.getClass("objectClass").getName() + "]";
+            asignaciones.computeIfAbsent(sitio, k -> new LongAdder()).add(evento.getLong("weight"));
+        }
+
+        void pausaGc(RecordedEvent evento) {
+            double totalMs = evento.getDuration("sumOfPauses").toNanos() / 1e6;
+            double maxMs = evento.getDuration("longestPause").toNanos() / 1e6;
+            PausaGc pausa = new PausaGc(evento.getString("name"), evento.getString("cause"), evento.getStartTime(), maxMs);
+            lockGc.lock();
+            try {
+                pausas++;
+                pausasTotalMs += totalMs;
+                pausaMaxMs = Math.max(pausaMaxMs, maxMs);
+                mayoresPausas.add(pausa);
+                if (mayoresPausas.size() > 50) {
+                    mayoresPausas.poll();
+                }
+            } finally {
+                lockGc.unlock();
+            }
+        }
+
+        void operacionProducto(RecordedEvent evento) {
+            operaciones.computeIfAbsent(evento.getString("operacion"), k -> new Estadistica())
+                    .registrar(evento.getDuration().toNanos(), evento.getBoolean("error"));
+        }
+
+        void llamadaInventario(RecordedEvent evento) {
+            inventario.computeIfAbsent(evento.getString("operacion"), k -> new Estadistica())
+                    .registrar(evento.getDuration().toNanos(), !evento.getBoolean("exitosa"));
+        }
+
+        Resumen resumen(int top) {
+            ResumenGc gc;
+            lockGc.lock();
+            try {
+                List<PausaGc> mayores = new ArrayList<>(mayoresPausas);
+                mayores.sort(Comparator.comparingDouble(PausaGc::pausaMs).reversed());
+                gc = new ResumenGc(pausas, pausasTotalMs, pausaMaxMs, mayores.subList(0, Math.min(top, mayores.size())));
+            } finally {
+                lockGc.unlock();
+            }
+            return new Resumen(muestrasCpu.sum(), ranking(cpu, top), muestrasAsignacion.sum(),
+                    ranking(asignaciones, top), gc, operaciones(operaciones), operaciones(inventario));
+        }
+
+        private static List<Conteo> ranking(Map<String, LongAdder> conteos, int top) {
+            return conteos.entrySet().stream()
+                    .map(e -> new Conteo(e.getKey(), e.getValue().sum()))
+                    .sorted(Comparator.comparingLong(Conteo::valor).reversed())
+                    .limit(top)
+                    .toList();
+        }
+
+        private static List<Operacion> operaciones(Map<String, Estadistica> estadisticas) {
+            return estadisticas.entrySet().stream()
+                    .map(e -> e.getValue().aOperacion(e.getKey()))
+                    .sorted(Comparator.comparingDouble(Operacion::totalMs).reversed())
+                    .toList();
+        }
+
+        private static RecordedFrame primerFrame(RecordedStackTrace stackTrace, boolean fueraDelJdk) {
+            if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+                return null;
+            }
+            List<RecordedFrame> frames = stackTrace.getFrames();
+            if (fueraDelJdk) {
+                for (RecordedFrame frame : frames) {
+                    String tipo = frame.getMethod().getType().getName();
+                    if (!tipo.startsWith("java.") && !tipo.startsWith("jdk.") && !tipo.startsWith("sun.")) {
+                        return frame;
+                    }
+                }
+            }
+            return frames.get(0);
+        }
+
+        private static String metodo(RecordedFrame frame) {
+            return frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+        }
+    }
+
+    static final class Estadistica {
+        private final LongAdder veces = new LongAdder();
+        private final LongAdder errores = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void registrar(long nanos, boolean error) {
+            veces.increment();
+            if (error) {
+                errores.increment();
+            }
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        Operacion aOperacion(String nombre) {
+            return new Operacion(nombre, veces.sum(), errores.sum(), totalNanos.sum() / 1e6, maxNanos.get() / 1e6);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package prueba.com.prueba.Config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * POST /actuator/jfr?segundos=60 - inicia una grabación de JFR acotada (409 si ya hay una en curso)
+ * GET /actuator/jfr - estado y resumen de la última grabación (parcial mientras graba)
+ * GET /actuator/jfr/{id} - descarga el .jfr de la grabación terminada
+ * DELETE /actuator/jfr - corta la grabación en curso
+ * Todas exigen el header X-Diagnostico-Token (ver JfrAccesoFilter).
+ * Con app.jfr.enabled=false el endpoint sigue registrado pero todas responden 404.
+ */
+@Component
+@Endpoint(id = "jfr")
+public class PerfiladoJfrEndpoint {
+
+    @Autowired
+    private PerfiladoJfr perfiladoJfr;
+
+    @WriteOperation
+    public WebEndpointResponse<PerfiladoJfr.Estado> iniciar(@Nullable Integer segundos) {
+        if (!perfiladoJfr.isHabilitado()) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        PerfiladoJfr.Estado estado = perfiladoJfr.iniciar(segundos);
+        if (estado == null) {
+            return new WebEndpointResponse<>(perfiladoJfr.estado(), 409);
+        }
+        return new WebEndpointResponse<>(estado, 202);
+    }
+
+    @ReadOperation
+    public WebEndpointResponse<PerfiladoJfr.Estado> estado() {
+        PerfiladoJfr.Estado estado = perfiladoJfr.estado();
+        return estado != null && perfiladoJfr.isHabilitado()
+                ? new WebEndpointResponse<>(estado)
+                : new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> descargar(@Selector long id) {
+        Path archivo = perfiladoJfr.archivo(id);
+        return archivo != null && perfiladoJfr.isHabilitado()
+                ? new WebEndpointResponse<>(new FileSystemResource(archivo))
+                : new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+    }
+
+    @DeleteOperation
+    public WebEndpointResponse<PerfiladoJfr.Estado> detener() {
+        return perfiladoJfr.isHabilitado() && perfiladoJfr.detener()
+                ? new WebEndpointResponse<>(perfiladoJfr.estado())
+                : new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+    }
+}
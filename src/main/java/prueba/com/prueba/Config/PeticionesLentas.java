@@ -0,0 +1,97 @@
+package prueba.com.prueba.Config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Las N peticiones más lentas desde el arranque (o desde el último DELETE a /actuator/slowrequests)
+ * con su desglose por fase. Es un min-heap acotado: la más rápida de las guardadas marca el umbral
+ * y cualquier petición por debajo se descarta con una lectura volatile, sin lock ni copias.
+ */
+@Component
+public class PeticionesLentas {
+
+    public record FaseMedida(double ms, long veces) { }
+
+    public record PeticionLenta(Instant inicio, String metodo, String ruta, int estado, double totalMs,
+                                Map<String, FaseMedida> fases) { }
+
+    @Value("${app.peticiones-lentas.capacidad:20}")
+    private int capacidad = 20;
+
+    // Duración mínima para considerar una petición
+    @Value("${app.peticiones-lentas.minimo-ms:0}")
+    private long minimoMs = 0;
+
+    private final PriorityQueue<PeticionLenta> lentas = new PriorityQueue<>(Comparator.comparingDouble(PeticionLenta::totalMs));
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile long umbralNanos;
+
+    public void registrar(TiemposPeticion tiempos, long totalNanos, int estado) {
+        if (totalNanos < TimeUnit.MILLISECONDS.toNanos(minimoMs) || totalNanos <= umbralNanos) {
+            return;
+        }
+        PeticionLenta peticion = crear(tiempos, totalNanos, estado);
+        lock.lock();
+        try {
+            lentas.add(peticion);
+            if (lentas.size() > capacidad) {
+                lentas.poll();
+            }
+            if (lentas.size() >= capacidad) {
+                umbralNanos = (long) (lentas.peek().totalMs() * 1_000_000);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // De la más lenta a la más rápida
+    public List<PeticionLenta> getLentas() {
+        lock.lock();
+        try {
+            List<PeticionLenta> copia = new ArrayList<>(lentas);
+            copia.sort(Comparator.comparingDouble(PeticionLenta::totalMs).reversed());
+            return copia;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void limpiar() {
+        lock.lock();
+        try {
+            lentas.clear();
+            umbralNanos = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static PeticionLenta crear(TiemposPeticion tiempos, long totalNanos, int estado) {
+        Map<String, FaseMedida> fases = new LinkedHashMap<>();
+        long medidos = 0;
+        for (Map.Entry<String, long[]> fase : tiempos.getFases().entrySet()) {
+            fases.put(fase.getKey(), new FaseMedida(aMs(fase.getValue()[0]), fase.getValue()[1]));
+            medidos += fase.getValue()[0];
+        }
+        // Lo que no cae en ninguna fase instrumentada (filtros, validación, controller)
+        fases.put("otros", new FaseMedida(aMs(Math.max(0, totalNanos - medidos)), 1));
+        return new PeticionLenta(Instant.ofEpochMilli(tiempos.getInicioEpochMs()), tiempos.getMetodo(),
+                tiempos.getRuta(), estado, aMs(totalNanos), fases);
+    }
+
+    private static double aMs(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+}
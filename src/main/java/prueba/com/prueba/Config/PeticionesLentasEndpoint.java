@@ -0,0 +1,31 @@
+package prueba.com.prueba.Config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * GET /actuator/slowrequests - las peticiones más lentas con el tiempo de cada fase
+ * DELETE /actuator/slowrequests - vacía la lista (por ejemplo, después de un incidente)
+ */
+@Component
+@Endpoint(id = "slowrequests")
+public class PeticionesLentasEndpoint {
+
+    @Autowired
+    private PeticionesLentas peticionesLentas;
+
+    @ReadOperation
+    public List<PeticionesLentas.PeticionLenta> peticionesLentas() {
+        return peticionesLentas.getLentas();
+    }
+
+    @DeleteOperation
+    public void limpiar() {
+        peticionesLentas.limpiar();
+    }
+}
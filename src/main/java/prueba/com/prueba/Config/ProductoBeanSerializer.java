@@ -0,0 +1,116 @@
+package prueba.com.prueba.Config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializer;
+import com.fasterxml.jackson.databind.ser.std.BeanSerializerBase;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Serializador escrito a mano para los DTO de producto
+ * Parte del BeanSerializer que Jackson construyó para la clase (mismo orden de propiedades,
+ * mismos nombres ya codificados) pero los campos escalares se leen con el getter directo y se
+ * escriben con el método tipado del generador, sin pasar por reflexión ni por la búsqueda de
+ * serializador de cada valor. El resto (_links con el serializador HAL) se delega tal cual en
+ * su BeanPropertyWriter, así la salida es idéntica byte a byte a la del serializador por defecto.
+ */
+class ProductoBeanSerializer extends BeanSerializer {
+
+    private final Map<String, Function<Object, Object>> campos;
+    // Alineado con _props: getter directo del campo, o null si esa propiedad se delega
+    private final Function<Object, Object>[] rapidos;
+
+    ProductoBeanSerializer(BeanSerializerBase base, Map<String, Function<Object, Object>> campos) {
+        super(base);
+        this.campos = campos;
+        this.rapidos = resolverCampos(_props, campos);
+    }
+
+    private ProductoBeanSerializer(ProductoBeanSerializer base, BeanPropertyWriter[] props, BeanPropertyWriter[] filtradas) {
+        super(base, props, filtradas);
+        this.campos = base.campos;
+        this.rapidos = resolverCampos(props, campos);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object>[] resolverCampos(BeanPropertyWriter[] props,
+                                                             Map<String, Function<Object, Object>> campos) {
+        Function<Object, Object>[] rapidos = new Function[props.length];
+        for (int i = 0; i < props.length; i++) {
+            // Una propiedad con serializador propio (@JsonSerialize, módulos) se respeta y se delega
+            if (!props[i].hasSerializer() && !props[i].hasNullSerializer()) {
+                rapidos[i] = campos.get(props[i].getName());
+            }
+        }
+        return rapidos;
+    }
+
+    @Override
+    public void serialize(Object bean, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        // Vistas, filtros, object ids o any-getter: camino genérico de Jackson
+        if (_objectIdWriter != null || _propertyFilterId != null || _anyGetterWriter != null
+                || (_filteredProps != null && provider.getActiveView() != null)) {
+            super.serialize(bean, gen, provider);
+            return;
+        }
+        gen.writeStartObject(bean);
+        BeanPropertyWriter[] props = _props;
+        int i = 0;
+        try {
+            for (; i < props.length; i++) {
+                BeanPropertyWriter prop = props[i];
+                Function<Object, Object> getter = rapidos[i];
+                if (getter == null) {
+                    prop.serializeAsField(bean, gen, provider);
+                    continue;
+                }
+                Object valor = getter.apply(bean);
+                if (valor == null) {
+                    if (!prop.willSuppressNulls()) {
+                        gen.writeFieldName(prop.getSerializedName());
+                        gen.writeNull();
+                    }
+                    continue;
+                }
+                gen.writeFieldName(prop.getSerializedName());
+                escribirValor(valor, gen, prop, provider);
+            }
+        } catch (Exception e) {
+            // Mismo envoltorio que BeanSerializerBase.serializeFields: el error indica la propiedad
+            wrapAndThrow(provider, e, bean, props[i].getName());
+        }
+        gen.writeEndObject();
+    }
+
+    private static void escribirValor(Object valor, JsonGenerator gen, BeanPropertyWriter prop,
+                                      SerializerProvider provider) throws IOException {
+        if (valor instanceof String texto) {
+            gen.writeString(texto);
+        } else if (valor instanceof Long numero) {
+            gen.writeNumber(numero.longValue());
+        } else if (valor instanceof Integer numero) {
+            gen.writeNumber(numero.intValue());
+        } else if (valor instanceof Double numero) {
+            gen.writeNumber(numero.doubleValue());
+        } else if (valor instanceof Boolean bandera) {
+            gen.writeBoolean(bandera);
+        } else {
+            // Tipo no previsto: lo resuelve el serializador que Jackson tenga para ese valor
+            provider.findValueSerializer(valor.getClass(), prop).serialize(valor, gen, provider);
+        }
+    }
+
+    @Override
+    protected BeanSerializerBase withProperties(BeanPropertyWriter[] properties, BeanPropertyWriter[] filteredProperties) {
+        return new ProductoBeanSerializer(this, properties, filteredProperties);
+    }
+
+    @Override
+    public String toString() {
+        return "ProductoBeanSerializer for " + handledType().getName();
+    }
+}
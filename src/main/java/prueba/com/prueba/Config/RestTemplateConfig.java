@@ -5,15 +5,32 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.http.client.SimpleClientHttpRequestFactory;
 
+import java.io.IOException;
+import java.net.HttpURLConnection;
+
 @Configuration
 public class RestTemplateConfig {
     
     @Bean
     public RestTemplate restTemplate() {
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory() {
+            @Override
+            protected void prepareConnection(HttpURLConnection connection, String httpMethod) throws IOException {
+                super.prepareConnection(connection, httpMethod);
+                // Con deadline de la petición, los timeouts se recortan a lo que le queda (ver DeadlineFilter)
+                Deadline deadline = Deadline.actual();
+                if (deadline != null) {
+                    connection.setConnectTimeout(deadline.recortar(connection.getConnectTimeout()));
+                    connection.setReadTimeout(deadline.recortar(connection.getReadTimeout()));
+                }
+            }
+        };
         factory.setConnectTimeout(3000);  // 3 segundos timeout de conexión
         factory.setReadTimeout(3000);     // 3 segundos timeout de lectura
         
-        return new RestTemplate(factory);
+        RestTemplate restTemplate = new RestTemplate(factory);
+        // Corta las llamadas con el deadline vencido y lo reenvía al servicio de inventario
+        restTemplate.getInterceptors().add(new DeadlineInterceptor());
+        return restTemplate;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,10 @@
+package prueba.com.prueba.Config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Habilita los @Scheduled (vaciado periódico de la cola de escrituras diferidas)
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
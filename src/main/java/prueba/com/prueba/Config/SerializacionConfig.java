@@ -0,0 +1,30 @@
+package prueba.com.prueba.Config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Serialización JSON sin reflexión para los DTO de producto (app.json.serializadores-manuales=true)
+ * El módulo se registra en el ObjectMapper de Spring Boot; el conversor HAL JSON y los
+ * conversores CBOR/Smile de FormatosBinariosConfig trabajan sobre copias de ese ObjectMapper,
+ * así que el módulo aplica a todos los formatos.
+ * El bean existe siempre y la propiedad se mira al construir el ObjectMapper: con el build AOT
+ * (perfil fast-startup) un @ConditionalOnProperty quedaría fijado en build e ignoraría la variable.
+ */
+@Configuration
+public class SerializacionConfig {
+
+    @Value("${app.json.serializadores-manuales:false}")
+    private boolean serializadoresManuales;
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer serializadoresProductoCustomizer() {
+        return builder -> {
+            if (serializadoresManuales) {
+                builder.postConfigurer(mapper -> mapper.registerModule(new SerializadoresProductoModule()));
+            }
+        };
+    }
+}
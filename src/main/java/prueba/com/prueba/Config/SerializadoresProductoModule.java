@@ -0,0 +1,81 @@
+package prueba.com.prueba.Config;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.std.BeanSerializerBase;
+
+import prueba.com.prueba.DTO.ProductoConStockDTO;
+import prueba.com.prueba.DTO.ProductoDTO;
+import prueba.com.prueba.DTO.ProductoParcialDTO;
+
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Módulo Jackson que cambia el serializador por reflexión de los DTO de producto por ProductoBeanSerializer
+ * Se registra solo con app.json.serializadores-manuales=true (ver SerializacionConfig).
+ * Si se agrega un campo a un DTO y no se añade aquí, ese campo sigue saliendo por el camino genérico.
+ */
+public class SerializadoresProductoModule extends SimpleModule {
+
+    private static final Map<Class<?>, Map<String, Function<Object, Object>>> CAMPOS = Map.of(
+            ProductoConStockDTO.class, getters(Map.<String, Function<ProductoConStockDTO, Object>>of(
+                    "id", ProductoConStockDTO::getId,
+                    "nombre", ProductoConStockDTO::getNombre,
+                    "descripcion", ProductoConStockDTO::getDescripcion,
+                    "precio", ProductoConStockDTO::getPrecio,
+                    "categoria", ProductoConStockDTO::getCategoria,
+                    "stock", ProductoConStockDTO::getStock,
+                    "stockStale", ProductoConStockDTO::getStockStale,
+                    "stockAsOf", ProductoConStockDTO::getStockAsOf)),
+            ProductoDTO.class, getters(Map.<String, Function<ProductoDTO, Object>>of(
+                    "id", ProductoDTO::getId,
+                    "nombre", ProductoDTO::getNombre,
+                    "descripcion", ProductoDTO::getDescripcion,
+                    "precio", ProductoDTO::getPrecio,
+                    "categoria", ProductoDTO::getCategoria)),
+            ProductoParcialDTO.class, getters(Map.<String, Function<ProductoParcialDTO, Object>>of(
+                    "id", ProductoParcialDTO::getId,
+                    "nombre", ProductoParcialDTO::getNombre,
+                    "descripcion", ProductoParcialDTO::getDescripcion,
+                    "precio", ProductoParcialDTO::getPrecio,
+                    "categoria", ProductoParcialDTO::getCategoria,
+                    "stock", ProductoParcialDTO::getStock,
+                    "stockStale", ProductoParcialDTO::getStockStale,
+                    "stockAsOf", ProductoParcialDTO::getStockAsOf)));
+
+    public SerializadoresProductoModule() {
+        super("SerializadoresProductoModule");
+        setSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            public JsonSerializer<?> modifySerializer(SerializationConfig config, BeanDescription descripcion,
+                                                      JsonSerializer<?> serializer) {
+                Map<String, Function<Object, Object>> campos = CAMPOS.get(descripcion.getBeanClass());
+                if (campos == null || !(serializer instanceof BeanSerializerBase base)
+                        || !inclusionSoportada(config, descripcion)) {
+                    return serializer;
+                }
+                return new ProductoBeanSerializer(base, campos);
+            }
+        });
+    }
+
+    // El camino rápido solo sabe escribir siempre u omitir nulls; NON_EMPTY, NON_DEFAULT, etc. quedan en Jackson
+    private static boolean inclusionSoportada(SerializationConfig config, BeanDescription descripcion) {
+        JsonInclude.Value inclusion = descripcion.findPropertyInclusion(
+                config.getDefaultPropertyInclusion(descripcion.getBeanClass()));
+        JsonInclude.Include valor = inclusion.getValueInclusion();
+        return valor == JsonInclude.Include.ALWAYS
+                || valor == JsonInclude.Include.NON_NULL
+                || valor == JsonInclude.Include.USE_DEFAULTS;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Map<String, Function<Object, Object>> getters(Map<String, Function<T, Object>> getters) {
+        return (Map<String, Function<Object, Object>>) (Map<String, ?>) getters;
+    }
+}
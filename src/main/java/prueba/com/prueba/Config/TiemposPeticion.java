@@ -0,0 +1,90 @@
+package prueba.com.prueba.Config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Desglose de tiempos de la petición en curso por fase (db, inventario, mapeo, enlaces, serializacion)
+ * TiemposPeticionFilter lo abre y lo cierra; el código instrumentado solo hace
+ *   try (TiemposPeticion.Fase f = TiemposPeticion.fase("db")) { ... }
+ * Fuera de una petición (tareas programadas, tests unitarios) fase() devuelve un objeto vacío compartido,
+ * así que el costo es un ThreadLocal.get(). Dentro, dos System.nanoTime() y una suma por fase.
+ * No es thread-safe: cada petición la usa solo su propio hilo.
+ */
+public final class TiemposPeticion {
+
+    private static final ThreadLocal<TiemposPeticion> ACTUAL = new ThreadLocal<>();
+
+    // Fase que no mide nada (no hay petición en curso)
+    private static final Fase NINGUNA = () -> { };
+
+    public interface Fase extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private final String metodo;
+    private final String ruta;
+    private final long inicioEpochMs = System.currentTimeMillis();
+    private final long inicioNanos = System.nanoTime();
+    // Por fase: [nanos acumulados, veces]
+    private final Map<String, long[]> fases = new LinkedHashMap<>();
+    private long inicioSerializacionNanos = -1;
+
+    private TiemposPeticion(String metodo, String ruta) {
+        this.metodo = metodo;
+        this.ruta = ruta;
+    }
+
+    public static TiemposPeticion iniciar(String metodo, String ruta) {
+        TiemposPeticion tiempos = new TiemposPeticion(metodo, ruta);
+        ACTUAL.set(tiempos);
+        return tiempos;
+    }
+
+    public static TiemposPeticion actual() {
+        return ACTUAL.get();
+    }
+
+    public static void terminar() {
+        ACTUAL.remove();
+    }
+
+    // Abre una fase de la petición en curso; se cierra con close() (try-with-resources)
+    public static Fase fase(String nombre) {
+        TiemposPeticion tiempos = ACTUAL.get();
+        if (tiempos == null) {
+            return NINGUNA;
+        }
+        long inicio = System.nanoTime();
+        return () -> tiempos.sumar(nombre, System.nanoTime() - inicio);
+    }
+
+    // Lo llama TiemposPeticionAdvice justo antes de que el conversor HTTP escriba el cuerpo
+    public static void marcarInicioSerializacion() {
+        TiemposPeticion tiempos = ACTUAL.get();
+        if (tiempos != null && tiempos.inicioSerializacionNanos < 0) {
+            tiempos.inicioSerializacionNanos = System.nanoTime();
+        }
+    }
+
+    // Cierra la medición: la serialización va desde la marca hasta el final de la petición
+    long cerrar() {
+        long fin = System.nanoTime();
+        if (inicioSerializacionNanos >= 0) {
+            sumar("serializacion", fin - inicioSerializacionNanos);
+        }
+        return fin - inicioNanos;
+    }
+
+    void sumar(String fase, long nanos) {
+        long[] acumulado = fases.computeIfAbsent(fase, k -> new long[2]);
+        acumulado[0] += nanos;
+        acumulado[1]++;
+    }
+
+    public String getMetodo() { return metodo; }
+    public String getRuta() { return ruta; }
+    public long getInicioEpochMs() { return inicioEpochMs; }
+    Map<String, long[]> getFases() { return fases; }
+}
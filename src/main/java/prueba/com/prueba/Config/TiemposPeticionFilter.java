@@ -0,0 +1,59 @@
+package prueba.com.prueba.Config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+
+/**
+ * Abre el desglose de tiempos (TiemposPeticion) de cada petición a /api/** y al terminar
+ * lo entrega a PeticionesLentas, que solo se queda con las más lentas
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 3)
+public class TiemposPeticionFilter implements Filter {
+
+    @Value("${app.peticiones-lentas.enabled:true}")
+    private boolean enabled = true;
+
+    // Opcional: en los tests de slice (@WebMvcTest) el filtro se carga pero PeticionesLentas no
+    @Autowired
+    private ObjectProvider<PeticionesLentas> peticionesLentas;
+
+    private PeticionesLentas destino;
+
+    @PostConstruct
+    public void init() {
+        destino = peticionesLentas != null ? peticionesLentas.getIfAvailable() : null;
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        String ruta = httpRequest.getRequestURI().substring(httpRequest.getContextPath().length());
+        if (!enabled || destino == null || !ruta.startsWith("/api/")) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String query = httpRequest.getQueryString();
+        TiemposPeticion tiempos = TiemposPeticion.iniciar(httpRequest.getMethod(), query == null ? ruta : ruta + "?" + query);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            TiemposPeticion.terminar();
+            long total = tiempos.cerrar();
+            destino.registrar(tiempos, total, ((HttpServletResponse) response).getStatus());
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package prueba.com.prueba.Config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import prueba.com.prueba.Service.WarmupService;
+
+/**
+ * Health check "warmup" incluido en el grupo de readiness
+ * Reporta OUT_OF_SERVICE mientras el calentamiento no termina y expone su duración y resultados
+ */
+@Component
+public class WarmupHealthIndicator implements HealthIndicator {
+
+    @Autowired
+    private WarmupService warmupService;
+
+    @Override
+    public Health health() {
+        WarmupService.Estado estado = warmupService.getEstado();
+        Health.Builder builder = switch (estado) {
+            case COMPLETADO, DESHABILITADO -> Health.up();
+            case PENDIENTE, EN_CURSO -> Health.outOfService();
+        };
+        return builder
+                .withDetail("estado", estado)
+                .withDetails(warmupService.getResultado())
+                .build();
+    }
+}
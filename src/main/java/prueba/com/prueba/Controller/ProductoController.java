@@ -2,17 +2,34 @@ package prueba.com.prueba.Controller;
 
 // Imports básicos de Spring MVC para crear controladores REST
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 // Imports para HATEOAS - Requisito de rúbrica: "Implementar HATEOAS"
 import org.springframework.hateoas.CollectionModel;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.*;
 
 // Imports de mis DTOs y modelos
+import prueba.com.prueba.Config.TiemposPeticion;
+import prueba.com.prueba.DTO.AjustePreciosDTO;
+import prueba.com.prueba.DTO.CambiosDTO;
 import prueba.com.prueba.DTO.ProductoConStockDTO;
 import prueba.com.prueba.DTO.ProductoDTO;
+import prueba.com.prueba.DTO.ProductoParcialDTO;
+import prueba.com.prueba.DTO.ProductosPorIdsDTO;
+import prueba.com.prueba.DTO.ResultadoAjustePreciosDTO;
+import prueba.com.prueba.DTO.SugerenciaDTO;
 import prueba.com.prueba.Model.Producto;
+import prueba.com.prueba.Service.EscrituraDiferidaService;
 import prueba.com.prueba.Service.ProductoService;
+import prueba.com.prueba.Service.SincronizacionService;
+import prueba.com.prueba.Service.StreamProductosService;
+import prueba.com.prueba.Service.SugerenciasService;
+import prueba.com.prueba.Service.WarmupService;
+import jakarta.servlet.http.HttpServletRequest;
 
 // Import para validaciones - Requisito de rúbrica: "Validaciones mínimas"
 import jakarta.validation.Valid;
@@ -24,7 +41,9 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 // @RestController: Combina @Controller + @ResponseBody
 // Significa que todos los métodos devuelven datos (JSON) directamente al cliente
@@ -40,6 +59,26 @@ public class ProductoController {
     @Autowired
     private ProductoService productoService;
 
+    // Sincronización incremental para caches y clientes móviles
+    @Autowired
+    private SincronizacionService sincronizacionService;
+
+    // Cola write-behind para los PUT (solo si app.escritura-diferida.enabled=true)
+    @Autowired
+    private EscrituraDiferidaService escrituraDiferidaService;
+
+    // Índice en memoria para el autocompletado por prefijo
+    @Autowired
+    private SugerenciasService sugerenciasService;
+
+    // Suscriptores del stream de cambios (Server-Sent Events)
+    @Autowired
+    private StreamProductosService streamProductosService;
+
+    // Proxy de la petición en curso: solo se usa para reconocer las llamadas del calentamiento
+    @Autowired
+    private HttpServletRequest request;
+
     // ENDPOINT 1: GET /api/productos - Listar todos los productos con stock
     // @GetMapping: Mapea peticiones HTTP GET a este método
     // @Operation: Documenta el endpoint para Swagger UI
@@ -60,24 +99,82 @@ public class ProductoController {
         
         // 2. IMPLEMENTACIÓN DE HATEOAS - Requisito de rúbrica
         // Agrego enlaces navegables a cada producto individual
-        for (ProductoConStockDTO producto : productos) {
-            // Enlace "self" - apunta al recurso individual
-            producto.add(linkTo(methodOn(ProductoController.class).obtenerProductoPorId(producto.getId())).withSelfRel());
-            // Enlace "update" - permite actualizar el producto
-            producto.add(linkTo(methodOn(ProductoController.class).actualizarProducto(producto.getId(), null)).withRel("update"));
-            // Enlace "delete" - permite eliminar el producto
-            producto.add(linkTo(ProductoController.class).slash("api").slash("productos").slash(producto.getId()).withRel("delete"));
+        CollectionModel<ProductoConStockDTO> result;
+        try (TiemposPeticion.Fase fase = TiemposPeticion.fase("enlaces")) {
+            for (ProductoConStockDTO producto : productos) {
+                agregarEnlacesDeItem(producto);
+            }
+
+            // 3. Devuelvo una CollectionModel con enlaces a nivel de colección
+            result = CollectionModel.of(productos)
+                    .add(linkTo(methodOn(ProductoController.class).listarProductos()).withSelfRel())
+                    .add(linkTo(methodOn(ProductoController.class).crearProducto(null)).withRel("create"));
         }
         
-        // 3. Devuelvo una CollectionModel con enlaces a nivel de colección
-        CollectionModel<ProductoConStockDTO> result = CollectionModel.of(productos)
-                .add(linkTo(methodOn(ProductoController.class).listarProductos()).withSelfRel())
-                .add(linkTo(methodOn(ProductoController.class).crearProducto(null)).withRel("create"));
-        
         System.out.println("=== CONTROLLER: Devolviendo " + productos.size() + " productos ===");
         return result;
     }
 
+    // ENDPOINT: GET /api/productos?fields=id,nombre - Listado con solo los campos pedidos (sparse fieldsets)
+    // Campos: id, nombre, descripcion, precio, categoria, stock y _links
+    // "stock" es el único que consulta el inventario y "_links" el único que agrega enlaces por producto
+    @GetMapping(params = {"fields", "!ids"})
+    @Operation(summary = "Listar productos con campos seleccionados", description = "Devuelve solo los campos pedidos; el stock y los enlaces por producto se calculan solo si se piden")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lista de productos con los campos pedidos"),
+        @ApiResponse(responseCode = "400", description = "Campo desconocido")
+    })
+    public CollectionModel<ProductoParcialDTO> listarProductosParciales(
+            @Parameter(description = "Campos separados por coma, por ejemplo id,nombre,stock,_links") @RequestParam List<String> fields) {
+        Set<String> campos = new LinkedHashSet<>();
+        for (String campo : fields) {
+            if (!campo.isBlank()) {
+                campos.add(campo.trim());
+            }
+        }
+        boolean conEnlaces = campos.remove("_links");
+
+        List<ProductoParcialDTO> productos = productoService.listarProductosParciales(campos);
+        if (conEnlaces) {
+            try (TiemposPeticion.Fase fase = TiemposPeticion.fase("enlaces")) {
+                for (ProductoParcialDTO producto : productos) {
+                    producto.add(linkTo(methodOn(ProductoController.class).obtenerProductoPorId(producto.getId())).withSelfRel());
+                    producto.add(linkTo(methodOn(ProductoController.class).actualizarProducto(producto.getId(), null)).withRel("update"));
+                }
+            }
+        }
+        return CollectionModel.of(productos)
+                .add(linkTo(methodOn(ProductoController.class).listarProductos()).withSelfRel());
+    }
+
+    // ENDPOINT: GET /api/productos?ids=1,2,3 - Obtener varios productos por ID en una sola llamada
+    // params = "ids": Spring elige este método en lugar del listado cuando viene el parámetro ids
+    // Resuelve todo con consultas IN (...) por lotes y un solo paso de stock; los IDs inexistentes
+    // se devuelven en "noEncontrados" sin fallar la petición
+    @GetMapping(params = "ids")
+    @Operation(summary = "Obtener varios productos por ID", description = "Obtiene en una sola llamada los productos con los IDs indicados, con información de stock")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Productos encontrados y lista de IDs inexistentes"),
+        @ApiResponse(responseCode = "400", description = "Se pidieron demasiados IDs")
+    })
+    public ProductosPorIdsDTO obtenerProductosPorIds(@Parameter(description = "IDs separados por coma") @RequestParam List<Long> ids) {
+        ProductosPorIdsDTO resultado = productoService.obtenerProductosConStock(ids);
+        resultado.getProductos().forEach(this::agregarEnlacesDeItem);
+        return resultado;
+    }
+
+    // ENDPOINT: POST /api/productos/por-ids - Misma consulta para conjuntos grandes de IDs
+    // El body es un arreglo JSON de IDs, así no hay límite de largo de URL
+    @PostMapping("/por-ids")
+    @Operation(summary = "Obtener varios productos por ID (POST)", description = "Variante POST para conjuntos grandes de IDs; el body es un arreglo JSON de IDs")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Productos encontrados y lista de IDs inexistentes"),
+        @ApiResponse(responseCode = "400", description = "Se pidieron demasiados IDs")
+    })
+    public ProductosPorIdsDTO consultarProductosPorIds(@RequestBody List<Long> ids) {
+        return obtenerProductosPorIds(ids);
+    }
+
     // ENDPOINT 2: POST /api/productos - Crear nuevo producto
     // @PostMapping: Mapea peticiones HTTP POST a este método
     // @Valid: ACTIVA LAS VALIDACIONES - Requisito de rúbrica: "Validaciones mínimas"
@@ -100,6 +197,62 @@ public class ProductoController {
         return productoDTO;
     }
 
+    // ENDPOINT: GET /api/productos/changes?since={token} - Sincronización incremental
+    // Devuelve solo los productos creados/modificados y los IDs eliminados desde el token, más un token nuevo.
+    // Sin token empieza desde cero (descarga completa paginada). Si el token venció responde 410
+    // con resincronizar = true: el cliente borra su copia y vuelve a llamar sin token
+    @GetMapping("/changes")
+    @Operation(summary = "Cambios desde un token", description = "Sincronización incremental: productos cambiados y eliminados desde el token indicado")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Cambios desde el token y token para la próxima llamada"),
+        @ApiResponse(responseCode = "400", description = "Token inválido"),
+        @ApiResponse(responseCode = "410", description = "Token vencido: hay que resincronizar desde cero")
+    })
+    public ResponseEntity<CambiosDTO> obtenerCambios(@Parameter(description = "Token devuelto por la llamada anterior") @RequestParam(required = false) String since) {
+        CambiosDTO cambios = sincronizacionService.cambiosDesde(since);
+        if (cambios.isResincronizar()) {
+            return ResponseEntity.status(HttpStatus.GONE).body(cambios);
+        }
+        cambios.add(linkTo(methodOn(ProductoController.class).obtenerCambios(cambios.getToken())).withRel("next"));
+        return ResponseEntity.ok(cambios);
+    }
+
+    // Ajuste de precios por conjunto: un solo UPDATE en lugar de un PUT por producto
+    // Ejemplo: {"categoria":"Electrónicos","operacion":"PORCENTAJE","valor":10} sube 10% toda la categoría
+    @PostMapping("/price-adjustments")
+    @Operation(summary = "Ajustar precios por filtro", description = "Aplica un porcentaje, una diferencia o un precio fijo a todos los productos que cumplen el filtro, en una sola transacción")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Cantidad de productos ajustados (o que se ajustarían con dryRun)"),
+        @ApiResponse(responseCode = "400", description = "Sin filtro, filtro inválido o algún precio quedaría en 0 o menos")
+    })
+    public ResultadoAjustePreciosDTO ajustarPrecios(@Valid @RequestBody AjustePreciosDTO ajuste) {
+        return productoService.ajustarPrecios(ajuste);
+    }
+
+    // Stream de cambios: en lugar de hacer polling del listado, el cliente recibe cada alta, cambio,
+    // baja y cambio de stock. Eventos: creado, actualizado, eliminado, stock y resincronizar.
+    // EventSource reconecta solo y envía Last-Event-ID para recibir lo que se perdió
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream de cambios", description = "Server-Sent Events con los cambios de productos y de stock a medida que ocurren")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Conexión abierta (text/event-stream)"),
+        @ApiResponse(responseCode = "503", description = "Se alcanzó el máximo de suscriptores")
+    })
+    public SseEmitter stream(@Parameter(description = "Último id recibido (lo envía EventSource al reconectar)")
+                             @RequestHeader(value = "Last-Event-ID", required = false) String ultimoEventoId) {
+        return streamProductosService.suscribir(ultimoEventoId);
+    }
+
+    // Autocompletado: se sirve desde el índice en memoria, sin BD ni inventario
+    // El prefijo no distingue mayúsculas ni acentos ("cafe" encuentra "Café Molido")
+    @GetMapping("/suggest")
+    @Operation(summary = "Sugerencias por prefijo", description = "Productos cuyo nombre empieza con el prefijo, los más consultados primero")
+    @ApiResponse(responseCode = "200", description = "Sugerencias (lista vacía si no hay coincidencias)")
+    public List<SugerenciaDTO> sugerir(@Parameter(description = "Inicio del nombre") @RequestParam(defaultValue = "") String prefix,
+                                       @Parameter(description = "Máximo de sugerencias") @RequestParam(defaultValue = "10") int limit) {
+        return sugerenciasService.sugerir(prefix, limit);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Obtener producto por ID", description = "Obtiene un producto específico por su ID con información de stock")
     @ApiResponses(value = {
@@ -109,6 +262,10 @@ public class ProductoController {
     public ProductoConStockDTO obtenerProductoPorId(@Parameter(description = "ID del producto") @PathVariable Long id) {
         ProductoConStockDTO producto = productoService.obtenerProductoConStock(id);
         if (producto != null) {
+            // Las llamadas del calentamiento no son vistas reales: inflarían la popularidad de los primeros IDs
+            if (!WarmupService.esCalentamiento(request)) {
+                sugerenciasService.registrarVista(id);
+            }
             producto.add(linkTo(methodOn(ProductoController.class).obtenerProductoPorId(id)).withSelfRel());
             producto.add(linkTo(methodOn(ProductoController.class).listarProductos()).withRel("productos"));
             producto.add(linkTo(methodOn(ProductoController.class).actualizarProducto(id, null)).withRel("update"));
@@ -116,22 +273,29 @@ public class ProductoController {
         return producto;
     }
 
+    // Con la escritura diferida habilitada responde 202 Accepted: la actualización queda en cola
+    // y se escribe en el próximo vaciado por lote; si la cola está llena responde 503 + Retry-After
     @PutMapping("/{id}")
     @Operation(summary = "Actualizar producto", description = "Actualiza un producto existente por su ID")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Producto actualizado exitosamente"),
+        @ApiResponse(responseCode = "202", description = "Actualización aceptada en la cola de escrituras diferidas"),
         @ApiResponse(responseCode = "400", description = "Datos de entrada inválidos"),
-        @ApiResponse(responseCode = "404", description = "Producto no encontrado")
+        @ApiResponse(responseCode = "404", description = "Producto no encontrado"),
+        @ApiResponse(responseCode = "503", description = "Cola de escrituras diferidas llena")
     })
-    public ProductoDTO actualizarProducto(@Parameter(description = "ID del producto") @PathVariable Long id, @Valid @RequestBody Producto producto) {
+    public ResponseEntity<ProductoDTO> actualizarProducto(@Parameter(description = "ID del producto") @PathVariable Long id, @Valid @RequestBody Producto producto) {
+        if (escrituraDiferidaService.isHabilitada()) {
+            return encolarActualizacion(id, producto);
+        }
         Producto productoActualizado = productoService.actualizarProducto(id, producto);
         if (productoActualizado != null) {
             ProductoDTO productoDTO = convertirAProductoDTO(productoActualizado);
             productoDTO.add(linkTo(methodOn(ProductoController.class).obtenerProductoPorId(id)).withSelfRel());
             productoDTO.add(linkTo(methodOn(ProductoController.class).listarProductos()).withRel("productos"));
-            return productoDTO;
+            return ResponseEntity.ok(productoDTO);
         }
-        return null;
+        return ResponseEntity.ok().build();
     }
 
     @DeleteMapping("/{id}")
@@ -144,6 +308,37 @@ public class ProductoController {
         productoService.eliminarProducto(id);
     }
     
+    // Método auxiliar: PUT en modo escritura diferida
+    private ResponseEntity<ProductoDTO> encolarActualizacion(Long id, Producto producto) {
+        // Un ID inexistente se rechaza ahora: más tarde el vaciado solo podría descartarlo
+        if (!productoService.existeProducto(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        boolean aceptada;
+        try {
+            aceptada = escrituraDiferidaService.encolar(id, producto);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            aceptada = false;
+        }
+        if (!aceptada) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "1").build();
+        }
+        ProductoDTO productoDTO = convertirAProductoDTO(producto);
+        productoDTO.add(linkTo(methodOn(ProductoController.class).obtenerProductoPorId(id)).withSelfRel());
+        return ResponseEntity.accepted().body(productoDTO);
+    }
+
+    // Método auxiliar: enlaces HATEOAS de cada producto dentro de un listado
+    private void agregarEnlacesDeItem(ProductoConStockDTO producto) {
+        // Enlace "self" - apunta al recurso individual
+        producto.add(linkTo(methodOn(ProductoController.class).obtenerProductoPorId(producto.getId())).withSelfRel());
+        // Enlace "update" - permite actualizar el producto
+        producto.add(linkTo(methodOn(ProductoController.class).actualizarProducto(producto.getId(), null)).withRel("update"));
+        // Enlace "delete" - permite eliminar el producto
+        producto.add(linkTo(ProductoController.class).slash("api").slash("productos").slash(producto.getId()).withRel("delete"));
+    }
+
     // Método auxiliar para convertir Producto a ProductoDTO
     private ProductoDTO convertirAProductoDTO(Producto producto) {
         ProductoDTO dto = new ProductoDTO();
@@ -0,0 +1,106 @@
+package prueba.com.prueba.Controller;
+
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.DataFetchingFieldSelectionSet;
+import org.dataloader.DataLoader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
+import org.springframework.stereotype.Controller;
+
+import jakarta.annotation.PostConstruct;
+
+import reactor.core.publisher.Mono;
+
+import prueba.com.prueba.DTO.FiltroProductosDTO;
+import prueba.com.prueba.Model.Producto;
+import prueba.com.prueba.Repository.ProductoRepository;
+import prueba.com.prueba.Service.LecturaStock;
+import prueba.com.prueba.Service.ProductoService;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+// GRAPHQL DE SOLO LECTURA (POST /graphql), junto a la API REST de ProductoController
+// Cada cliente pide solo los campos que usa: el SELECT trae solo esas columnas (como ?fields=) y el
+// inventario se consulta solo si se pidió algún campo de stock.
+// El stock pasa por un DataLoader: los campos stock/stockStale/stockAsOf de todos los productos de la
+// respuesta se juntan en una sola llamada a leerStockLote (que ya parte en chunks para inventario).
+// Los límites de profundidad y complejidad están en Config/LimitesGraphQlInstrumentation.
+// @Lazy(false): el cargador se registra al crear el bean y tiene que existir antes de la primera consulta
+// (con spring.main.lazy-initialization el controller se crearía recién al resolver el primer campo)
+@Controller
+@Lazy(false)
+public class ProductoGraphQlController {
+
+    static final String CARGADOR_STOCK = "stock";
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private BatchLoaderRegistry batchLoaderRegistry;
+
+    @Value("${app.graphql.limite-maximo:500}")
+    private int limiteMaximo = 500;
+
+    @PostConstruct
+    void registrarCargadores() {
+        batchLoaderRegistry.<Long, LecturaStock>forName(CARGADOR_STOCK)
+                .registerMappedBatchLoader((ids, entorno) ->
+                        Mono.fromCallable(() -> productoService.leerStockLote(new ArrayList<>(ids))));
+    }
+
+    @QueryMapping
+    public List<Producto> productos(@Argument FiltroProductosDTO filtro, @Argument int desde, @Argument int limite,
+                                    DataFetchingFieldSelectionSet seleccion) {
+        return productoService.buscarProductos(filtro, columnas(seleccion), desde, Math.min(limite, limiteMaximo));
+    }
+
+    @QueryMapping
+    public Producto producto(@Argument Long id, DataFetchingFieldSelectionSet seleccion) {
+        FiltroProductosDTO filtro = new FiltroProductosDTO();
+        filtro.setIds(List.of(id));
+        List<Producto> encontrados = productoService.buscarProductos(filtro, columnas(seleccion), 0, 1);
+        return encontrados.isEmpty() ? null : encontrados.get(0);
+    }
+
+    @SchemaMapping(typeName = "Producto")
+    public CompletableFuture<Integer> stock(Producto producto, DataFetchingEnvironment entorno) {
+        return cargarStock(producto, entorno).thenApply(LecturaStock::stock);
+    }
+
+    @SchemaMapping(typeName = "Producto")
+    public CompletableFuture<Boolean> stockStale(Producto producto, DataFetchingEnvironment entorno) {
+        return cargarStock(producto, entorno).thenApply(LecturaStock::stale);
+    }
+
+    @SchemaMapping(typeName = "Producto")
+    public CompletableFuture<String> stockAsOf(Producto producto, DataFetchingEnvironment entorno) {
+        return cargarStock(producto, entorno).thenApply(l -> l.asOf() != null ? l.asOf().toString() : null);
+    }
+
+    // El DataLoader cachea por ID dentro de la petición: los tres campos de stock comparten la lectura
+    private CompletableFuture<LecturaStock> cargarStock(Producto producto, DataFetchingEnvironment entorno) {
+        DataLoader<Long, LecturaStock> cargador = entorno.getDataLoader(CARGADOR_STOCK);
+        return cargador.load(producto.getId());
+    }
+
+    // Columnas de la BD que hacen falta para los campos pedidos (el ID va siempre)
+    private static Set<String> columnas(DataFetchingFieldSelectionSet seleccion) {
+        Set<String> columnas = new LinkedHashSet<>();
+        for (String columna : ProductoRepository.COLUMNAS) {
+            if (seleccion.contains(columna)) {
+                columnas.add(columna);
+            }
+        }
+        return columnas;
+    }
+}
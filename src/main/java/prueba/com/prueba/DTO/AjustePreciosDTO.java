@@ -0,0 +1,44 @@
+package prueba.com.prueba.DTO;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+// DTO de entrada de POST /api/productos/price-adjustments (ajuste de precios por conjunto)
+// Filtro: categoria, ids, precioMin y precioMax se combinan con AND; hace falta al menos uno.
+// Operación: PORCENTAJE (valor = % de aumento, negativo para descuento), DELTA (suma valor al
+// precio) o FIJAR (precio = valor). Con dryRun = true solo se informa cuántos productos cambiarían
+public class AjustePreciosDTO {
+
+    public enum Operacion { PORCENTAJE, DELTA, FIJAR }
+
+    private String categoria;
+    private List<Long> ids;
+    private Double precioMin;
+    private Double precioMax;
+
+    @NotNull(message = "La operación es obligatoria")
+    private Operacion operacion;
+
+    @NotNull(message = "El valor es obligatorio")
+    private Double valor;
+
+    private boolean dryRun;
+
+    public AjustePreciosDTO() {}
+
+    public String getCategoria() { return categoria; }
+    public void setCategoria(String categoria) { this.categoria = categoria; }
+    public List<Long> getIds() { return ids; }
+    public void setIds(List<Long> ids) { this.ids = ids; }
+    public Double getPrecioMin() { return precioMin; }
+    public void setPrecioMin(Double precioMin) { this.precioMin = precioMin; }
+    public Double getPrecioMax() { return precioMax; }
+    public void setPrecioMax(Double precioMax) { this.precioMax = precioMax; }
+    public Operacion getOperacion() { return operacion; }
+    public void setOperacion(Operacion operacion) { this.operacion = operacion; }
+    public Double getValor() { return valor; }
+    public void setValor(Double valor) { this.valor = valor; }
+    public boolean isDryRun() { return dryRun; }
+    public void setDryRun(boolean dryRun) { this.dryRun = dryRun; }
+}
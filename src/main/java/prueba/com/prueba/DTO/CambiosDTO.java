@@ -0,0 +1,32 @@
+package prueba.com.prueba.DTO;
+
+import org.springframework.hateoas.RepresentationModel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// DTO de respuesta de GET /api/productos/changes (sincronización incremental)
+// cambiados: productos creados o modificados desde el token; eliminados: IDs dados de baja.
+// token: se envía en la próxima llamada; hayMas: hay más cambios, volver a llamar enseguida con el token.
+// resincronizar: el token es más viejo que la retención de bajas; hay que borrar la copia local
+// y volver a llamar sin token (descarga completa)
+public class CambiosDTO extends RepresentationModel<CambiosDTO> {
+    private List<ProductoDTO> cambiados = new ArrayList<>();
+    private List<Long> eliminados = new ArrayList<>();
+    private String token;
+    private boolean hayMas;
+    private boolean resincronizar;
+
+    public CambiosDTO() {}
+
+    public List<ProductoDTO> getCambiados() { return cambiados; }
+    public void setCambiados(List<ProductoDTO> cambiados) { this.cambiados = cambiados; }
+    public List<Long> getEliminados() { return eliminados; }
+    public void setEliminados(List<Long> eliminados) { this.eliminados = eliminados; }
+    public String getToken() { return token; }
+    public void setToken(String token) { this.token = token; }
+    public boolean isHayMas() { return hayMas; }
+    public void setHayMas(boolean hayMas) { this.hayMas = hayMas; }
+    public boolean isResincronizar() { return resincronizar; }
+    public void setResincronizar(boolean resincronizar) { this.resincronizar = resincronizar; }
+}
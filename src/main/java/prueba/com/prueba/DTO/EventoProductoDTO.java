@@ -0,0 +1,38 @@
+package prueba.com.prueba.DTO;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// DTO de los datos de cada evento de GET /api/productos/stream
+// creado/actualizado: el producto completo; eliminado: solo el id; stock: id, stock y stockAnterior.
+// Sin links HATEOAS: el evento ya dice qué producto cambió y el cliente arma /api/productos/{id}
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EventoProductoDTO {
+    private Long id;
+    private String nombre;
+    private String descripcion;
+    private Double precio;
+    private String categoria;
+    private Integer stock;
+    private Integer stockAnterior;
+
+    public EventoProductoDTO() {}
+
+    public EventoProductoDTO(Long id) {
+        this.id = id;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getNombre() { return nombre; }
+    public void setNombre(String nombre) { this.nombre = nombre; }
+    public String getDescripcion() { return descripcion; }
+    public void setDescripcion(String descripcion) { this.descripcion = descripcion; }
+    public Double getPrecio() { return precio; }
+    public void setPrecio(Double precio) { this.precio = precio; }
+    public String getCategoria() { return categoria; }
+    public void setCategoria(String categoria) { this.categoria = categoria; }
+    public Integer getStock() { return stock; }
+    public void setStock(Integer stock) { this.stock = stock; }
+    public Integer getStockAnterior() { return stockAnterior; }
+    public void setStockAnterior(Integer stockAnterior) { this.stockAnterior = stockAnterior; }
+}
@@ -0,0 +1,28 @@
+package prueba.com.prueba.DTO;
+
+import java.util.List;
+
+// Filtro de la consulta "productos" de GraphQL (input FiltroProductos en graphql/productos.graphqls)
+// Los criterios se combinan con AND; los que vienen en null no filtran.
+// nombreContiene no distingue mayúsculas
+public class FiltroProductosDTO {
+
+    private String categoria;
+    private String nombreContiene;
+    private List<Long> ids;
+    private Double precioMin;
+    private Double precioMax;
+
+    public FiltroProductosDTO() {}
+
+    public String getCategoria() { return categoria; }
+    public void setCategoria(String categoria) { this.categoria = categoria; }
+    public String getNombreContiene() { return nombreContiene; }
+    public void setNombreContiene(String nombreContiene) { this.nombreContiene = nombreContiene; }
+    public List<Long> getIds() { return ids; }
+    public void setIds(List<Long> ids) { this.ids = ids; }
+    public Double getPrecioMin() { return precioMin; }
+    public void setPrecioMin(Double precioMin) { this.precioMin = precioMin; }
+    public Double getPrecioMax() { return precioMax; }
+    public void setPrecioMax(Double precioMax) { this.precioMax = precioMax; }
+}
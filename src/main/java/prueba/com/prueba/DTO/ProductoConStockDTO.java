@@ -2,6 +2,8 @@ package prueba.com.prueba.DTO;
 
 import org.springframework.hateoas.RepresentationModel;
 
+import java.time.Instant;
+
 public class ProductoConStockDTO extends RepresentationModel<ProductoConStockDTO> {
     private Long id;
     private String nombre;
@@ -9,6 +11,9 @@ public class ProductoConStockDTO extends RepresentationModel<ProductoConStockDTO
     private Double precio;
     private String categoria;
     private Integer stock;
+    // true si el inventario no respondió y el stock es el último conocido (stockAsOf = cuándo se leyó)
+    private Boolean stockStale;
+    private Instant stockAsOf;
 
     // Getters y setters
     public Long getId() { return id; }
@@ -23,4 +28,8 @@ public class ProductoConStockDTO extends RepresentationModel<ProductoConStockDTO
     public void setCategoria(String categoria) { this.categoria = categoria; }
     public Integer getStock() { return stock; }
     public void setStock(Integer stock) { this.stock = stock; }
+    public Boolean getStockStale() { return stockStale; }
+    public void setStockStale(Boolean stockStale) { this.stockStale = stockStale; }
+    public Instant getStockAsOf() { return stockAsOf; }
+    public void setStockAsOf(Instant stockAsOf) { this.stockAsOf = stockAsOf; }
 }
\ No newline at end of file
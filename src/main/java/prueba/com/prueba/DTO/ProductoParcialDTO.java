@@ -0,0 +1,42 @@
+package prueba.com.prueba.DTO;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.hateoas.RepresentationModel;
+import org.springframework.hateoas.server.core.Relation;
+
+import java.time.Instant;
+
+// DTO para GET /api/productos?fields=... (sparse fieldsets)
+// Solo se serializan los campos pedidos: los demás quedan null y NON_NULL los omite.
+// Usa la misma relación que ProductoConStockDTO para que _embedded tenga la misma clave en ambos casos
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Relation(collectionRelation = "productoConStockDTOList")
+public class ProductoParcialDTO extends RepresentationModel<ProductoParcialDTO> {
+    private Long id;
+    private String nombre;
+    private String descripcion;
+    private Double precio;
+    private String categoria;
+    private Integer stock;
+    // true si el inventario no respondió y el stock es el último conocido (stockAsOf = cuándo se leyó)
+    private Boolean stockStale;
+    private Instant stockAsOf;
+
+    // Getters y setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getNombre() { return nombre; }
+    public void setNombre(String nombre) { this.nombre = nombre; }
+    public String getDescripcion() { return descripcion; }
+    public void setDescripcion(String descripcion) { this.descripcion = descripcion; }
+    public Double getPrecio() { return precio; }
+    public void setPrecio(Double precio) { this.precio = precio; }
+    public String getCategoria() { return categoria; }
+    public void setCategoria(String categoria) { this.categoria = categoria; }
+    public Integer getStock() { return stock; }
+    public void setStock(Integer stock) { this.stock = stock; }
+    public Boolean getStockStale() { return stockStale; }
+    public void setStockStale(Boolean stockStale) { this.stockStale = stockStale; }
+    public Instant getStockAsOf() { return stockAsOf; }
+    public void setStockAsOf(Instant stockAsOf) { this.stockAsOf = stockAsOf; }
+}
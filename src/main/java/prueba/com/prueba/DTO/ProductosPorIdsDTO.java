@@ -0,0 +1,25 @@
+package prueba.com.prueba.DTO;
+
+import org.springframework.hateoas.RepresentationModel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// DTO de respuesta para la consulta de varios productos por ID en una sola llamada
+// Los IDs que no existen se informan en "noEncontrados" en lugar de fallar toda la petición
+public class ProductosPorIdsDTO extends RepresentationModel<ProductosPorIdsDTO> {
+    private List<ProductoConStockDTO> productos = new ArrayList<>();
+    private List<Long> noEncontrados = new ArrayList<>();
+
+    public ProductosPorIdsDTO() {}
+
+    public ProductosPorIdsDTO(List<ProductoConStockDTO> productos, List<Long> noEncontrados) {
+        this.productos = productos;
+        this.noEncontrados = noEncontrados;
+    }
+
+    public List<ProductoConStockDTO> getProductos() { return productos; }
+    public void setProductos(List<ProductoConStockDTO> productos) { this.productos = productos; }
+    public List<Long> getNoEncontrados() { return noEncontrados; }
+    public void setNoEncontrados(List<Long> noEncontrados) { this.noEncontrados = noEncontrados; }
+}
@@ -0,0 +1,19 @@
+package prueba.com.prueba.DTO;
+
+// DTO de respuesta del ajuste de precios: cuántos productos cambiaron (o cambiarían con dryRun)
+public class ResultadoAjustePreciosDTO {
+    private int afectados;
+    private boolean dryRun;
+
+    public ResultadoAjustePreciosDTO() {}
+
+    public ResultadoAjustePreciosDTO(int afectados, boolean dryRun) {
+        this.afectados = afectados;
+        this.dryRun = dryRun;
+    }
+
+    public int getAfectados() { return afectados; }
+    public void setAfectados(int afectados) { this.afectados = afectados; }
+    public boolean isDryRun() { return dryRun; }
+    public void setDryRun(boolean dryRun) { this.dryRun = dryRun; }
+}
@@ -0,0 +1,20 @@
+package prueba.com.prueba.DTO;
+
+// DTO de respuesta del autocompletado: solo lo necesario para mostrar la sugerencia
+// Sin links HATEOAS a propósito: se pide en cada tecla y el cliente arma /api/productos/{id}
+public class SugerenciaDTO {
+    private Long id;
+    private String nombre;
+
+    public SugerenciaDTO() {}
+
+    public SugerenciaDTO(Long id, String nombre) {
+        this.id = id;
+        this.nombre = nombre;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getNombre() { return nombre; }
+    public void setNombre(String nombre) { this.nombre = nombre; }
+}
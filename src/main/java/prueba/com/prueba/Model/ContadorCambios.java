@@ -0,0 +1,32 @@
+package prueba.com.prueba.Model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// CONTADOR DE CAMBIOS DEL CATÁLOGO (una sola fila, ID = 1)
+// VALOR: último número de secuencia asignado a un cambio (alta, modificación o baja de un producto)
+@Entity
+@Table(name = "CONTADOR_CAMBIOS")
+public class ContadorCambios {
+
+    public static final Long ID_UNICO = 1L;
+
+    @Id
+    @Column(name = "ID")
+    private Long id;
+
+    @Column(name = "VALOR", nullable = false)
+    private Long valor;
+
+    public ContadorCambios() {}
+
+    public ContadorCambios(Long valor) {
+        this.id = ID_UNICO;
+        this.valor = valor;
+    }
+
+    public Long getId() { return id; }
+    public Long getValor() { return valor; }
+}
@@ -7,6 +7,10 @@ import jakarta.persistence.Id;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Column;
+import jakarta.persistence.Index;
+
+// Import de Jackson: campos internos que no se exponen ni se aceptan en la API
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 // Imports para validaciones - Requisito de la rúbrica: "Validaciones mínimas"
 import jakarta.validation.constraints.NotBlank;
@@ -20,7 +24,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
 // @Table: Especifica el nombre exacto de la tabla en la BD (PRODUCTOS)
 // @Schema: Documenta la entidad para Swagger UI - ayuda a generar documentación automática
 @Entity
-@Table(name = "PRODUCTOS")
+@Table(name = "PRODUCTOS", indexes = @Index(name = "IDX_PRODUCTOS_SECUENCIA", columnList = "SECUENCIA_CAMBIO"))
 @Schema(description = "Entidad que representa un producto en el sistema")
 public class Producto {
 
@@ -63,6 +67,14 @@ public class Producto {
     @Schema(description = "Categoría del producto", example = "Electrónicos")
     private String categoria;
 
+    // Número de secuencia del último cambio (alta o modificación), lo asigna SincronizacionService
+    // GET /api/productos/changes lo usa para devolver solo lo que cambió desde un token
+    // @JsonIgnore: es interno, el cliente no lo envía ni lo recibe en el body
+    @JsonIgnore
+    @Column(name = "SECUENCIA_CAMBIO")
+    @Schema(hidden = true)
+    private Long secuenciaCambio;
+
     // Constructor por defecto requerido por JPA
     // JPA necesita un constructor sin parámetros para crear instancias de la entidad
     public Producto() {}
@@ -110,4 +122,12 @@ public class Producto {
     public void setCategoria(String categoria) {
         this.categoria = categoria;
     }
+
+    public Long getSecuenciaCambio() {
+        return secuenciaCambio;
+    }
+
+    public void setSecuenciaCambio(Long secuenciaCambio) {
+        this.secuenciaCambio = secuenciaCambio;
+    }
 }
@@ -0,0 +1,58 @@
+package prueba.com.prueba.Model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+
+// REGISTRO DE CAMBIOS DE PRODUCTOS (change-log)
+// Cada escritura de ProductoService inserta una fila en la MISMA transacción que el cambio,
+// así una réplica nunca ve un cambio confirmado sin su fila (ni al revés).
+// Las otras instancias leen las filas nuevas por ID para refrescar sus copias en memoria.
+// El ID sale de una secuencia con allocationSize = 1: sin rangos reservados por instancia,
+// el orden de los IDs sigue el orden en que se escribieron los cambios.
+@Entity
+@Table(name = "PRODUCTO_CAMBIOS", indexes = @Index(name = "IDX_PRODUCTO_CAMBIOS_FECHA", columnList = "FECHA"))
+public class ProductoCambio {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "producto_cambios_seq")
+    @SequenceGenerator(name = "producto_cambios_seq", sequenceName = "PRODUCTO_CAMBIOS_SEQ", allocationSize = 1)
+    @Column(name = "ID")
+    private Long id;
+
+    @Column(name = "PRODUCTO_ID", nullable = false)
+    private Long productoId;
+
+    // CREADO, ACTUALIZADO o ELIMINADO
+    @Column(name = "TIPO", nullable = false, length = 20)
+    private String tipo;
+
+    // Instancia que hizo el cambio: esa instancia ya lo aplicó en memoria y lo ignora al leer
+    @Column(name = "INSTANCIA", nullable = false, length = 64)
+    private String instancia;
+
+    @Column(name = "FECHA", nullable = false)
+    private Instant fecha;
+
+    public ProductoCambio() {}
+
+    public ProductoCambio(Long productoId, String tipo, String instancia, Instant fecha) {
+        this.productoId = productoId;
+        this.tipo = tipo;
+        this.instancia = instancia;
+        this.fecha = fecha;
+    }
+
+    public Long getId() { return id; }
+    public Long getProductoId() { return productoId; }
+    public String getTipo() { return tipo; }
+    public String getInstancia() { return instancia; }
+    public Instant getFecha() { return fecha; }
+}
@@ -0,0 +1,39 @@
+package prueba.com.prueba.Model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+
+// LÁPIDA (TOMBSTONE) DE UN PRODUCTO ELIMINADO
+// La sincronización incremental necesita informar las bajas, pero la fila de PRODUCTOS ya no existe:
+// se guarda el ID con la secuencia del cambio hasta que pasa el período de retención y se compacta
+@Entity
+@Table(name = "PRODUCTOS_ELIMINADOS", indexes = @Index(name = "IDX_PRODUCTOS_ELIM_SECUENCIA", columnList = "SECUENCIA_CAMBIO"))
+public class ProductoEliminado {
+
+    @Id
+    @Column(name = "PRODUCTO_ID")
+    private Long productoId;
+
+    @Column(name = "SECUENCIA_CAMBIO", nullable = false)
+    private Long secuenciaCambio;
+
+    @Column(name = "FECHA", nullable = false)
+    private Instant fecha;
+
+    public ProductoEliminado() {}
+
+    public ProductoEliminado(Long productoId, Long secuenciaCambio, Instant fecha) {
+        this.productoId = productoId;
+        this.secuenciaCambio = secuenciaCambio;
+        this.fecha = fecha;
+    }
+
+    public Long getProductoId() { return productoId; }
+    public Long getSecuenciaCambio() { return secuenciaCambio; }
+    public Instant getFecha() { return fecha; }
+}
@@ -0,0 +1,21 @@
+package prueba.com.prueba.Repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import prueba.com.prueba.Model.ContadorCambios;
+
+@Repository
+public interface ContadorCambiosRepository extends JpaRepository<ContadorCambios, Long> {
+
+    // Reserva "cantidad" números; el UPDATE bloquea la fila hasta el commit de la transacción
+    @Modifying
+    @Query("update ContadorCambios c set c.valor = c.valor + :cantidad where c.id = 1")
+    int incrementar(@Param("cantidad") long cantidad);
+
+    // Consulta escalar: siempre va a la BD, nunca al contexto de persistencia
+    @Query("select c.valor from ContadorCambios c where c.id = 1")
+    Long valorActual();
+}
@@ -0,0 +1,43 @@
+package prueba.com.prueba.Repository;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import prueba.com.prueba.Model.ProductoCambio;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ProductoCambioRepository extends JpaRepository<ProductoCambio, Long> {
+
+    // Cambios posteriores a un ID, en orden (el poller los pide de a "limit")
+    List<ProductoCambio> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Relectura de IDs que faltaban (transacciones que confirmaron tarde)
+    List<ProductoCambio> findByIdIn(Collection<Long> ids);
+
+    @Query("select coalesce(max(c.id), 0) from ProductoCambio c")
+    Long findUltimoId();
+
+    // Un INSERT ... SELECT con una fila ACTUALIZADO por producto de un ajuste de precios: sus filas son
+    // las del rango de IDs con las secuencias que reservó el ajuste (el ID sale de la secuencia en la BD)
+    @Modifying
+    @Query("insert into ProductoCambio (productoId, tipo, instancia, fecha) "
+            + "select p.id, 'ACTUALIZADO', :instancia, :fecha from Producto p "
+            + "where p.id between :minId and :maxId and p.secuenciaCambio between :secuenciaDesde and :secuenciaHasta")
+    int registrarAjuste(@Param("minId") Long minId, @Param("maxId") Long maxId,
+                        @Param("secuenciaDesde") Long secuenciaDesde, @Param("secuenciaHasta") Long secuenciaHasta,
+                        @Param("instancia") String instancia, @Param("fecha") Instant fecha);
+
+    // Limpieza: borra los cambios más viejos que el período de retención
+    @Transactional
+    @Modifying
+    @Query("delete from ProductoCambio c where c.fecha < :limite")
+    int borrarAnterioresA(@Param("limite") Instant limite);
+}
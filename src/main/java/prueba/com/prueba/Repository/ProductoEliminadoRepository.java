@@ -0,0 +1,23 @@
+package prueba.com.prueba.Repository;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import prueba.com.prueba.Model.ProductoEliminado;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface ProductoEliminadoRepository extends JpaRepository<ProductoEliminado, Long> {
+
+    List<ProductoEliminado> findBySecuenciaCambioBetweenOrderBySecuenciaCambioAsc(Long desde, Long hasta, Limit limit);
+
+    // Compactación: borra las lápidas más viejas que el período de retención
+    @Modifying
+    @Query("delete from ProductoEliminado e where e.fecha < :limite")
+    int borrarAnterioresA(@Param("limite") Instant limite);
+}
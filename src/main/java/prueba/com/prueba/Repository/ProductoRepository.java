@@ -1,10 +1,31 @@
 package prueba.com.prueba.Repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import prueba.com.prueba.Model.Producto;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
-public interface ProductoRepository extends JpaRepository<Producto, Long> {
+public interface ProductoRepository extends JpaRepository<Producto, Long>, ProductoRepositoryCustom {
     // Aquí puedes agregar métodos personalizados si los necesitas
-}
\ No newline at end of file
+
+    // SELECT ... WHERE ID IN (...) - el service lo llama por lotes (Oracle admite hasta 1000 valores en un IN)
+    List<Producto> findByIdIn(Collection<Long> ids);
+
+    // Productos con la secuencia de cambio en [desde, hasta], en orden (sincronización incremental)
+    List<Producto> findBySecuenciaCambioBetweenOrderBySecuenciaCambioAsc(Long desde, Long hasta, Limit limit);
+
+    // DELETE por ID que devuelve las filas borradas (deleteById no avisa si el producto no existía)
+    @Modifying
+    @Query("delete from Producto p where p.id = :id")
+    int borrarPorId(@Param("id") Long id);
+
+    // Filas tocadas por un ajuste de precios (marcadas con SECUENCIA_PENDIENTE), en orden de ID
+    List<Producto> findBySecuenciaCambioOrderByIdAsc(Long secuencia);
+}
@@ -0,0 +1,36 @@
+package prueba.com.prueba.Repository;
+
+import prueba.com.prueba.DTO.AjustePreciosDTO;
+import prueba.com.prueba.DTO.FiltroProductosDTO;
+import prueba.com.prueba.Model.Producto;
+
+import java.util.List;
+import java.util.Set;
+
+// Consultas de ProductoRepository que no se pueden expresar con métodos derivados
+public interface ProductoRepositoryCustom {
+
+    // Columnas que se pueden pedir en una proyección (nombres de atributo de Producto)
+    Set<String> COLUMNAS = Set.of("id", "nombre", "descripcion", "precio", "categoria");
+
+    // SELECT solo de las columnas pedidas (el ID siempre se incluye)
+    // Devuelve objetos Producto NO administrados por JPA con el resto de los campos en null
+    List<Producto> findColumnas(Set<String> columnas);
+
+    // Igual que findColumnas pero con el filtro de GraphQL y paginado (ORDER BY ID, OFFSET desde, FETCH limite)
+    List<Producto> buscar(FiltroProductosDTO filtro, Set<String> columnas, int desde, int limite);
+
+    // Resultado del SELECT previo al ajuste de precios
+    // invalidos: productos que quedarían con precio <= 0 (el ajuste se rechaza entero)
+    record ResumenAjuste(long afectados, Long minId, Long maxId, long invalidos) {}
+
+    // SELECT COUNT, MIN(ID), MAX(ID) y cuántos quedarían con precio inválido, con el filtro del ajuste
+    ResumenAjuste resumirAjuste(AjustePreciosDTO ajuste);
+
+    // Secuencia de cambio provisoria de las filas de un ajuste hasta que se numeran (nunca se confirma)
+    long SECUENCIA_PENDIENTE = -1;
+
+    // Un solo UPDATE con el filtro del ajuste, limitado a [minId, maxId]. Las filas quedan marcadas
+    // con SECUENCIA_PENDIENTE: el service las lee y las numera por orden de ID en la misma transacción
+    int ajustarPrecios(AjustePreciosDTO ajuste, long minId, long maxId);
+}
@@ -0,0 +1,183 @@
+package prueba.com.prueba.Repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+import prueba.com.prueba.DTO.AjustePreciosDTO;
+import prueba.com.prueba.DTO.FiltroProductosDTO;
+import prueba.com.prueba.Model.Producto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+// Implementación del fragmento ProductoRepositoryCustom (Spring Data la detecta por el sufijo Impl)
+public class ProductoRepositoryCustomImpl implements ProductoRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Producto> findColumnas(Set<String> columnas) {
+        return consultarColumnas(columnas, null, 0, null);
+    }
+
+    @Override
+    public List<Producto> buscar(FiltroProductosDTO filtro, Set<String> columnas, int desde, int limite) {
+        return consultarColumnas(columnas, filtro, desde, limite);
+    }
+
+    // SELECT p.id, p.nombre, ... FROM Producto p [WHERE filtro] ORDER BY p.id [OFFSET/FETCH]
+    private List<Producto> consultarColumnas(Set<String> columnas, FiltroProductosDTO filtro, int desde, Integer limite) {
+        Set<String> pedidas = new LinkedHashSet<>();
+        pedidas.add("id");
+        for (String columna : columnas) {
+            if (!COLUMNAS.contains(columna)) {
+                throw new IllegalArgumentException("Columna desconocida: " + columna);
+            }
+            pedidas.add(columna);
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Producto> root = query.from(Producto.class);
+        List<Selection<?>> seleccion = new ArrayList<>();
+        for (String columna : pedidas) {
+            seleccion.add(root.get(columna).alias(columna));
+        }
+        query.multiselect(seleccion).orderBy(cb.asc(root.get("id")));
+        if (filtro != null) {
+            query.where(filtro(cb, root, filtro));
+        }
+
+        TypedQuery<Tuple> consulta = entityManager.createQuery(query).setFirstResult(desde);
+        if (limite != null) {
+            consulta.setMaxResults(limite);
+        }
+        List<Producto> productos = new ArrayList<>();
+        for (Tuple fila : consulta.getResultList()) {
+            Producto producto = new Producto();
+            producto.setId(fila.get("id", Long.class));
+            if (pedidas.contains("nombre")) producto.setNombre(fila.get("nombre", String.class));
+            if (pedidas.contains("descripcion")) producto.setDescripcion(fila.get("descripcion", String.class));
+            if (pedidas.contains("precio")) producto.setPrecio(fila.get("precio", Double.class));
+            if (pedidas.contains("categoria")) producto.setCategoria(fila.get("categoria", String.class));
+            productos.add(producto);
+        }
+        return productos;
+    }
+
+    @Override
+    public ResumenAjuste resumirAjuste(AjustePreciosDTO ajuste) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Producto> root = query.from(Producto.class);
+        Expression<Double> nuevo = nuevoPrecio(cb, root, ajuste);
+        Path<Long> id = root.get("id");
+        Expression<Long> invalido = cb.<Long>selectCase()
+                .when(cb.le(nuevo, 0.0), cb.literal(1L))
+                .otherwise(cb.literal(0L));
+        query.multiselect(
+                        cb.count(root).alias("afectados"),
+                        cb.min(id).alias("minId"),
+                        cb.max(id).alias("maxId"),
+                        cb.sum(invalido).alias("invalidos"))
+                .where(filtro(cb, root, ajuste));
+
+        Tuple fila = entityManager.createQuery(query).getSingleResult();
+        // Sin filas, SUM devuelve null
+        Long invalidos = fila.get("invalidos", Long.class);
+        return new ResumenAjuste(fila.get("afectados", Long.class), fila.get("minId", Long.class),
+                fila.get("maxId", Long.class), invalidos != null ? invalidos : 0);
+    }
+
+    @Override
+    public int ajustarPrecios(AjustePreciosDTO ajuste, long minId, long maxId) {
+        // Un UPDATE masivo no pasa por el contexto de persistencia: primero bajo lo pendiente
+        entityManager.flush();
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Producto> update = cb.createCriteriaUpdate(Producto.class);
+        Root<Producto> root = update.from(Producto.class);
+        Expression<Double> nuevo = nuevoPrecio(cb, root, ajuste);
+        Path<Long> id = root.get("id");
+        update.set(root.<Double>get("precio"), nuevo)
+                .set(root.<Long>get("secuenciaCambio"), SECUENCIA_PENDIENTE)
+                // BETWEEN y > 0: una fila que empieza a cumplir el filtro después del SELECT previo no
+                // pasó por la validación del resumen
+                .where(filtro(cb, root, ajuste), cb.between(id, minId, maxId), cb.gt(nuevo, 0.0));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    // Precio resultante redondeado a 2 decimales (FIJAR se usa tal cual)
+    private static Expression<Double> nuevoPrecio(CriteriaBuilder cb, Root<Producto> root, AjustePreciosDTO ajuste) {
+        Path<Double> precio = root.get("precio");
+        double valor = ajuste.getValor();
+        return switch (ajuste.getOperacion()) {
+            case PORCENTAJE -> cb.round(cb.prod(precio, 1 + valor / 100.0), 2);
+            case DELTA -> cb.round(cb.sum(precio, valor), 2);
+            case FIJAR -> cb.literal(valor);
+        };
+    }
+
+    // Los criterios del filtro se combinan con AND; los que vienen en null no filtran
+    private static Predicate filtro(CriteriaBuilder cb, Root<Producto> root, AjustePreciosDTO ajuste) {
+        List<Predicate> condiciones = new ArrayList<>();
+        Path<Double> precio = root.get("precio");
+        if (ajuste.getCategoria() != null) {
+            condiciones.add(cb.equal(root.get("categoria"), ajuste.getCategoria()));
+        }
+        if (ajuste.getIds() != null && !ajuste.getIds().isEmpty()) {
+            condiciones.add(root.get("id").in(ajuste.getIds()));
+        }
+        if (ajuste.getPrecioMin() != null) {
+            condiciones.add(cb.ge(precio, ajuste.getPrecioMin()));
+        }
+        if (ajuste.getPrecioMax() != null) {
+            condiciones.add(cb.le(precio, ajuste.getPrecioMax()));
+        }
+        if (ajuste.getOperacion() != AjustePreciosDTO.Operacion.FIJAR) {
+            condiciones.add(cb.isNotNull(precio));
+        }
+        return cb.and(condiciones.toArray(new Predicate[0]));
+    }
+
+    // Filtro de la consulta GraphQL; nombreContiene es LIKE '%texto%' sin distinguir mayúsculas
+    private static Predicate filtro(CriteriaBuilder cb, Root<Producto> root, FiltroProductosDTO filtro) {
+        List<Predicate> condiciones = new ArrayList<>();
+        Path<Double> precio = root.get("precio");
+        if (filtro.getCategoria() != null) {
+            condiciones.add(cb.equal(root.get("categoria"), filtro.getCategoria()));
+        }
+        if (filtro.getNombreContiene() != null && !filtro.getNombreContiene().isBlank()) {
+            String patron = "%" + escaparLike(filtro.getNombreContiene().toLowerCase(Locale.ROOT)) + "%";
+            condiciones.add(cb.like(cb.lower(root.get("nombre")), patron, '\\'));
+        }
+        if (filtro.getIds() != null) {
+            condiciones.add(filtro.getIds().isEmpty() ? cb.disjunction() : root.get("id").in(filtro.getIds()));
+        }
+        if (filtro.getPrecioMin() != null) {
+            condiciones.add(cb.ge(precio, filtro.getPrecioMin()));
+        }
+        if (filtro.getPrecioMax() != null) {
+            condiciones.add(cb.le(precio, filtro.getPrecioMax()));
+        }
+        return cb.and(condiciones.toArray(new Predicate[0]));
+    }
+
+    // % y _ del texto buscado se toman literalmente
+    private static String escaparLike(String texto) {
+        return texto.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,262 @@
+package prueba.com.prueba.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import prueba.com.prueba.Model.Producto;
+import prueba.com.prueba.Model.ProductoCambio;
+import prueba.com.prueba.Repository.ProductoCambioRepository;
+import prueba.com.prueba.Repository.ProductoRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// COHERENCIA ENTRE INSTANCIAS A TRAVÉS DE LA TABLA PRODUCTO_CAMBIOS (opcional, app.cambios.enabled)
+// Sin broker de mensajes: cada escritura local deja una fila en PRODUCTO_CAMBIOS dentro de su
+// transacción (listener síncrono de ProductoCambiadoEvent) y cada instancia consulta la tabla
+// cada intervalo-ms. Los cambios hechos por otras instancias se vuelven a publicar como
+// ProductoCambiadoEvent remotos, así el snapshot y cualquier cache en memoria se actualizan
+// igual que con un cambio local. El retraso máximo es intervalo-ms más la duración de la consulta.
+// Las filas más viejas que retencion-horas se borran periódicamente.
+// Los IDs salen de la secuencia al insertar, pero las transacciones confirman en cualquier orden:
+// una transacción larga (un ajuste de precios de miles de filas) confirma sus IDs después de que ya
+// se leyeron otros mayores. Cada ID salteado queda como "hueco" y se vuelve a buscar en cada consulta
+// hasta que aparece o pasa espera-huecos-ms (rollback o número de secuencia que no se usó).
+@Service
+public class CambiosLogService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CambiosLogService.class);
+
+    @Autowired
+    private ProductoCambioRepository cambioRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${app.cambios.enabled:false}")
+    private boolean enabled;
+
+    // Identificador de esta instancia; si no se configura se genera uno al arrancar
+    @Value("${app.instancia.id:}")
+    private String instanciaId;
+
+    // Filas leídas por consulta
+    @Value("${app.cambios.tamano-lectura:500}")
+    private int tamanoLectura = 500;
+
+    // Cuánto se sigue buscando un ID salteado. Tiene que superar la transacción de escritura más larga
+    @Value("${app.cambios.espera-huecos-ms:600000}")
+    private long esperaHuecosMs = 600_000;
+
+    // Tope de huecos recordados: un salto enorme de la secuencia no debe llenar la memoria
+    @Value("${app.cambios.max-huecos:10000}")
+    private int maxHuecos = 10_000;
+
+    @Value("${app.cambios.retencion-horas:24}")
+    private long retencionHoras = 24;
+
+    // Último ID leído; null hasta la primera consulta (arranca desde el final de la tabla)
+    private Long ultimoId;
+    // IDs menores que ultimoId que todavía no aparecieron -> momento en que se detectó el hueco (ms)
+    private final Map<Long, Long> huecos = new LinkedHashMap<>();
+    private final ReentrantLock lectura = new ReentrantLock();
+
+    private Counter remotosAplicados;
+    private Timer retraso;
+
+    @PostConstruct
+    public void init() {
+        if (instanciaId == null || instanciaId.isBlank()) {
+            instanciaId = UUID.randomUUID().toString();
+        }
+        MeterRegistry registry = meterRegistry != null ? meterRegistry.getIfAvailable() : null;
+        if (registry != null) {
+            remotosAplicados = Counter.builder("cambios.remotos.aplicados").register(registry);
+            // Tiempo entre el cambio en otra instancia y su aplicación en esta
+            retraso = Timer.builder("cambios.remotos.retraso").register(registry);
+        }
+        if (enabled) {
+            // Tomo la posición del log ANTES de que CatalogoSnapshotService cargue el catálogo
+            // (los ApplicationRunner corren después de crear los beans): lo que se escriba entre
+            // medio se vuelve a aplicar, pero nunca se pierde
+            try {
+                ultimoId = cambioRepository.findUltimoId();
+            } catch (Exception e) {
+                logger.error("No se pudo leer PRODUCTO_CAMBIOS al arrancar: {}", e.getMessage());
+            }
+        }
+    }
+
+    public boolean isHabilitado() {
+        return enabled;
+    }
+
+    public String getInstanciaId() {
+        return instanciaId;
+    }
+
+    // Se ejecuta en el hilo y la transacción de la escritura (no es @TransactionalEventListener):
+    // si la escritura hace rollback, la fila del log también
+    @EventListener
+    public void registrar(ProductoCambiadoEvent evento) {
+        if (!enabled || evento.isRemoto()) {
+            return;
+        }
+        cambioRepository.save(new ProductoCambio(evento.getProductoId(), evento.getTipo().name(),
+                instanciaId, Instant.now()));
+    }
+
+    // Ajuste de precios por conjunto: las filas del log se escriben con un solo INSERT ... SELECT
+    // (las secuencias del ajuste son consecutivas, así que el rango identifica exactamente sus filas)
+    @EventListener
+    public void registrarAjuste(PreciosAjustadosEvent evento) {
+        if (!enabled || evento.size() == 0) {
+            return;
+        }
+        long[] ids = evento.getIds();
+        long[] secuencias = evento.getSecuencias();
+        cambioRepository.registrarAjuste(ids[0], ids[ids.length - 1], secuencias[0], secuencias[secuencias.length - 1],
+                instanciaId, Instant.now());
+    }
+
+    @Scheduled(fixedDelayString = "${app.cambios.intervalo-ms:1000}")
+    public void consultarCambios() {
+        if (!enabled || !lectura.tryLock()) {
+            return;
+        }
+        try {
+            if (ultimoId == null) {
+                // No se pudo leer al arrancar: empiezo desde el final de la tabla
+                ultimoId = cambioRepository.findUltimoId();
+                return;
+            }
+            // Primero los huecos (si aparecieron) y después lo nuevo; si la página vino llena sigo leyendo
+            releerHuecos();
+            while (true) {
+                List<ProductoCambio> cambios =
+                        cambioRepository.findByIdGreaterThanOrderByIdAsc(ultimoId, Limit.of(tamanoLectura));
+                registrarHuecos(cambios);
+                aplicar(cambios);
+                if (cambios.size() < tamanoLectura) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Error al consultar PRODUCTO_CAMBIOS: {}", e.getMessage());
+        } finally {
+            lectura.unlock();
+        }
+    }
+
+    // Avanza ultimoId y anota como huecos los IDs salteados (páginas ordenadas por ID)
+    private void registrarHuecos(List<ProductoCambio> cambios) {
+        long ahora = System.currentTimeMillis();
+        for (ProductoCambio cambio : cambios) {
+            long salto = cambio.getId() - ultimoId - 1;
+            if (salto > 0 && huecos.size() + salto > maxHuecos) {
+                logger.warn("Salto de {} IDs en PRODUCTO_CAMBIOS (después de {}): no se esperan", salto, ultimoId);
+            } else {
+                for (long id = ultimoId + 1; id < cambio.getId(); id++) {
+                    huecos.put(id, ahora);
+                }
+            }
+            ultimoId = cambio.getId();
+        }
+    }
+
+    // Busca los huecos que siguen dentro de la espera y olvida los vencidos
+    private void releerHuecos() {
+        if (huecos.isEmpty()) {
+            return;
+        }
+        long vencimiento = System.currentTimeMillis() - esperaHuecosMs;
+        huecos.values().removeIf(detectado -> detectado < vencimiento);
+        List<Long> ids = new ArrayList<>(huecos.keySet());
+        // Oracle admite hasta 1000 elementos en un IN
+        for (int i = 0; i < ids.size(); i += 1000) {
+            List<ProductoCambio> tardios = cambioRepository.findByIdIn(ids.subList(i, Math.min(i + 1000, ids.size())));
+            for (ProductoCambio cambio : tardios) {
+                huecos.remove(cambio.getId());
+            }
+            aplicar(tardios);
+        }
+    }
+
+    private void aplicar(List<ProductoCambio> cambios) {
+        // Me quedo con el último cambio remoto de cada producto
+        Map<Long, ProductoCambio> porProducto = new LinkedHashMap<>();
+        for (ProductoCambio cambio : cambios) {
+            if (!instanciaId.equals(cambio.getInstancia())) {
+                porProducto.put(cambio.getProductoId(), cambio);
+            }
+        }
+        if (porProducto.isEmpty()) {
+            return;
+        }
+
+        // Estado actual de los productos cambiados en una sola consulta: si ya no existe, se trata como eliminado
+        Map<Long, Producto> actuales = new HashMap<>();
+        for (Producto producto : productoRepository.findByIdIn(new ArrayList<>(porProducto.keySet()))) {
+            actuales.put(producto.getId(), producto);
+        }
+        Instant ahora = Instant.now();
+        for (ProductoCambio cambio : porProducto.values()) {
+            Producto producto = actuales.get(cambio.getProductoId());
+            ProductoCambiadoEvent.Tipo tipo = producto == null
+                    ? ProductoCambiadoEvent.Tipo.ELIMINADO
+                    : ProductoCambiadoEvent.Tipo.valueOf(cambio.getTipo());
+            if (tipo == ProductoCambiadoEvent.Tipo.ELIMINADO) {
+                producto = null;
+            }
+            eventPublisher.publishEvent(new ProductoCambiadoEvent(tipo, cambio.getProductoId(), producto, true));
+            if (remotosAplicados != null) {
+                remotosAplicados.increment();
+                retraso.record(Duration.between(cambio.getFecha(), ahora).toMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+        logger.debug("Aplicados {} cambios de otras instancias (último ID {})", porProducto.size(), ultimoId);
+    }
+
+    @Scheduled(fixedDelayString = "${app.cambios.limpieza-intervalo-ms:600000}")
+    public void limpiar() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            int borrados = cambioRepository.borrarAnterioresA(Instant.now().minus(Duration.ofHours(retencionHoras)));
+            if (borrados > 0) {
+                logger.info("Limpieza de PRODUCTO_CAMBIOS: {} filas borradas", borrados);
+            }
+        } catch (Exception e) {
+            logger.error("Error al limpiar PRODUCTO_CAMBIOS: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package prueba.com.prueba.Service;
+
+import prueba.com.prueba.Model.Producto;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// SNAPSHOT INMUTABLE DEL CATÁLOGO, ORIENTADO A COLUMNAS
+// En lugar de una lista de entidades Producto (cada una con Long/Double en caja y su propio
+// String de categoría) guardo cada columna en un arreglo: ids y precios son primitivos y las
+// categorías se guardan una sola vez en un diccionario y cada fila apunta a su índice.
+// Los ids están ordenados, así que el mapa id -> fila es una búsqueda binaria sin objetos.
+// Nunca se modifica: cada cambio produce un snapshot nuevo (copy-on-write) que se publica
+// de forma atómica, por eso las lecturas no necesitan locks.
+public final class CatalogoSnapshot {
+
+    public static final CatalogoSnapshot VACIO =
+            new CatalogoSnapshot(new long[0], new String[0], new String[0], new double[0], new int[0], new String[0], new long[0]);
+
+    private final long[] ids;            // ordenados ascendentemente
+    private final String[] nombres;
+    private final String[] descripciones;
+    private final double[] precios;      // NaN cuando el precio es null en la BD
+    private final int[] categoriaIdx;    // índice en categorias, -1 si es null
+    private final String[] categorias;   // diccionario de categorías (cada una una sola vez)
+    private final long[] secuencias;     // secuenciaCambio de cada fila, 0 si es null
+
+    private CatalogoSnapshot(long[] ids, String[] nombres, String[] descripciones,
+                             double[] precios, int[] categoriaIdx, String[] categorias, long[] secuencias) {
+        this.ids = ids;
+        this.nombres = nombres;
+        this.descripciones = descripciones;
+        this.precios = precios;
+        this.categoriaIdx = categoriaIdx;
+        this.categorias = categorias;
+        this.secuencias = secuencias;
+    }
+
+    // Construye un snapshot completo a partir de las entidades leídas de la BD
+    public static CatalogoSnapshot desde(List<Producto> productos) {
+        Producto[] ordenados = productos.stream()
+                .filter(p -> p.getId() != null)
+                .sorted((a, b) -> Long.compare(a.getId(), b.getId()))
+                .toArray(Producto[]::new);
+        int n = ordenados.length;
+        long[] ids = new long[n];
+        String[] nombres = new String[n];
+        String[] descripciones = new String[n];
+        double[] precios = new double[n];
+        int[] categoriaIdx = new int[n];
+        long[] secuencias = new long[n];
+        Map<String, Integer> diccionario = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            Producto p = ordenados[i];
+            ids[i] = p.getId();
+            nombres[i] = p.getNombre();
+            descripciones[i] = p.getDescripcion();
+            precios[i] = p.getPrecio() != null ? p.getPrecio() : Double.NaN;
+            categoriaIdx[i] = p.getCategoria() != null
+                    ? diccionario.computeIfAbsent(p.getCategoria(), c -> diccionario.size())
+                    : -1;
+            secuencias[i] = secuencia(p);
+        }
+        String[] categorias = new String[diccionario.size()];
+        diccionario.forEach((categoria, idx) -> categorias[idx] = categoria);
+        return new CatalogoSnapshot(ids, nombres, descripciones, precios, categoriaIdx, categorias, secuencias);
+    }
+
+    // Devuelve un snapshot nuevo con el producto insertado o reemplazado
+    // Si la fila ya tiene una secuencia igual o más nueva devuelve el mismo snapshot: los listeners
+    // de transacciones concurrentes pueden llegar en cualquier orden y uno viejo no pisa a uno nuevo
+    public CatalogoSnapshot conProducto(Producto p) {
+        int pos = Arrays.binarySearch(ids, p.getId());
+        if (pos >= 0 && p.getSecuenciaCambio() != null && p.getSecuenciaCambio() <= secuencias[pos]) {
+            return this;
+        }
+        String[] nuevasCategorias = categorias;
+        int categoria = -1;
+        if (p.getCategoria() != null) {
+            categoria = indiceCategoria(p.getCategoria());
+            if (categoria < 0) {
+                nuevasCategorias = Arrays.copyOf(categorias, categorias.length + 1);
+                categoria = categorias.length;
+                nuevasCategorias[categoria] = p.getCategoria();
+            }
+        }
+        double precio = p.getPrecio() != null ? p.getPrecio() : Double.NaN;
+
+        if (pos >= 0) {
+            // Reemplazo: los ids no cambian, copio solo las columnas de datos
+            String[] n = nombres.clone();
+            String[] d = descripciones.clone();
+            double[] pr = precios.clone();
+            int[] c = categoriaIdx.clone();
+            long[] s = secuencias.clone();
+            n[pos] = p.getNombre();
+            d[pos] = p.getDescripcion();
+            pr[pos] = precio;
+            c[pos] = categoria;
+            s[pos] = secuencia(p);
+            return new CatalogoSnapshot(ids, n, d, pr, c, nuevasCategorias, s);
+        }
+
+        // Inserción en la posición que mantiene el orden de ids
+        int ins = -pos - 1;
+        int size = ids.length;
+        long[] i2 = new long[size + 1];
+        String[] n2 = new String[size + 1];
+        String[] d2 = new String[size + 1];
+        double[] p2 = new double[size + 1];
+        int[] c2 = new int[size + 1];
+        long[] s2 = new long[size + 1];
+        insertar(ids, i2, size, ins);
+        insertar(nombres, n2, size, ins);
+        insertar(descripciones, d2, size, ins);
+        insertar(precios, p2, size, ins);
+        insertar(categoriaIdx, c2, size, ins);
+        insertar(secuencias, s2, size, ins);
+        i2[ins] = p.getId();
+        n2[ins] = p.getNombre();
+        d2[ins] = p.getDescripcion();
+        p2[ins] = precio;
+        c2[ins] = categoria;
+        s2[ins] = secuencia(p);
+        return new CatalogoSnapshot(i2, n2, d2, p2, c2, nuevasCategorias, s2);
+    }
+
+    // Devuelve un snapshot nuevo con los precios de un ajuste por conjunto (PreciosAjustadosEvent)
+    // Una sola copia de precios y secuencias para todas las filas; los ids que ya no están se
+    // ignoran (no se insertan: el evento no trae el producto completo) y, como en conProducto,
+    // una fila con secuencia igual o más nueva no se pisa. Si no cambia nada devuelve el mismo snapshot
+    public CatalogoSnapshot conPrecios(long[] idsAjustados, double[] nuevosPrecios, long[] nuevasSecuencias) {
+        double[] pr = null;
+        long[] s = null;
+        for (int i = 0; i < idsAjustados.length; i++) {
+            int pos = Arrays.binarySearch(ids, idsAjustados[i]);
+            if (pos < 0 || nuevasSecuencias[i] <= secuencias[pos]) {
+                continue;
+            }
+            if (pr == null) {
+                pr = precios.clone();
+                s = secuencias.clone();
+            }
+            pr[pos] = nuevosPrecios[i];
+            s[pos] = nuevasSecuencias[i];
+        }
+        return pr == null ? this : new CatalogoSnapshot(ids, nombres, descripciones, pr, categoriaIdx, categorias, s);
+    }
+
+    // Devuelve un snapshot nuevo sin el producto (o el mismo si no existía)
+    public CatalogoSnapshot sinProducto(long id) {
+        int pos = Arrays.binarySearch(ids, id);
+        if (pos < 0) {
+            return this;
+        }
+        int size = ids.length - 1;
+        long[] i2 = new long[size];
+        String[] n2 = new String[size];
+        String[] d2 = new String[size];
+        double[] p2 = new double[size];
+        int[] c2 = new int[size];
+        long[] s2 = new long[size];
+        quitar(ids, i2, ids.length, pos);
+        quitar(nombres, n2, ids.length, pos);
+        quitar(descripciones, d2, ids.length, pos);
+        quitar(precios, p2, ids.length, pos);
+        quitar(categoriaIdx, c2, ids.length, pos);
+        quitar(secuencias, s2, ids.length, pos);
+        // El diccionario de categorías se conserva: una categoría huérfana cuesta un String
+        return new CatalogoSnapshot(i2, n2, d2, p2, c2, categorias, s2);
+    }
+
+    private static long secuencia(Producto p) {
+        return p.getSecuenciaCambio() != null ? p.getSecuenciaCambio() : 0;
+    }
+
+    private int indiceCategoria(String categoria) {
+        for (int i = 0; i < categorias.length; i++) {
+            if (categorias[i].equals(categoria)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // System.arraycopy acepta cualquier arreglo, así sirve para todas las columnas
+    private static void insertar(Object origen, Object destino, int size, int pos) {
+        System.arraycopy(origen, 0, destino, 0, pos);
+        System.arraycopy(origen, pos, destino, pos + 1, size - pos);
+    }
+
+    private static void quitar(Object origen, Object destino, int size, int pos) {
+        System.arraycopy(origen, 0, destino, 0, pos);
+        System.arraycopy(origen, pos + 1, destino, pos, size - pos - 1);
+    }
+
+    // LECTURAS (sin locks, el snapshot es inmutable)
+
+    public int size() { return ids.length; }
+
+    // Fila del producto o -1 si no está
+    public int indiceDe(long id) {
+        int pos = Arrays.binarySearch(ids, id);
+        return pos >= 0 ? pos : -1;
+    }
+
+    public long getId(int fila) { return ids[fila]; }
+    public String getNombre(int fila) { return nombres[fila]; }
+    public String getDescripcion(int fila) { return descripciones[fila]; }
+
+    public Double getPrecio(int fila) {
+        double precio = precios[fila];
+        return Double.isNaN(precio) ? null : precio;
+    }
+
+    public String getCategoria(int fila) {
+        int idx = categoriaIdx[fila];
+        return idx >= 0 ? categorias[idx] : null;
+    }
+
+    public int cantidadCategorias() { return categorias.length; }
+}
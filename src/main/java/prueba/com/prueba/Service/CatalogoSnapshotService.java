@@ -0,0 +1,167 @@
+package prueba.com.prueba.Service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import prueba.com.prueba.Repository.ProductoRepository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+// MOTOR DE LECTURA EN MEMORIA (opcional, app.catalogo.snapshot.enabled)
+// Mantiene un CatalogoSnapshot inmutable que ProductoService usa en los GET en lugar de
+// cargar entidades desde la BD. Las escrituras de ProductoService publican ProductoCambiadoEvent
+// y este servicio genera un snapshot nuevo y lo publica con una sola escritura volatile:
+// los lectores ven el snapshot viejo o el nuevo completo, nunca uno a medio construir.
+// Se carga antes del calentamiento (Order HIGHEST_PRECEDENCE) para que el warm-up ya lo use.
+// Los listeners AFTER_COMMIT de transacciones concurrentes llegan en cualquier orden: una fila solo
+// se reemplaza por una secuenciaCambio más nueva, y un producto borrado hace poco no vuelve por un
+// evento viejo. Lo confirmado mientras se lee la BD se guarda y se aplica sobre la carga.
+@Service
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class CatalogoSnapshotService implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogoSnapshotService.class);
+
+    // Cuánto se recuerda una baja: los eventos desordenados de otras transacciones llegan en milisegundos
+    private static final long RETENCION_BAJAS_MS = 60_000;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Value("${app.catalogo.snapshot.enabled:false}")
+    private boolean enabled;
+
+    private volatile CatalogoSnapshot snapshot = CatalogoSnapshot.VACIO;
+    private volatile boolean cargado = false;
+
+    // Serializa a los escritores (los lectores nunca lo toman)
+    // ReentrantLock en lugar de synchronized para no fijar hilos virtuales a su carrier
+    private final ReentrantLock escritura = new ReentrantLock();
+
+    // Protegidos por "escritura": eventos recibidos durante una carga y bajas recientes (id -> ms)
+    private boolean cargando = false;
+    // ProductoCambiadoEvent o PreciosAjustadosEvent, en el orden en que llegaron
+    private final List<Object> pendientes = new ArrayList<>();
+    private final Map<Long, Long> bajasRecientes = new HashMap<>();
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            recargar();
+        }
+    }
+
+    // El snapshot solo se usa cuando está habilitado y ya se cargó al menos una vez
+    public boolean isDisponible() {
+        return enabled && cargado;
+    }
+
+    public CatalogoSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    // Reconstrucción completa desde la BD
+    // La lectura corre sin el lock (las escrituras no esperan a la carga). Un cambio confirmado antes
+    // de marcar "cargando" ya está en lo que se lee; uno posterior puede estar o no, así que se
+    // guarda en pendientes y se vuelve a aplicar sobre la carga (las secuencias descartan lo repetido)
+    public void recargar() {
+        escritura.lock();
+        try {
+            cargando = true;
+            pendientes.clear();
+        } finally {
+            escritura.unlock();
+        }
+        long inicio = System.currentTimeMillis();
+        CatalogoSnapshot cargadoDeBd = null;
+        try {
+            cargadoDeBd = CatalogoSnapshot.desde(productoRepository.findAll());
+        } catch (Exception e) {
+            // Si falla la carga inicial, ProductoService sigue leyendo de la BD
+            logger.error("No se pudo cargar el snapshot del catálogo: {}", e.getMessage());
+        }
+        escritura.lock();
+        try {
+            cargando = false;
+            if (cargadoDeBd != null) {
+                for (Object evento : pendientes) {
+                    cargadoDeBd = aplicar(cargadoDeBd, evento);
+                }
+                snapshot = cargadoDeBd;
+                cargado = true;
+                logger.info("Snapshot del catálogo cargado: {} productos, {} categorías en {} ms ({} cambios durante la carga)",
+                        snapshot.size(), snapshot.cantidadCategorias(), System.currentTimeMillis() - inicio, pendientes.size());
+            }
+            pendientes.clear();
+        } finally {
+            escritura.unlock();
+        }
+    }
+
+    // Actualización incremental después del commit de cada escritura en ProductoService
+    // fallbackExecution: también se aplica si la escritura no corrió dentro de una transacción
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alCambiarProducto(ProductoCambiadoEvent evento) {
+        if (!enabled) {
+            return;
+        }
+        recibir(evento);
+    }
+
+    // Ajuste de precios por conjunto: una sola copia del snapshot para todas las filas
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alAjustarPrecios(PreciosAjustadosEvent evento) {
+        if (!enabled) {
+            return;
+        }
+        recibir(evento);
+    }
+
+    private void recibir(Object evento) {
+        escritura.lock();
+        try {
+            if (cargando) {
+                pendientes.add(evento);
+            }
+            if (cargado) {
+                snapshot = aplicar(snapshot, evento);
+            }
+        } finally {
+            escritura.unlock();
+        }
+    }
+
+    // Se llama con "escritura" tomado
+    private CatalogoSnapshot aplicar(CatalogoSnapshot base, Object cambio) {
+        if (cambio instanceof PreciosAjustadosEvent ajuste) {
+            // Solo toca filas que ya están: una baja reciente no vuelve a aparecer
+            return base.conPrecios(ajuste.getIds(), ajuste.getPrecios(), ajuste.getSecuencias());
+        }
+        ProductoCambiadoEvent evento = (ProductoCambiadoEvent) cambio;
+        long ahora = System.currentTimeMillis();
+        if (evento.getTipo() == ProductoCambiadoEvent.Tipo.ELIMINADO) {
+            bajasRecientes.values().removeIf(momento -> ahora - momento > RETENCION_BAJAS_MS);
+            bajasRecientes.put(evento.getProductoId(), ahora);
+            return base.sinProducto(evento.getProductoId());
+        }
+        // Los ids no se reutilizan: un alta o cambio de un producto ya borrado es un evento atrasado
+        Long baja = bajasRecientes.get(evento.getProductoId());
+        if (baja != null && ahora - baja <= RETENCION_BAJAS_MS) {
+            return base;
+        }
+        return base.conProducto(evento.getProducto());
+    }
+}
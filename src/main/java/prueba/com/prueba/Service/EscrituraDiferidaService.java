@@ -0,0 +1,313 @@
+package prueba.com.prueba.Service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.NonTransientDataAccessResourceException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import prueba.com.prueba.Model.Producto;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// COLA DE ESCRITURAS DIFERIDAS (WRITE-BEHIND, opcional: app.escritura-diferida.enabled)
+// El motor de precios manda ráfagas de PUT, muchas veces sobre el mismo producto en el mismo segundo.
+// En modo diferido el PUT se responde 202 y la actualización queda en una cola en memoria acotada.
+// La cola está indexada por ID: si llega otra actualización del mismo producto antes del vaciado,
+// reemplaza a la anterior (gana la última escritura) y la BD recibe una sola.
+// Se vacía en transacciones por lote cuando se junta un lote completo o cada intervalo-ms.
+// Si la cola está llena el PUT espera hasta espera-maxima-ms a que haya lugar y si no, 503.
+// Al ser en memoria, una caída del proceso pierde lo que no se vació (como mucho intervalo-ms de cambios).
+// Si un lote falla por una fila inválida (una restricción, por ejemplo) se reintenta de a una fila para
+// que el resto se escriba; la fila que falla sola vuelve a la cola y a los max-intentos se descarta.
+// Una falla de conexión no cuenta como intento: el lote entero espera al próximo vaciado.
+@Service
+public class EscrituraDiferidaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EscrituraDiferidaService.class);
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${app.escritura-diferida.enabled:false}")
+    private boolean enabled;
+
+    // Productos distintos que pueden esperar en la cola
+    @Value("${app.escritura-diferida.capacidad:10000}")
+    private int capacidad = 10000;
+
+    // Actualizaciones por transacción al vaciar (también dispara el vaciado cuando se alcanza)
+    @Value("${app.escritura-diferida.tamano-lote:100}")
+    private int tamanoLote = 100;
+
+    // Cuánto espera un PUT a que haya lugar en la cola llena antes de responder 503
+    @Value("${app.escritura-diferida.espera-maxima-ms:500}")
+    private long esperaMaximaMs = 500;
+
+    // Fallas propias (no de conexión) de una fila antes de descartarla
+    @Value("${app.escritura-diferida.max-intentos:5}")
+    private int maxIntentos = 5;
+
+    // Actualizaciones pendientes por ID; LinkedHashMap conserva el orden de llegada para el vaciado
+    private final Map<Long, Producto> pendientes = new LinkedHashMap<>();
+    // Fallas acumuladas de la actualización pendiente de cada producto (protegido por lock)
+    private final Map<Long, Integer> intentos = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition hayLugar = lock.newCondition();
+
+    // Un solo vaciado a la vez; el disparo por tamaño corre en este hilo para no demorar el PUT
+    private final AtomicBoolean vaciando = new AtomicBoolean();
+    private final ExecutorService vaciador = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "escritura-diferida");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final AtomicLong recibidas = new AtomicLong();
+    private final AtomicLong coalescidas = new AtomicLong();
+    private final AtomicLong escritas = new AtomicLong();
+    private final AtomicLong rechazadas = new AtomicLong();
+    private final AtomicLong descartadas = new AtomicLong();
+    private Timer tiempoVaciado;
+
+    @PostConstruct
+    public void init() {
+        MeterRegistry registry = meterRegistry != null ? meterRegistry.getIfAvailable() : null;
+        if (registry != null) {
+            Gauge.builder("escritura_diferida.pendientes", this, EscrituraDiferidaService::getPendientes).register(registry);
+            FunctionCounter.builder("escritura_diferida.recibidas", recibidas, AtomicLong::get).register(registry);
+            FunctionCounter.builder("escritura_diferida.coalescidas", coalescidas, AtomicLong::get).register(registry);
+            FunctionCounter.builder("escritura_diferida.escritas", escritas, AtomicLong::get).register(registry);
+            FunctionCounter.builder("escritura_diferida.rechazadas", rechazadas, AtomicLong::get).register(registry);
+            FunctionCounter.builder("escritura_diferida.descartadas", descartadas, AtomicLong::get).register(registry);
+            tiempoVaciado = Timer.builder("escritura_diferida.vaciado").register(registry);
+        }
+    }
+
+    public boolean isHabilitada() {
+        return enabled;
+    }
+
+    // Encola la actualización. Devuelve false si la cola siguió llena durante toda la espera
+    public boolean encolar(Long id, Producto producto) throws InterruptedException {
+        producto.setId(id);
+        boolean lanzarVaciado;
+        lock.lock();
+        try {
+            long restanteNanos = TimeUnit.MILLISECONDS.toNanos(esperaMaximaMs);
+            // Un producto que ya está en la cola no ocupa lugar nuevo: siempre se acepta
+            while (pendientes.size() >= capacidad && !pendientes.containsKey(id)) {
+                if (restanteNanos <= 0) {
+                    rechazadas.incrementAndGet();
+                    return false;
+                }
+                restanteNanos = hayLugar.awaitNanos(restanteNanos);
+            }
+            recibidas.incrementAndGet();
+            if (pendientes.put(id, producto) != null) {
+                coalescidas.incrementAndGet();
+            }
+            // Una actualización nueva empieza sin fallas: puede no tener el problema de la anterior
+            intentos.remove(id);
+            lanzarVaciado = pendientes.size() >= tamanoLote;
+        } finally {
+            lock.unlock();
+        }
+        if (lanzarVaciado && !vaciando.get()) {
+            vaciador.execute(this::vaciar);
+        }
+        return true;
+    }
+
+    // Disparo por tiempo
+    @Scheduled(fixedDelayString = "${app.escritura-diferida.intervalo-ms:200}")
+    public void vaciarPeriodicamente() {
+        if (enabled) {
+            vaciar();
+        }
+    }
+
+    // Escribe lo pendiente al empezar en transacciones de tamanoLote. Lo que falla vuelve al final
+    // de la cola y se reintenta recién en el próximo vaciado
+    public void vaciar() {
+        if (!vaciando.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int restantes = getPendientes();
+            List<Producto> lote;
+            while (restantes > 0 && !(lote = tomarLote(restantes)).isEmpty()) {
+                restantes -= lote.size();
+                if (!escribirLote(lote)) {
+                    break;  // se reintenta en el próximo vaciado periódico
+                }
+            }
+        } finally {
+            vaciando.set(false);
+        }
+    }
+
+    private List<Producto> tomarLote(int maximo) {
+        lock.lock();
+        try {
+            int tamano = Math.min(Math.min(tamanoLote, maximo), pendientes.size());
+            List<Producto> lote = new ArrayList<>(tamano);
+            Iterator<Producto> it = pendientes.values().iterator();
+            while (it.hasNext() && lote.size() < tamano) {
+                lote.add(it.next());
+                it.remove();
+            }
+            if (!lote.isEmpty()) {
+                hayLugar.signalAll();
+            }
+            return lote;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Devuelve false si hubo una falla de conexión (el vaciado se corta hasta el próximo ciclo)
+    private boolean escribirLote(List<Producto> lote) {
+        long inicio = System.nanoTime();
+        try {
+            escribir(lote);
+            return true;
+        } catch (Exception e) {
+            if (esFallaDeConexion(e) || lote.size() == 1) {
+                logger.error("Error al vaciar {} actualizaciones diferidas, se reintentan: {}", lote.size(), e.getMessage());
+                reencolar(lote, !esFallaDeConexion(e), e);
+                return !esFallaDeConexion(e);
+            }
+            // Una fila inválida hace fallar la transacción de todo el lote: se reintentan de a una
+            logger.warn("Falló un lote de {} actualizaciones diferidas ({}), se reintentan de a una", lote.size(), e.getMessage());
+            for (int i = 0; i < lote.size(); i++) {
+                Producto producto = lote.get(i);
+                try {
+                    escribir(List.of(producto));
+                } catch (Exception ex) {
+                    if (esFallaDeConexion(ex)) {
+                        reencolar(lote.subList(i, lote.size()), false, ex);
+                        return false;
+                    }
+                    reencolar(List.of(producto), true, ex);
+                }
+            }
+            return true;
+        } finally {
+            if (tiempoVaciado != null) {
+                tiempoVaciado.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private void escribir(List<Producto> lote) {
+        int actualizados = productoService.actualizarProductosLote(lote);
+        escritas.addAndGet(actualizados);
+        if (actualizados < lote.size()) {
+            logger.warn("Escritura diferida: {} actualizaciones descartadas porque el producto ya no existe",
+                    lote.size() - actualizados);
+        }
+        lock.lock();
+        try {
+            if (!intentos.isEmpty()) {
+                for (Producto producto : lote) {
+                    intentos.remove(producto.getId());
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // La transacción no se aplicó: vuelvo a encolar salvo los productos que ya recibieron una
+    // actualización más nueva mientras tanto. Con contarIntento, la fila que llega a max-intentos se descarta
+    private void reencolar(List<Producto> productos, boolean contarIntento, Exception causa) {
+        lock.lock();
+        try {
+            for (Producto producto : productos) {
+                Long id = producto.getId();
+                if (pendientes.containsKey(id)) {
+                    continue;
+                }
+                if (contarIntento && intentos.merge(id, 1, Integer::sum) >= maxIntentos) {
+                    intentos.remove(id);
+                    descartadas.incrementAndGet();
+                    logger.error("Actualización diferida del producto {} descartada tras {} intentos: {}",
+                            id, maxIntentos, causa.getMessage());
+                    continue;
+                }
+                pendientes.put(id, producto);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // BD caída o sin conexiones: no es culpa de ninguna fila en particular
+    private static boolean esFallaDeConexion(Throwable e) {
+        return e instanceof CannotCreateTransactionException
+                || e instanceof NonTransientDataAccessResourceException
+                || e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException;
+    }
+
+    // Al apagar se vacía lo pendiente antes de que se cierre el pool de conexiones
+    @PreDestroy
+    public void cerrar() {
+        vaciador.shutdown();
+        try {
+            vaciador.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (enabled) {
+            try {
+                vaciar();
+            } catch (Exception e) {
+                logger.error("No se pudieron escribir {} actualizaciones diferidas al apagar", getPendientes());
+            }
+        }
+    }
+
+    public int getPendientes() {
+        lock.lock();
+        try {
+            return pendientes.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getCoalescidas() { return coalescidas.get(); }
+    public long getRechazadas() { return rechazadas.get(); }
+    public long getDescartadas() { return descartadas.get(); }
+}
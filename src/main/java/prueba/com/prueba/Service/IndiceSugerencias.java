@@ -0,0 +1,326 @@
+package prueba.com.prueba.Service;
+
+import prueba.com.prueba.Model.Producto;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+// ÍNDICE DE PREFIJOS PARA EL AUTOCOMPLETADO (trie "aplanado")
+// En lugar de un trie con un objeto por nodo guardo los nombres normalizados ordenados en un
+// arreglo: todos los nombres bajo un nodo del trie (los que empiezan con un prefijo) quedan en
+// un rango contiguo que se encuentra con dos búsquedas binarias. Sobre los pesos de popularidad
+// hay un árbol de segmentos que devuelve la posición del máximo de cualquier rango, así el top-k
+// de un prefijo cuesta O(k log n) sin recorrer el rango completo.
+// Los arreglos son de tamaño fijo: cada alta o baja produce un índice nuevo (copy-on-write).
+// Los pesos sí cambian en el lugar (sumarPeso), solo desde el escritor de SugerenciasService;
+// un lector concurrente puede ver un ranking a medio actualizar, nunca una posición inválida.
+public final class IndiceSugerencias {
+
+    public static final IndiceSugerencias VACIO =
+            new IndiceSugerencias(new String[0], new String[0], new long[0], new int[0]);
+
+    private final String[] claves;    // nombres normalizados, ordenados (desempate por id)
+    private final String[] nombres;   // nombre original; comparte la instancia con la clave si son iguales
+    private final long[] ids;
+    private final int[] pesos;
+    private final int[] arbol;        // árbol de segmentos iterativo: hojas en [n, 2n), arbol[n + i] = i
+
+    private IndiceSugerencias(String[] claves, String[] nombres, long[] ids, int[] pesos) {
+        this.claves = claves;
+        this.nombres = nombres;
+        this.ids = ids;
+        this.pesos = pesos;
+        this.arbol = new int[2 * ids.length];
+        int n = ids.length;
+        for (int i = 0; i < n; i++) {
+            arbol[n + i] = i;
+        }
+        for (int i = n - 1; i >= 1; i--) {
+            arbol[i] = mejor(arbol[2 * i], arbol[2 * i + 1]);
+        }
+    }
+
+    // Construye el índice completo; los productos sin nombre no se pueden sugerir
+    public static IndiceSugerencias desde(List<Producto> productos) {
+        Producto[] validos = productos.stream()
+                .filter(p -> p.getId() != null && p.getNombre() != null)
+                .toArray(Producto[]::new);
+        int n = validos.length;
+        String[] clavesSinOrden = new String[n];
+        Integer[] orden = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            clavesSinOrden[i] = normalizar(validos[i].getNombre());
+            orden[i] = i;
+        }
+        Arrays.sort(orden, (a, b) -> {
+            int c = clavesSinOrden[a].compareTo(clavesSinOrden[b]);
+            return c != 0 ? c : Long.compare(validos[a].getId(), validos[b].getId());
+        });
+        String[] claves = new String[n];
+        String[] nombres = new String[n];
+        long[] ids = new long[n];
+        for (int i = 0; i < n; i++) {
+            Producto p = validos[orden[i]];
+            claves[i] = clavesSinOrden[orden[i]];
+            nombres[i] = compartir(claves[i], p.getNombre());
+            ids[i] = p.getId();
+        }
+        return new IndiceSugerencias(claves, nombres, ids, new int[n]);
+    }
+
+    // Devuelve un índice nuevo con el producto insertado o reubicado (conserva su peso)
+    public IndiceSugerencias conProducto(Producto p) {
+        if (p.getId() == null) {
+            return this;
+        }
+        int anterior = posicionDe(p.getId());
+        if (p.getNombre() == null) {
+            return anterior >= 0 ? sinPosicion(anterior) : this;
+        }
+        String clave = normalizar(p.getNombre());
+        if (anterior >= 0 && claves[anterior].equals(clave)) {
+            // Misma clave (cambió el precio, la categoría o solo mayúsculas/acentos): la posición no se mueve
+            if (nombres[anterior].equals(p.getNombre())) {
+                return this;
+            }
+            String[] n2 = nombres.clone();
+            n2[anterior] = compartir(clave, p.getNombre());
+            return new IndiceSugerencias(claves, n2, ids, pesos.clone());
+        }
+        int peso = anterior >= 0 ? pesos[anterior] : 0;
+        IndiceSugerencias base = anterior >= 0 ? sinPosicion(anterior) : this;
+        return base.insertar(clave, p.getNombre(), p.getId(), peso);
+    }
+
+    // Devuelve un índice nuevo sin el producto (o el mismo si no estaba)
+    public IndiceSugerencias sinProducto(long id) {
+        int pos = posicionDe(id);
+        return pos >= 0 ? sinPosicion(pos) : this;
+    }
+
+    private IndiceSugerencias insertar(String clave, String nombre, long id, int peso) {
+        int ins = inicioDe(clave);
+        while (ins < claves.length && claves[ins].equals(clave) && ids[ins] < id) {
+            ins++;
+        }
+        int size = ids.length;
+        String[] c2 = new String[size + 1];
+        String[] n2 = new String[size + 1];
+        long[] i2 = new long[size + 1];
+        int[] p2 = new int[size + 1];
+        copiarConHueco(claves, c2, size, ins);
+        copiarConHueco(nombres, n2, size, ins);
+        copiarConHueco(ids, i2, size, ins);
+        copiarConHueco(pesos, p2, size, ins);
+        c2[ins] = clave;
+        n2[ins] = compartir(clave, nombre);
+        i2[ins] = id;
+        p2[ins] = peso;
+        return new IndiceSugerencias(c2, n2, i2, p2);
+    }
+
+    private IndiceSugerencias sinPosicion(int pos) {
+        int size = ids.length - 1;
+        String[] c2 = new String[size];
+        String[] n2 = new String[size];
+        long[] i2 = new long[size];
+        int[] p2 = new int[size];
+        copiarSinPosicion(claves, c2, ids.length, pos);
+        copiarSinPosicion(nombres, n2, ids.length, pos);
+        copiarSinPosicion(ids, i2, ids.length, pos);
+        copiarSinPosicion(pesos, p2, ids.length, pos);
+        return new IndiceSugerencias(c2, n2, i2, p2);
+    }
+
+    private static void copiarConHueco(Object origen, Object destino, int size, int pos) {
+        System.arraycopy(origen, 0, destino, 0, pos);
+        System.arraycopy(origen, pos, destino, pos + 1, size - pos);
+    }
+
+    private static void copiarSinPosicion(Object origen, Object destino, int size, int pos) {
+        System.arraycopy(origen, 0, destino, 0, pos);
+        System.arraycopy(origen, pos + 1, destino, pos, size - pos - 1);
+    }
+
+    // Los ids no están ordenados (el orden es por nombre): recorrido lineal, solo lo usan los escritores
+    private int posicionDe(long id) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // POPULARIDAD (solo desde el escritor)
+
+    // Suma a cada producto lo acumulado desde la última vez y reconstruye el árbol de máximos
+    // (una pasada O(n) por lote, en lugar de buscar cada id por separado)
+    public void sumarPesos(Map<Long, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        int n = ids.length;
+        for (int i = 0; i < n; i++) {
+            Long delta = deltas.get(ids[i]);
+            if (delta != null) {
+                pesos[i] = (int) Math.max(0, Math.min(Integer.MAX_VALUE, pesos[i] + delta));
+            }
+        }
+        for (int i = n - 1; i >= 1; i--) {
+            arbol[i] = mejor(arbol[2 * i], arbol[2 * i + 1]);
+        }
+    }
+
+    // BÚSQUEDA (sin locks)
+
+    // Llena "posiciones" con hasta "limite" posiciones del rango del prefijo, de mayor a menor peso
+    // (a igual peso, en orden alfabético). El prefijo ya tiene que venir normalizado.
+    // Devuelve cuántas llenó. No crea objetos salvo los arreglos de trabajo de tamaño 2k.
+    public int buscar(String prefijo, int limite, int[] posiciones) {
+        int desde = inicioDe(prefijo);
+        int hasta = finDe(prefijo, desde);
+        int k = Math.min(limite, Math.min(posiciones.length, hasta - desde));
+        if (k <= 0) {
+            return 0;
+        }
+        // Candidatos: rangos pendientes con la posición de su máximo. Cada elegido parte su rango
+        // en dos, así nunca hay más de 2k candidatos.
+        int[] lo = new int[2 * k + 1];
+        int[] hi = new int[2 * k + 1];
+        int[] max = new int[2 * k + 1];
+        lo[0] = desde;
+        hi[0] = hasta;
+        max[0] = maximo(desde, hasta);
+        int candidatos = 1;
+        int llenas = 0;
+        while (llenas < k && candidatos > 0) {
+            int elegido = 0;
+            for (int c = 1; c < candidatos; c++) {
+                if (mejor(max[elegido], max[c]) == max[c]) {
+                    elegido = c;
+                }
+            }
+            int pos = max[elegido];
+            posiciones[llenas++] = pos;
+            int l = lo[elegido];
+            int h = hi[elegido];
+            // El elegido sale de la lista (lo reemplaza el último) y entran sus dos mitades no vacías
+            candidatos--;
+            lo[elegido] = lo[candidatos];
+            hi[elegido] = hi[candidatos];
+            max[elegido] = max[candidatos];
+            if (l < pos) {
+                lo[candidatos] = l;
+                hi[candidatos] = pos;
+                max[candidatos] = maximo(l, pos);
+                candidatos++;
+            }
+            if (pos + 1 < h) {
+                lo[candidatos] = pos + 1;
+                hi[candidatos] = h;
+                max[candidatos] = maximo(pos + 1, h);
+                candidatos++;
+            }
+        }
+        return llenas;
+    }
+
+    // Posición con mayor peso en [desde, hasta)
+    private int maximo(int desde, int hasta) {
+        int n = ids.length;
+        int resultado = -1;
+        for (int l = desde + n, r = hasta + n; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) {
+                resultado = mejor(resultado, arbol[l++]);
+            }
+            if ((r & 1) == 1) {
+                resultado = mejor(resultado, arbol[--r]);
+            }
+        }
+        return resultado;
+    }
+
+    // Mayor peso; a igual peso la posición menor (orden alfabético)
+    private int mejor(int a, int b) {
+        if (a < 0) return b;
+        if (b < 0) return a;
+        if (pesos[a] != pesos[b]) {
+            return pesos[a] > pesos[b] ? a : b;
+        }
+        return Math.min(a, b);
+    }
+
+    // Primera clave >= prefijo
+    private int inicioDe(String prefijo) {
+        int lo = 0;
+        int hi = claves.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (claves[mid].compareTo(prefijo) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // Primera clave desde "desde" que ya no empieza con el prefijo (las que sí, son contiguas)
+    private int finDe(String prefijo, int desde) {
+        int lo = desde;
+        int hi = claves.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (claves[mid].startsWith(prefijo)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    public int size() { return ids.length; }
+    public long getId(int pos) { return ids[pos]; }
+    public String getNombre(int pos) { return nombres[pos]; }
+    public int getPeso(int pos) { return pesos[pos]; }
+
+    // NORMALIZACIÓN: minúsculas, sin acentos y con los espacios colapsados
+    // "  Café   Molido " -> "cafe molido". El camino ASCII (el más común) no pasa por Normalizer.
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        boolean ascii = true;
+        for (int i = 0; i < texto.length() && ascii; i++) {
+            ascii = texto.charAt(i) < 0x80;
+        }
+        String base = ascii ? texto : Normalizer.normalize(texto, Normalizer.Form.NFD);
+        StringBuilder sb = new StringBuilder(base.length());
+        boolean espacio = false;
+        for (int i = 0; i < base.length(); i++) {
+            char c = base.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                espacio = sb.length() > 0;
+                continue;
+            }
+            if (espacio) {
+                sb.append(' ');
+                espacio = false;
+            }
+            sb.append(Character.toLowerCase(c));
+        }
+        String resultado = sb.toString();
+        return resultado.equals(texto) ? texto : resultado;
+    }
+
+    private static String compartir(String clave, String nombre) {
+        return clave.equals(nombre) ? clave : nombre;
+    }
+}
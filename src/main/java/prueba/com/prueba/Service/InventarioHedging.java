@@ -0,0 +1,273 @@
+package prueba.com.prueba.Service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import prueba.com.prueba.Config.Deadline;
+import prueba.com.prueba.Config.DeadlineExcedidoException;
+import prueba.com.prueba.Config.DeadlineInterceptor;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// HEDGED REQUESTS AL SERVICIO DE INVENTARIO (opcional, inventario.hedging.enabled)
+// El p50 de inventario es bueno pero el p99 no: en lugar de esperar siempre a la llamada lenta,
+// si la respuesta no llegó cuando ya pasó el percentil configurado de las latencias recientes
+// lanzo una segunda llamada idéntica y me quedo con la que responda primero. La perdedora se
+// cancela: el RestTemplate de esta clase usa el HttpClient del JDK, que aborta el intercambio
+// cuando se interrumpe el hilo (con HttpURLConnection la lectura bloqueada no se puede cortar).
+// Presupuesto: cada llamada primaria deposita "presupuesto" fichas (0.05 = 5%) y cada hedge
+// gasta una entera, así nunca hay más de ~5% de llamadas extra aunque inventario esté lento entero.
+// Deadline: las llamadas corren en hilos del pool con el deadline de la petición (Deadline.propagar)
+// y la espera nunca pasa del tiempo restante; al vencer se cancelan las dos y se lanza DeadlineExcedidoException.
+@Service
+public class InventarioHedging {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventarioHedging.class);
+
+    // Las fichas se guardan en milésimas para poder usar un AtomicLong
+    private static final long FICHA = 1000;
+
+    @Value("${inventario.hedging.enabled:false}")
+    private boolean enabled;
+
+    // Percentil de la latencia reciente a partir del cual se lanza el hedge
+    @Value("${inventario.hedging.percentil:95}")
+    private double percentil = 95;
+
+    // Fracción máxima de llamadas extra (0.05 = 5%)
+    @Value("${inventario.hedging.presupuesto:0.05}")
+    private double presupuesto = 0.05;
+
+    // Fichas acumulables: cuántos hedges seguidos se permiten tras un período tranquilo
+    @Value("${inventario.hedging.rafaga-maxima:10}")
+    private int rafagaMaxima = 10;
+
+    // Tamaño de la ventana de latencias y muestras mínimas antes de empezar a hacer hedging
+    @Value("${inventario.hedging.ventana:1000}")
+    private int ventana = 1000;
+
+    @Value("${inventario.hedging.min-muestras:50}")
+    private int minMuestras = 50;
+
+    @Value("${inventario.hedging.max-hilos:64}")
+    private int maxHilos = 64;
+
+    // Mismos timeouts que RestTemplateConfig
+    @Value("${inventario.hedging.timeout-ms:3000}")
+    private long timeoutMs = 3000;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Autowired
+    private Environment environment;
+
+    private RestTemplate restTemplate;
+    private Executor executor;
+    // Pool de hilos de plataforma; null con hilos virtuales (spring.threads.virtual.enabled en Java 21+)
+    private ThreadPoolExecutor pool;
+
+    // Una ventana por operación: una consulta por lote no tarda lo mismo que una individual
+    private final Map<String, LatenciasRecientes> latencias = new ConcurrentHashMap<>();
+    private final AtomicLong fichas = new AtomicLong();
+
+    private final AtomicLong hedgesLanzados = new AtomicLong();
+    private final AtomicLong hedgesGanados = new AtomicLong();
+    private final AtomicLong hedgesSinPresupuesto = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(timeoutMs))
+                .build();
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(httpClient);
+        factory.setReadTimeout(Duration.ofMillis(timeoutMs));
+        restTemplate = new RestTemplate(factory);
+        restTemplate.getInterceptors().add(new DeadlineInterceptor());
+
+        if (environment != null && Threading.VIRTUAL.isActive(environment)) {
+            // Un hilo virtual por llamada: no hace falta acotar hilos, el presupuesto ya limita los hedges
+            executor = new VirtualThreadTaskExecutor("inventario-hedging-");
+        } else {
+            AtomicInteger numero = new AtomicInteger();
+            pool = new ThreadPoolExecutor(0, maxHilos, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+                Thread t = new Thread(r, "inventario-hedging-" + numero.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+            executor = pool;
+        }
+
+        MeterRegistry registry = meterRegistry != null ? meterRegistry.getIfAvailable() : null;
+        if (registry != null) {
+            FunctionCounter.builder("inventario.hedging.lanzados", hedgesLanzados, AtomicLong::get).register(registry);
+            FunctionCounter.builder("inventario.hedging.ganados", hedgesGanados, AtomicLong::get).register(registry);
+            FunctionCounter.builder("inventario.hedging.sin_presupuesto", hedgesSinPresupuesto, AtomicLong::get).register(registry);
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    public boolean isHabilitado() {
+        return enabled;
+    }
+
+    // GET con hedging. Las excepciones de la llamada se propagan igual que con RestTemplate
+    public <T> T getForObject(String operacion, String url, Class<T> tipo) {
+        LatenciasRecientes ventanaOp = latencias.computeIfAbsent(operacion,
+                k -> new LatenciasRecientes(ventana, percentil, minMuestras));
+        depositarFicha();
+
+        Deadline deadline = Deadline.actual();
+        Callable<T> llamada = Deadline.propagar(() -> {
+            long inicio = System.nanoTime();
+            T resultado = restTemplate.getForObject(url, tipo);
+            ventanaOp.registrar(System.nanoTime() - inicio);
+            return resultado;
+        });
+
+        ExecutorCompletionService<T> completadas = new ExecutorCompletionService<>(executor);
+        Future<T> primaria;
+        try {
+            primaria = completadas.submit(llamada);
+        } catch (RejectedExecutionException e) {
+            // Pool lleno: llamada directa sin hedging antes que rechazar la consulta
+            return ejecutarDirecto(llamada);
+        }
+        Future<T> hedge = null;
+        try {
+            Future<T> ganadora;
+            long umbral = ventanaOp.getPercentilNanos();
+            if (umbral < 0) {
+                ganadora = esperar(completadas, deadline, operacion);
+            } else {
+                long espera = deadline != null ? Math.min(umbral, deadline.restanteNanos()) : umbral;
+                ganadora = completadas.poll(espera, TimeUnit.NANOSECONDS);
+                if (ganadora == null) {
+                    // Si lo que venció fue el deadline, no tiene sentido gastar un hedge
+                    Deadline.verificar(operacion);
+                    hedge = lanzarHedge(completadas, llamada);
+                    ganadora = esperar(completadas, deadline, operacion);
+                }
+            }
+            T resultado;
+            try {
+                resultado = ganadora.get();
+            } catch (ExecutionException e) {
+                // La primera en terminar falló: si hay otra en curso, espero a esa
+                if (hedge == null) {
+                    throw e;
+                }
+                ganadora = esperar(completadas, deadline, operacion);
+                resultado = ganadora.get();
+            }
+            if (ganadora == hedge) {
+                hedgesGanados.incrementAndGet();
+            }
+            return resultado;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Consulta a inventario interrumpida", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : new IllegalStateException(e.getCause());
+        } finally {
+            // Cancelo la que perdió (o ambas si hubo error); cancel sobre una terminada no hace nada
+            primaria.cancel(true);
+            if (hedge != null) {
+                hedge.cancel(true);
+            }
+        }
+    }
+
+    // Siguiente llamada terminada, esperando como mucho hasta el deadline de la petición
+    private static <T> Future<T> esperar(ExecutorCompletionService<T> completadas, Deadline deadline,
+                                         String operacion) throws InterruptedException {
+        if (deadline == null) {
+            return completadas.take();
+        }
+        Future<T> terminada = completadas.poll(Math.max(0, deadline.restanteNanos()), TimeUnit.NANOSECONDS);
+        if (terminada == null) {
+            throw new DeadlineExcedidoException(operacion);
+        }
+        return terminada;
+    }
+
+    private <T> Future<T> lanzarHedge(ExecutorCompletionService<T> completadas, Callable<T> llamada) {
+        if (!gastarFicha()) {
+            hedgesSinPresupuesto.incrementAndGet();
+            return null;
+        }
+        try {
+            Future<T> hedge = completadas.submit(llamada);
+            hedgesLanzados.incrementAndGet();
+            return hedge;
+        } catch (RejectedExecutionException e) {
+            logger.debug("Pool de hedging lleno, se espera solo a la llamada primaria");
+            return null;
+        }
+    }
+
+    private <T> T ejecutarDirecto(Callable<T> llamada) {
+        try {
+            return llamada.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void depositarFicha() {
+        long deposito = (long) (presupuesto * FICHA);
+        long maximo = rafagaMaxima * FICHA;
+        fichas.updateAndGet(actual -> Math.min(maximo, actual + deposito));
+    }
+
+    private boolean gastarFicha() {
+        while (true) {
+            long actual = fichas.get();
+            if (actual < FICHA) {
+                return false;
+            }
+            if (fichas.compareAndSet(actual, actual - FICHA)) {
+                return true;
+            }
+        }
+    }
+
+    public long getHedgesLanzados() { return hedgesLanzados.get(); }
+    public long getHedgesGanados() { return hedgesGanados.get(); }
+    public long getHedgesSinPresupuesto() { return hedgesSinPresupuesto.get(); }
+
+    // Para los tests: precarga la ventana de una operación con latencias conocidas
+    void registrarLatencia(String operacion, long latenciaNanos) {
+        latencias.computeIfAbsent(operacion, k -> new LatenciasRecientes(ventana, percentil, minMuestras))
+                .registrar(latenciaNanos);
+    }
+}
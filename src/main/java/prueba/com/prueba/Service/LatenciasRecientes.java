@@ -0,0 +1,56 @@
+package prueba.com.prueba.Service;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// VENTANA DE LATENCIAS RECIENTES (ring buffer de tamaño fijo)
+// Guarda las últimas N latencias exitosas de una operación y calcula un percentil sobre ellas.
+// El percentil no se recalcula en cada consulta: ordenar N muestras por petición sería más caro
+// que la propia llamada; se recalcula cada N/10 registros y se lee desde un campo volatile.
+public class LatenciasRecientes {
+
+    private final AtomicLongArray muestras;
+    private final AtomicLong registradas = new AtomicLong();
+    private final double percentil;
+    private final int minMuestras;
+    private final int cadaCuantas;
+
+    // -1 mientras no haya suficientes muestras para que el percentil signifique algo
+    private volatile long percentilNanos = -1;
+
+    public LatenciasRecientes(int capacidad, double percentil, int minMuestras) {
+        this.muestras = new AtomicLongArray(Math.max(1, capacidad));
+        this.percentil = percentil;
+        this.minMuestras = Math.max(1, Math.min(minMuestras, capacidad));
+        this.cadaCuantas = Math.max(1, capacidad / 10);
+    }
+
+    public void registrar(long latenciaNanos) {
+        long n = registradas.getAndIncrement();
+        muestras.set((int) (n % muestras.length()), latenciaNanos);
+        long total = n + 1;
+        if (total == minMuestras || (total > minMuestras && total % cadaCuantas == 0)) {
+            recalcular(total);
+        }
+    }
+
+    private void recalcular(long total) {
+        int cantidad = (int) Math.min(total, muestras.length());
+        long[] copia = new long[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            copia[i] = muestras.get(i);
+        }
+        Arrays.sort(copia);
+        int posicion = (int) Math.ceil(percentil / 100.0 * cantidad) - 1;
+        percentilNanos = copia[Math.max(0, Math.min(cantidad - 1, posicion))];
+    }
+
+    public long getPercentilNanos() {
+        return percentilNanos;
+    }
+
+    public long getRegistradas() {
+        return registradas.get();
+    }
+}
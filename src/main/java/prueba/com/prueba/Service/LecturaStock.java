@@ -0,0 +1,22 @@
+package prueba.com.prueba.Service;
+
+import java.time.Instant;
+
+// RESULTADO DE UNA LECTURA DE STOCK
+// stale=false: el valor viene del inventario en esta misma consulta.
+// stale=true: el inventario falló o está deshabilitado; el valor es el último conocido (asOf = cuándo
+// se leyó) o 0 con asOf null si el producto nunca se leyó con éxito.
+public record LecturaStock(Integer stock, boolean stale, Instant asOf) {
+
+    public static final LecturaStock DESCONOCIDA = new LecturaStock(0, true, null);
+
+    public static LecturaStock fresca(Integer stock) {
+        return new LecturaStock(stock, false, Instant.now());
+    }
+
+    public static LecturaStock desde(StockConocidoService.Lectura lectura) {
+        return lectura == null
+                ? DESCONOCIDA
+                : new LecturaStock(lectura.stock(), true, Instant.ofEpochMilli(lectura.leidoEnMs()));
+    }
+}
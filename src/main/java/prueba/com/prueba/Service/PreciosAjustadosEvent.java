@@ -0,0 +1,45 @@
+package prueba.com.prueba.Service;
+
+import prueba.com.prueba.Model.Producto;
+
+import java.util.List;
+
+// EVENTO DE DOMINIO: un ajuste de precios por conjunto (POST /api/productos/price-adjustments)
+// Un solo evento para todas las filas en lugar de un ProductoCambiadoEvent por fila: con miles de
+// filas cada listener pagaría una copia del catálogo por fila. Aquí cada uno lo aplica en una pasada
+// (el snapshot copia sus columnas una vez, la cache se invalida una vez, el log se escribe con un
+// INSERT ... SELECT). Solo cambian el precio y la secuencia de cambio: el índice de sugerencias,
+// que guarda nombres, no lo escucha.
+// Las columnas vienen ordenadas por ID y las secuencias son consecutivas (se reservaron juntas).
+public class PreciosAjustadosEvent {
+
+    private final long[] ids;
+    private final double[] precios;
+    private final long[] secuencias;
+
+    public PreciosAjustadosEvent(long[] ids, double[] precios, long[] secuencias) {
+        this.ids = ids;
+        this.precios = precios;
+        this.secuencias = secuencias;
+    }
+
+    // Las filas ya tienen el precio y la secuencia nuevos; tienen que venir ordenadas por ID
+    public static PreciosAjustadosEvent desde(List<Producto> productos) {
+        int n = productos.size();
+        long[] ids = new long[n];
+        double[] precios = new double[n];
+        long[] secuencias = new long[n];
+        for (int i = 0; i < n; i++) {
+            Producto p = productos.get(i);
+            ids[i] = p.getId();
+            precios[i] = p.getPrecio();
+            secuencias[i] = p.getSecuenciaCambio();
+        }
+        return new PreciosAjustadosEvent(ids, precios, secuencias);
+    }
+
+    public int size() { return ids.length; }
+    public long[] getIds() { return ids; }
+    public double[] getPrecios() { return precios; }
+    public long[] getSecuencias() { return secuencias; }
+}
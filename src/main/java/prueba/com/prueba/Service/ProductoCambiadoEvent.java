@@ -0,0 +1,46 @@
+package prueba.com.prueba.Service;
+
+import prueba.com.prueba.Model.Producto;
+
+// EVENTO DE DOMINIO: se publica en cada escritura de ProductoService
+// Los componentes que mantienen copias en memoria del catálogo (snapshot, caches, etc.)
+// lo escuchan para actualizarse sin que ProductoService tenga que conocerlos.
+// Los cambios hechos por OTRA instancia llegan con remoto = true (los publica CambiosLogService)
+public class ProductoCambiadoEvent {
+
+    public enum Tipo { CREADO, ACTUALIZADO, ELIMINADO }
+
+    private final Tipo tipo;
+    private final Long productoId;
+    // Estado del producto después del cambio (null si fue eliminado)
+    private final Producto producto;
+    private final boolean remoto;
+
+    public ProductoCambiadoEvent(Tipo tipo, Long productoId, Producto producto) {
+        this(tipo, productoId, producto, false);
+    }
+
+    public ProductoCambiadoEvent(Tipo tipo, Long productoId, Producto producto, boolean remoto) {
+        this.tipo = tipo;
+        this.productoId = productoId;
+        this.producto = producto;
+        this.remoto = remoto;
+    }
+
+    public static ProductoCambiadoEvent creado(Producto producto) {
+        return new ProductoCambiadoEvent(Tipo.CREADO, producto.getId(), producto);
+    }
+
+    public static ProductoCambiadoEvent actualizado(Producto producto) {
+        return new ProductoCambiadoEvent(Tipo.ACTUALIZADO, producto.getId(), producto);
+    }
+
+    public static ProductoCambiadoEvent eliminado(Long productoId) {
+        return new ProductoCambiadoEvent(Tipo.ELIMINADO, productoId, null);
+    }
+
+    public Tipo getTipo() { return tipo; }
+    public Long getProductoId() { return productoId; }
+    public Producto getProducto() { return producto; }
+    public boolean isRemoto() { return remoto; }
+}
@@ -3,7 +3,11 @@ package prueba.com.prueba.Service;
 // Imports de Spring para inyección de dependencias y servicios
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 // Import para comunicación con microservicios externos
 import org.springframework.web.client.RestTemplate;
@@ -13,13 +17,30 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 // Imports de mis clases del proyecto
+import prueba.com.prueba.Config.Deadline;
+import prueba.com.prueba.Config.LlamadaInventarioJfrEvent;
+import prueba.com.prueba.Config.TiemposPeticion;
+import prueba.com.prueba.DTO.AjustePreciosDTO;
+import prueba.com.prueba.DTO.FiltroProductosDTO;
 import prueba.com.prueba.DTO.ProductoConStockDTO;
+import prueba.com.prueba.DTO.ProductoParcialDTO;
+import prueba.com.prueba.DTO.ProductosPorIdsDTO;
+import prueba.com.prueba.DTO.ResultadoAjustePreciosDTO;
 import prueba.com.prueba.Model.Producto;
 import prueba.com.prueba.Repository.ProductoRepository;
+import prueba.com.prueba.Repository.ProductoRepositoryCustom.ResumenAjuste;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 // @Service: Marca esta clase como un servicio de Spring
 // Spring la detecta automáticamente y la registra como bean
@@ -39,6 +60,27 @@ public class ProductoService {
     @Autowired
     private RestTemplate restTemplate;
 
+    // Hedging opcional de las llamadas a inventario (si está deshabilitado se usa restTemplate directo)
+    @Autowired
+    private InventarioHedging inventarioHedging;
+
+    // Numera cada cambio para la sincronización incremental (GET /api/productos/changes)
+    @Autowired
+    private SincronizacionService sincronizacionService;
+
+    // Publica ProductoCambiadoEvent en cada escritura para que las copias en memoria se actualicen
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Snapshot en memoria del catálogo: si está disponible, los GET no cargan entidades
+    @Autowired
+    private CatalogoSnapshotService catalogoSnapshotService;
+
+    // Último stock leído con éxito de cada producto: respaldo cuando el inventario no responde
+    // y referencia para publicar StockCambiadoEvent cuando cambia
+    @Autowired
+    private StockConocidoService stockConocido;
+
     // @Value: Inyecta valores desde application.properties
     // Esto permite configurar la URL del servicio de inventario por ambiente
     @Value("${inventario.service.url}")
@@ -48,13 +90,32 @@ public class ProductoService {
     @Value("${inventario.service.enabled:true}")
     private boolean inventarioServiceEnabled;
 
+    // Si el servicio de inventario expone GET /inventario?ids=1,2,3 se consulta por lotes
+    // en lugar de hacer una llamada por producto
+    @Value("${inventario.service.batch-enabled:false}")
+    private boolean inventarioBatchEnabled;
+
+    @Value("${inventario.service.batch-size:50}")
+    private int inventarioBatchSize = 50;
+
+    // Tamaño de cada IN (...) al buscar varios productos por ID (Oracle admite hasta 1000)
+    @Value("${app.multiget.chunk-size:500}")
+    private int multigetChunkSize = 500;
+
+    // Máximo de IDs aceptados en una sola consulta múltiple
+    @Value("${app.multiget.max-ids:1000}")
+    private int multigetMaxIds = 1000;
+
     // MÉTODO BÁSICO: Obtener todos los productos (sin stock)
     // Simplemente delega al repository que hace la query a la BD
     public List<Producto> listarProductos() {
         logger.info("=== INICIO listarProductos() ===");
         logger.info("Ejecutando findAll() en ProductoRepository...");
         
-        List<Producto> productos = productoRepository.findAll();
+        List<Producto> productos;
+        try (TiemposPeticion.Fase fase = TiemposPeticion.fase("db")) {
+            productos = productoRepository.findAll();
+        }
         
         logger.info("Resultado findAll(): {} productos encontrados", productos.size());
         if (productos.isEmpty()) {
@@ -73,42 +134,174 @@ public class ProductoService {
 
     // MÉTODO BÁSICO: Crear nuevo producto
     // JPA/Hibernate genera automáticamente el INSERT SQL
+    // @Transactional: el INSERT y la fila de PRODUCTO_CAMBIOS (CambiosLogService) se confirman juntos
+    @Transactional
     public Producto crearProducto(Producto producto) {
-        return productoRepository.save(producto);
+        producto.setSecuenciaCambio(sincronizacionService.reservarSecuencias(1));
+        Producto guardado = productoRepository.save(producto);
+        eventPublisher.publishEvent(ProductoCambiadoEvent.creado(guardado));
+        return guardado;
     }
 
     // MÉTODO BÁSICO: Buscar producto por ID
     // findById devuelve Optional<Producto> para manejar casos donde no existe
     public Producto obtenerProductoPorId(Long id) {
-        Optional<Producto> producto = productoRepository.findById(id);
-        return producto.orElse(null);
+        try (TiemposPeticion.Fase fase = TiemposPeticion.fase("db")) {
+            Optional<Producto> producto = productoRepository.findById(id);
+            return producto.orElse(null);
+        }
+    }
+
+    // MÉTODO AUXILIAR: Saber si un producto existe (el PUT diferido responde 404 antes de encolar)
+    // Con el snapshot disponible no consulta la BD
+    public boolean existeProducto(Long id) {
+        if (catalogoSnapshotService.isDisponible()) {
+            return catalogoSnapshotService.getSnapshot().indiceDe(id) >= 0;
+        }
+        try (TiemposPeticion.Fase fase = TiemposPeticion.fase("db")) {
+            return productoRepository.existsById(id);
+        }
     }
 
     // MÉTODO BÁSICO: Actualizar producto existente
     // Primero verifico que existe, luego actualizo
+    @Transactional
     public Producto actualizarProducto(Long id, Producto producto) {
         if (productoRepository.existsById(id)) {
             producto.setId(id);  // Aseguro que mantenga el mismo ID
-            return productoRepository.save(producto);  // save() hace UPDATE si el ID existe
+            producto.setSecuenciaCambio(sincronizacionService.reservarSecuencias(1));
+            Producto guardado = productoRepository.save(producto);  // save() hace UPDATE si el ID existe
+            eventPublisher.publishEvent(ProductoCambiadoEvent.actualizado(guardado));
+            return guardado;
         }
         return null;
     }
 
+    // MÉTODO AVANZADO: Aplicar varias actualizaciones en una sola transacción (lo usa EscrituraDiferidaService)
+    // Un solo SELECT ... IN para cargar los existentes y los UPDATE se agrupan en lotes JDBC
+    // (hibernate.jdbc.batch_size). Devuelve cuántos se actualizaron; los IDs que ya no existen se descartan
+    @Transactional
+    public int actualizarProductosLote(List<Producto> productos) {
+        Map<Long, Producto> existentes = new HashMap<>();
+        for (Producto existente : productoRepository.findAllById(productos.stream().map(Producto::getId).toList())) {
+            existentes.put(existente.getId(), existente);
+        }
+        List<Producto> guardados = new ArrayList<>();
+        for (Producto producto : productos) {
+            Producto existente = existentes.get(producto.getId());
+            if (existente != null) {
+                existente.setNombre(producto.getNombre());
+                existente.setDescripcion(producto.getDescripcion());
+                existente.setPrecio(producto.getPrecio());
+                existente.setCategoria(producto.getCategoria());
+                guardados.add(existente);
+            }
+        }
+        if (!guardados.isEmpty()) {
+            // Un solo UPDATE del contador para todo el lote
+            long secuencia = sincronizacionService.reservarSecuencias(guardados.size());
+            for (Producto guardado : guardados) {
+                guardado.setSecuenciaCambio(secuencia++);
+            }
+        }
+        productoRepository.saveAll(guardados);
+        for (Producto guardado : guardados) {
+            eventPublisher.publishEvent(ProductoCambiadoEvent.actualizado(guardado));
+        }
+        return guardados.size();
+    }
+
+    // MÉTODO AVANZADO: Ajuste de precios por conjunto (POST /api/productos/price-adjustments)
+    // En lugar de un existsById + save por producto: un SELECT de resumen, un UPDATE con el filtro
+    // y un SELECT de las filas cambiadas, todo en una transacción.
+    // Las secuencias de cambio se reservan de una vez, tantas como filas cambiaron, y se asignan por
+    // orden de ID (los UPDATE de la numeración salen en lotes JDBC, como en actualizarProductosLote)
+    @Transactional
+    public ResultadoAjustePreciosDTO ajustarPrecios(AjustePreciosDTO ajuste) {
+        validarAjuste(ajuste);
+        ResumenAjuste resumen;
+        try (TiemposPeticion.Fase fase = TiemposPeticion.fase("db")) {
+            resumen = productoRepository.resumirAjuste(ajuste);
+        }
+        if (resumen.invalidos() > 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "El ajuste dejaría " + resumen.invalidos() + " productos con precio menor o igual a 0");
+        }
+        if (ajuste.isDryRun() || resumen.afectados() == 0) {
+            return new ResultadoAjustePreciosDTO((int) resumen.afectados(), ajuste.isDryRun());
+        }
+
+        List<Producto> cambiados;
+        try (TiemposPeticion.Fase fase = TiemposPeticion.fase("db")) {
+            productoRepository.ajustarPrecios(ajuste, resumen.minId(), resumen.maxId());
+            cambiados = productoRepository.findBySecuenciaCambioOrderByIdAsc(ProductoRepository.SECUENCIA_PENDIENTE);
+            if (!cambiados.isEmpty()) {
+                // Normalmente resumen.afectados(); difiere si otra transacción cambió filas del rango entre medio
+                long secuencia = sincronizacionService.reservarSecuencias(cambiados.size());
+                for (Producto cambiado : cambiados) {
+                    cambiado.setSecuenciaCambio(secuencia++);
+                }
+                productoRepository.saveAll(cambiados);
+            }
+        }
+        // Un solo evento para todas las filas: snapshot, caches, PRODUCTO_CAMBIOS y el stream lo aplican en una pasada
+        if (!cambiados.isEmpty()) {
+            eventPublisher.publishEvent(PreciosAjustadosEvent.desde(cambiados));
+        }
+        logger.info("Ajuste de precios {} {}: {} productos", ajuste.getOperacion(), ajuste.getValor(), cambiados.size());
+        return new ResultadoAjustePreciosDTO(cambiados.size(), false);
+    }
+
+    private void validarAjuste(AjustePreciosDTO ajuste) {
+        boolean conFiltro = ajuste.getCategoria() != null
+                || (ajuste.getIds() != null && !ajuste.getIds().isEmpty())
+                || ajuste.getPrecioMin() != null || ajuste.getPrecioMax() != null;
+        if (!conFiltro) {
+            // Un ajuste sin filtro cambiaría todo el catálogo: tiene que pedirse explícitamente por rango
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Hace falta al menos un filtro (categoria, ids, precioMin o precioMax)");
+        }
+        if (ajuste.getIds() != null && ajuste.getIds().size() > multigetMaxIds) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Se pueden ajustar como máximo " + multigetMaxIds + " IDs por llamada");
+        }
+        if (ajuste.getPrecioMin() != null && ajuste.getPrecioMax() != null && ajuste.getPrecioMin() > ajuste.getPrecioMax()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "precioMin no puede ser mayor que precioMax");
+        }
+        if (ajuste.getValor().isNaN() || ajuste.getValor().isInfinite()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Valor inválido");
+        }
+    }
+
     // MÉTODO BÁSICO: Eliminar producto
-    // JPA/Hibernate genera automáticamente el DELETE SQL
+    // Si no se borró ninguna fila (ID inexistente o ya borrado) no hay lápida ni evento: los clientes
+    // de /changes no reciben bajas fantasma y no se consume un número de secuencia.
+    // El último stock conocido se olvida después del commit (StockConocidoService escucha el evento)
+    @Transactional
     public void eliminarProducto(Long id) {
-        productoRepository.deleteById(id);
+        if (productoRepository.borrarPorId(id) == 0) {
+            return;
+        }
+        sincronizacionService.registrarBaja(id);  // Lápida para los clientes que sincronizan por cambios
+        eventPublisher.publishEvent(ProductoCambiadoEvent.eliminado(id));
     }
 
     // MÉTODO AVANZADO: Obtener UN producto con información de stock
     // Este método combina datos de MI base de datos + datos del microservicio de inventario
     public ProductoConStockDTO obtenerProductoConStock(Long id) {
+        // 0. Si el snapshot en memoria está disponible, leo de ahí sin tocar la BD
+        if (catalogoSnapshotService.isDisponible()) {
+            CatalogoSnapshot snapshot = catalogoSnapshotService.getSnapshot();
+            int fila = snapshot.indiceDe(id);
+            if (fila < 0) return null;
+            return convertirDesdeSnapshot(snapshot, fila, leerStock(id));
+        }
+
         // 1. Obtengo el producto de mi BD local
         Producto producto = obtenerProductoPorId(id);
         if (producto == null) return null;
         
         // 2. Hago llamada al microservicio externo para obtener el stock
-        Integer stock = obtenerStockSeguro(id);
+        LecturaStock lectura = leerStock(id);
 
         // 3. Combino ambos datos en un DTO
         ProductoConStockDTO dto = new ProductoConStockDTO();
@@ -117,42 +310,266 @@ public class ProductoService {
         dto.setDescripcion(producto.getDescripcion());
         dto.setPrecio(producto.getPrecio());
         dto.setCategoria(producto.getCategoria());
-        dto.setStock(stock);  // Este dato viene del microservicio externo
+        aplicarStock(dto, lectura);  // Este dato viene del microservicio externo
         return dto;
     }
 
     // MÉTODO AVANZADO: Listar TODOS los productos con información de stock
     // Para cada producto, hago una llamada al microservicio de inventario
     public List<ProductoConStockDTO> listarProductosConStock() {
+        // 0. Si el snapshot en memoria está disponible, recorro sus columnas sin cargar entidades
+        if (catalogoSnapshotService.isDisponible()) {
+            CatalogoSnapshot snapshot = catalogoSnapshotService.getSnapshot();
+            List<Long> ids = new ArrayList<>(snapshot.size());
+            for (int fila = 0; fila < snapshot.size(); fila++) {
+                ids.add(snapshot.getId(fila));
+            }
+            Map<Long, LecturaStock> stocks = leerStockLote(ids);
+            List<ProductoConStockDTO> lista = new ArrayList<>(snapshot.size());
+            try (TiemposPeticion.Fase fase = TiemposPeticion.fase("mapeo")) {
+                for (int fila = 0; fila < snapshot.size(); fila++) {
+                    lista.add(convertirDesdeSnapshot(snapshot, fila, stocks.get(snapshot.getId(fila))));
+                }
+            }
+            return lista;
+        }
+
         // 1. Obtengo todos los productos de mi BD
         List<Producto> productos = listarProductos();
         List<ProductoConStockDTO> lista = new ArrayList<>();
         
-        // 2. Para cada producto, obtengo su stock del microservicio externo
-        for (Producto producto : productos) {
-            Integer stock = obtenerStockSeguro(producto.getId());  // Llamada externa
-            
-            // 3. Creo un DTO combinando datos locales + externos
-            ProductoConStockDTO dto = new ProductoConStockDTO();
-            dto.setId(producto.getId());
-            dto.setNombre(producto.getNombre());
-            dto.setDescripcion(producto.getDescripcion());
-            dto.setPrecio(producto.getPrecio());
-            dto.setCategoria(producto.getCategoria());
-            dto.setStock(stock);  // Dato externo
-            lista.add(dto);
+        // 2. Obtengo el stock de todos los productos en un solo paso (por lotes si el inventario lo soporta)
+        Map<Long, LecturaStock> stocks = leerStockLote(productos.stream().map(Producto::getId).toList());
+        try (TiemposPeticion.Fase fase = TiemposPeticion.fase("mapeo")) {
+            for (Producto producto : productos) {
+                LecturaStock lectura = stocks.get(producto.getId());  // Dato externo ya consultado
+
+                // 3. Creo un DTO combinando datos locales + externos
+                ProductoConStockDTO dto = new ProductoConStockDTO();
+                dto.setId(producto.getId());
+                dto.setNombre(producto.getNombre());
+                dto.setDescripcion(producto.getDescripcion());
+                dto.setPrecio(producto.getPrecio());
+                dto.setCategoria(producto.getCategoria());
+                aplicarStock(dto, lectura);  // Dato externo
+                lista.add(dto);
+            }
         }
         return lista;
     }
 
+    // MÉTODO AVANZADO: Listar productos con SOLO los campos pedidos (GET /api/productos?fields=...)
+    // La consulta SQL trae solo esas columnas y el inventario se consulta solo si se pidió "stock":
+    // un cliente que pide id,nombre no paga ninguna llamada externa
+    public List<ProductoParcialDTO> listarProductosParciales(Set<String> campos) {
+        Set<String> columnas = new LinkedHashSet<>(campos);
+        boolean conStock = columnas.remove("stock");
+        for (String columna : columnas) {
+            if (!ProductoRepository.COLUMNAS.contains(columna)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Campo desconocido: " + columna);
+            }
+        }
+
+        // 1. Columnas pedidas: del snapshot si está disponible, si no con una proyección en la BD
+        List<ProductoParcialDTO> lista = new ArrayList<>();
+        if (catalogoSnapshotService.isDisponible()) {
+            CatalogoSnapshot snapshot = catalogoSnapshotService.getSnapshot();
+            for (int fila = 0; fila < snapshot.size(); fila++) {
+                ProductoParcialDTO dto = new ProductoParcialDTO();
+                dto.setId(snapshot.getId(fila));
+                if (columnas.contains("nombre")) dto.setNombre(snapshot.getNombre(fila));
+                if (columnas.contains("descripcion")) dto.setDescripcion(snapshot.getDescripcion(fila));
+                if (columnas.contains("precio")) dto.setPrecio(snapshot.getPrecio(fila));
+                if (columnas.contains("categoria")) dto.setCategoria(snapshot.getCategoria(fila));
+                lista.add(dto);
+            }
+        } else {
+            List<Producto> filas;
+            try (TiemposPeticion.Fase fase = TiemposPeticion.fase("db")) {
+                filas = productoRepository.findColumnas(columnas);
+            }
+            for (Producto producto : filas) {
+                ProductoParcialDTO dto = new ProductoParcialDTO();
+                dto.setId(producto.getId());
+                dto.setNombre(producto.getNombre());
+                dto.setDescripcion(producto.getDescripcion());
+                dto.setPrecio(producto.getPrecio());
+                dto.setCategoria(producto.getCategoria());
+                lista.add(dto);
+            }
+        }
+
+        // 2. Stock solo si se pidió
+        if (conStock) {
+            Map<Long, LecturaStock> stocks = leerStockLote(lista.stream().map(ProductoParcialDTO::getId).toList());
+            for (ProductoParcialDTO dto : lista) {
+                LecturaStock lectura = stocks.get(dto.getId());
+                dto.setStock(lectura.stock());
+                dto.setStockStale(lectura.stale());
+                dto.setStockAsOf(lectura.asOf());
+            }
+        }
+        return lista;
+    }
+
+    // MÉTODO AVANZADO: Obtener VARIOS productos por ID en una sola llamada
+    // En lugar de un findById + una llamada a inventario por producto, busco con IN (...) por lotes
+    // y consulto el stock de todos juntos. Los IDs que no existen se informan sin fallar la petición
+    public ProductosPorIdsDTO obtenerProductosConStock(List<Long> ids) {
+        // 1. Elimino duplicados manteniendo el orden pedido
+        List<Long> unicos = new ArrayList<>(new LinkedHashSet<>(ids));
+        unicos.removeIf(Objects::isNull);
+        if (unicos.size() > multigetMaxIds) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Se pueden consultar como máximo " + multigetMaxIds + " productos por llamada");
+        }
+
+        // 2. Busco los productos: en el snapshot si está disponible, si no en la BD por lotes
+        Map<Long, ProductoConStockDTO> encontrados = new HashMap<>();
+        if (catalogoSnapshotService.isDisponible()) {
+            CatalogoSnapshot snapshot = catalogoSnapshotService.getSnapshot();
+            for (Long id : unicos) {
+                int fila = snapshot.indiceDe(id);
+                if (fila >= 0) {
+                    encontrados.put(id, convertirDesdeSnapshot(snapshot, fila, null));
+                }
+            }
+        } else {
+            for (int desde = 0; desde < unicos.size(); desde += multigetChunkSize) {
+                List<Long> lote = unicos.subList(desde, Math.min(desde + multigetChunkSize, unicos.size()));
+                List<Producto> encontradosLote;
+                try (TiemposPeticion.Fase fase = TiemposPeticion.fase("db")) {
+                    encontradosLote = productoRepository.findByIdIn(lote);
+                }
+                for (Producto producto : encontradosLote) {
+                    encontrados.put(producto.getId(), convertirAProductoConStockDTO(producto, null));
+                }
+            }
+        }
+
+        // 3. Enriquezco el stock de todos los encontrados en un solo paso
+        Map<Long, LecturaStock> stocks = leerStockLote(new ArrayList<>(encontrados.keySet()));
+
+        // 4. Armo la respuesta en el orden pedido, separando los que no existen
+        List<ProductoConStockDTO> productos = new ArrayList<>();
+        List<Long> noEncontrados = new ArrayList<>();
+        for (Long id : unicos) {
+            ProductoConStockDTO dto = encontrados.get(id);
+            if (dto == null) {
+                noEncontrados.add(id);
+            } else {
+                aplicarStock(dto, stocks.get(id));
+                productos.add(dto);
+            }
+        }
+        return new ProductosPorIdsDTO(productos, noEncontrados);
+    }
+
+    // MÉTODO AVANZADO: Buscar productos con filtros, paginado y solo las columnas pedidas (consulta GraphQL)
+    // Devuelve objetos Producto NO administrados por JPA; sin stock (GraphQL lo resuelve por lotes aparte)
+    public List<Producto> buscarProductos(FiltroProductosDTO filtro, Set<String> columnas, int desde, int limite) {
+        FiltroProductosDTO criterios = filtro != null ? filtro : new FiltroProductosDTO();
+        if (desde < 0 || limite < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "desde debe ser >= 0 y limite >= 1");
+        }
+        if (criterios.getPrecioMin() != null && criterios.getPrecioMax() != null
+                && criterios.getPrecioMin() > criterios.getPrecioMax()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "precioMin no puede ser mayor que precioMax");
+        }
+        if (criterios.getIds() != null && criterios.getIds().size() > multigetMaxIds) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Se pueden filtrar como máximo " + multigetMaxIds + " IDs");
+        }
+        for (String columna : columnas) {
+            if (!ProductoRepository.COLUMNAS.contains(columna)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Campo desconocido: " + columna);
+            }
+        }
+
+        // Con el snapshot disponible filtro en memoria (mismo orden por ID que la consulta)
+        if (catalogoSnapshotService.isDisponible()) {
+            CatalogoSnapshot snapshot = catalogoSnapshotService.getSnapshot();
+            Set<Long> ids = criterios.getIds() != null ? new HashSet<>(criterios.getIds()) : null;
+            String nombre = criterios.getNombreContiene() != null && !criterios.getNombreContiene().isBlank()
+                    ? criterios.getNombreContiene().toLowerCase(Locale.ROOT) : null;
+            List<Producto> productos = new ArrayList<>();
+            int salteados = 0;
+            for (int fila = 0; fila < snapshot.size() && productos.size() < limite; fila++) {
+                Double precio = snapshot.getPrecio(fila);
+                if ((ids != null && !ids.contains(snapshot.getId(fila)))
+                        || (criterios.getCategoria() != null && !criterios.getCategoria().equals(snapshot.getCategoria(fila)))
+                        || (nombre != null && (snapshot.getNombre(fila) == null
+                                || !snapshot.getNombre(fila).toLowerCase(Locale.ROOT).contains(nombre)))
+                        || (criterios.getPrecioMin() != null && (precio == null || precio < criterios.getPrecioMin()))
+                        || (criterios.getPrecioMax() != null && (precio == null || precio > criterios.getPrecioMax()))) {
+                    continue;
+                }
+                if (salteados++ < desde) {
+                    continue;
+                }
+                Producto producto = new Producto();
+                producto.setId(snapshot.getId(fila));
+                producto.setNombre(snapshot.getNombre(fila));
+                producto.setDescripcion(snapshot.getDescripcion(fila));
+                producto.setPrecio(precio);
+                producto.setCategoria(snapshot.getCategoria(fila));
+                productos.add(producto);
+            }
+            return productos;
+        }
+
+        try (TiemposPeticion.Fase fase = TiemposPeticion.fase("db")) {
+            return productoRepository.buscar(criterios, columnas, desde, limite);
+        }
+    }
+
+    // Método auxiliar: arma el DTO a partir de una entidad
+    private ProductoConStockDTO convertirAProductoConStockDTO(Producto producto, LecturaStock lectura) {
+        ProductoConStockDTO dto = new ProductoConStockDTO();
+        dto.setId(producto.getId());
+        dto.setNombre(producto.getNombre());
+        dto.setDescripcion(producto.getDescripcion());
+        dto.setPrecio(producto.getPrecio());
+        dto.setCategoria(producto.getCategoria());
+        aplicarStock(dto, lectura);
+        return dto;
+    }
+
+    // Método auxiliar: arma el DTO a partir de una fila del snapshot en memoria
+    private ProductoConStockDTO convertirDesdeSnapshot(CatalogoSnapshot snapshot, int fila, LecturaStock lectura) {
+        ProductoConStockDTO dto = new ProductoConStockDTO();
+        dto.setId(snapshot.getId(fila));
+        dto.setNombre(snapshot.getNombre(fila));
+        dto.setDescripcion(snapshot.getDescripcion(fila));
+        dto.setPrecio(snapshot.getPrecio(fila));
+        dto.setCategoria(snapshot.getCategoria(fila));
+        aplicarStock(dto, lectura);
+        return dto;
+    }
+
+    // Método auxiliar: copia la lectura de stock al DTO (null = el stock se completa después)
+    private void aplicarStock(ProductoConStockDTO dto, LecturaStock lectura) {
+        if (lectura == null) {
+            return;
+        }
+        dto.setStock(lectura.stock());
+        dto.setStockStale(lectura.stale());
+        dto.setStockAsOf(lectura.asOf());
+    }
+
     // MÉTODO CRÍTICO: Comunicación segura con microservicio externo
     // Este método implementa el patrón CIRCUIT BREAKER básico
     // Si el servicio de inventario falla, MI API sigue funcionando
     public Integer obtenerStockSeguro(Long productoId) {
-        // Si el servicio de inventario está deshabilitado, devolver 0 inmediatamente
+        return leerStock(productoId).stock();
+    }
+
+    // Igual que obtenerStockSeguro pero indicando si el valor es fresco o el último conocido
+    public LecturaStock leerStock(Long productoId) {
+        // Si el servicio de inventario está deshabilitado, sirvo el último stock conocido (o 0)
         if (!inventarioServiceEnabled) {
-            logger.info("Servicio de inventario deshabilitado. Devolviendo stock 0 para producto {}", productoId);
-            return 0;
+            logger.info("Servicio de inventario deshabilitado. Devolviendo último stock conocido para producto {}", productoId);
+            return LecturaStock.desde(stockConocido.ultima(productoId));
         }
         
         try {
@@ -163,20 +580,105 @@ public class ProductoService {
             logger.info("Intentando conectar a: {}", url);
             
             // 2. Hago la llamada HTTP GET usando RestTemplate (con timeout configurado)
-            InventarioResponse inventario = restTemplate.getForObject(url, InventarioResponse.class);
+            InventarioResponse inventario = consultarInventario("stock", url, InventarioResponse.class);
             
-            // 3. Si recibo respuesta válida, devuelvo el stock
-            Integer stock = inventario != null ? inventario.getStockActual() : 0;
+            // 3. Si recibo respuesta válida, devuelvo el stock (y lo guardo como último conocido)
+            if (inventario == null) {
+                logger.warn("Inventario sin respuesta para producto {}", productoId);
+                return LecturaStock.desde(stockConocido.ultima(productoId));
+            }
+            Integer stock = inventario.getStockActual();
             logger.info("Stock obtenido para producto {}: {}", productoId, stock);
-            return stock;
+            registrarStock(productoId, stock);
+            return LecturaStock.fresca(stock);
             
         } catch (Exception e) {
+            // Si lo que pasó es que venció el deadline de la petición, se abandona en lugar de seguir con stock 0
+            Deadline.verificar("stock");
             // 4. CIRCUIT BREAKER: Si hay cualquier error (timeout, servicio caído, etc.)
             // NO fallo completamente, sino que devuelvo un valor por defecto
             // Esto garantiza que MI microservicio siga funcionando aunque el de inventario falle
             logger.error("Error al consultar inventario para producto {}: {}", productoId, e.getMessage());
-            logger.info("Devolviendo stock por defecto (0) para mantener la API funcionando");
-            return 0;  // Stock por defecto en caso de error
+            logger.info("Devolviendo último stock conocido (o 0) para mantener la API funcionando");
+            return LecturaStock.desde(stockConocido.ultima(productoId));
+        }
+    }
+
+    // MÉTODO AVANZADO: Obtener el stock de VARIOS productos en un solo paso
+    // Si el inventario soporta consultas por lote hago ceil(N / batch-size) llamadas;
+    // si no, vuelvo a una llamada por producto. Nunca falla: los errores se traducen al último
+    // stock conocido (o 0 si nunca se leyó)
+    public Map<Long, Integer> obtenerStockLote(List<Long> productoIds) {
+        Map<Long, Integer> stocks = new HashMap<>();
+        leerStockLote(productoIds).forEach((id, lectura) -> stocks.put(id, lectura.stock()));
+        return stocks;
+    }
+
+    // Igual que obtenerStockLote pero indicando por producto si el valor es fresco o el último conocido
+    public Map<Long, LecturaStock> leerStockLote(List<Long> productoIds) {
+        Map<Long, LecturaStock> stocks = new HashMap<>();
+        if (!inventarioServiceEnabled || !inventarioBatchEnabled) {
+            for (Long id : productoIds) {
+                stocks.put(id, leerStock(id));
+            }
+            return stocks;
+        }
+
+        for (int desde = 0; desde < productoIds.size(); desde += inventarioBatchSize) {
+            List<Long> lote = productoIds.subList(desde, Math.min(desde + inventarioBatchSize, productoIds.size()));
+            String ids = lote.stream().map(String::valueOf).collect(Collectors.joining(","));
+            try {
+                String url = inventarioServiceUrl + "/inventario?ids=" + ids;
+                logger.info("Consultando inventario por lote: {} productos", lote.size());
+                InventarioResponse[] respuestas = consultarInventario("stock-lote", url, InventarioResponse[].class);
+                if (respuestas != null) {
+                    for (InventarioResponse respuesta : respuestas) {
+                        if (respuesta != null && respuesta.getIdProducto() != null) {
+                            stocks.put(respuesta.getIdProducto(), LecturaStock.fresca(respuesta.getStockActual()));
+                            registrarStock(respuesta.getIdProducto(), respuesta.getStockActual());
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                Deadline.verificar("stock-lote");
+                // Mismo criterio que obtenerStockSeguro: el lote fallido queda con el último stock conocido
+                logger.error("Error al consultar inventario por lote ({} productos): {}", lote.size(), e.getMessage());
+            }
+            // Productos que el inventario no devolvió
+            for (Long id : lote) {
+                stocks.computeIfAbsent(id, sinRespuesta -> LecturaStock.desde(stockConocido.ultima(sinRespuesta)));
+            }
+        }
+        return stocks;
+    }
+
+    // Método auxiliar: guarda la lectura y publica StockCambiadoEvent si difiere de la anterior
+    // (la primera lectura de un producto no es un cambio)
+    private void registrarStock(Long productoId, Integer stock) {
+        if (stock == null) {
+            return;
+        }
+        Integer anterior = stockConocido.registrar(productoId, stock);
+        if (anterior != null && !anterior.equals(stock)) {
+            eventPublisher.publishEvent(new StockCambiadoEvent(productoId, anterior, stock));
+        }
+    }
+
+    // Método auxiliar: GET al inventario, con hedging si está habilitado
+    // Con el deadline de la petición vencido no se hace la llamada (nadie va a leer la respuesta)
+    // Cada llamada queda como LlamadaInventarioJfrEvent en las grabaciones de JFR
+    private <T> T consultarInventario(String operacion, String url, Class<T> tipo) {
+        Deadline.verificar(operacion);
+        LlamadaInventarioJfrEvent evento = new LlamadaInventarioJfrEvent(operacion);
+        evento.begin();
+        try (TiemposPeticion.Fase fase = TiemposPeticion.fase("inventario")) {
+            T respuesta = inventarioHedging.isHabilitado()
+                    ? inventarioHedging.getForObject(operacion, url, tipo)
+                    : restTemplate.getForObject(url, tipo);
+            evento.marcarExitosa();
+            return respuesta;
+        } finally {
+            evento.commit();
         }
     }
 
@@ -0,0 +1,179 @@
+package prueba.com.prueba.Service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import prueba.com.prueba.DTO.CambiosDTO;
+import prueba.com.prueba.DTO.ProductoDTO;
+import prueba.com.prueba.Model.ContadorCambios;
+import prueba.com.prueba.Model.Producto;
+import prueba.com.prueba.Model.ProductoEliminado;
+import prueba.com.prueba.Repository.ContadorCambiosRepository;
+import prueba.com.prueba.Repository.ProductoEliminadoRepository;
+import prueba.com.prueba.Repository.ProductoRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+
+// SINCRONIZACIÓN INCREMENTAL DEL CATÁLOGO (GET /api/productos/changes?since={token})
+// Cada alta/modificación guarda en el producto un número de secuencia y cada baja deja una lápida
+// con el suyo. Un cliente pide "lo posterior a mi token" y recibe solo eso: el tráfico depende de
+// cuánto cambió el catálogo, no de su tamaño.
+// Los números salen de una fila contador (CONTADOR_CAMBIOS) y no de una secuencia de Oracle:
+// el UPDATE bloquea la fila hasta el commit, así los números se confirman en orden y un cliente
+// que ya leyó hasta N nunca se pierde un N-1 confirmado después. El costo es que las escrituras
+// de productos se serializan en ese punto (los lotes de la escritura diferida reservan N de una vez).
+// Las lápidas se compactan después de retencion-horas. El token lleva la secuencia y el momento en
+// que se emitió: las bajas posteriores a un token más nuevo que la retención todavía existen, y un
+// token más viejo recibe resincronizar = true (410) porque algunas de sus bajas ya se compactaron.
+// Las dos lecturas (productos y lápidas) son dos consultas y en READ COMMITTED no ven la misma foto:
+// un cambio y una baja confirmados entre ambas dejarían ver la baja y no el cambio, y el token
+// saltaría el cambio. Por eso primero se lee el contador y las dos consultas se cortan en ese valor:
+// como el UPDATE del contador se serializa hasta el commit, todo número <= al contador confirmado
+// ya está confirmado y lo ven las dos consultas.
+@Service
+public class SincronizacionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SincronizacionService.class);
+
+    private static final String PREFIJO_TOKEN = "v1:";
+
+    // Margen por diferencias de reloj entre instancias: el token vence un poco antes que las lápidas
+    private static final Duration MARGEN_RELOJ = Duration.ofMinutes(10);
+
+    // Token leído: secuencia hasta la que el cliente está al día y cuándo se emitió
+    record Token(long secuencia, Instant emitido) {}
+
+    @Autowired
+    private ContadorCambiosRepository contadorRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private ProductoEliminadoRepository eliminadoRepository;
+
+    // Cambios por respuesta
+    @Value("${app.sync.tamano-pagina:500}")
+    private int tamanoPagina = 500;
+
+    @Value("${app.sync.retencion-horas:168}")
+    private long retencionHoras = 168;
+
+    // Reserva "cantidad" números consecutivos y devuelve el primero
+    // MANDATORY: el número tiene que confirmarse junto con el cambio que numera
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long reservarSecuencias(int cantidad) {
+        if (contadorRepository.incrementar(cantidad) == 0) {
+            // Primera escritura sobre una BD sin la fila (en Oracle la crea el script de migración)
+            contadorRepository.saveAndFlush(new ContadorCambios((long) cantidad));
+            return 1;
+        }
+        return contadorRepository.valorActual() - cantidad + 1;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarBaja(Long productoId) {
+        eliminadoRepository.save(new ProductoEliminado(productoId, reservarSecuencias(1), Instant.now()));
+    }
+
+    // Cambios posteriores al token (null o vacío = desde el principio)
+    @Transactional(readOnly = true)
+    public CambiosDTO cambiosDesde(String token) {
+        Token leido = leerToken(token);
+        CambiosDTO resultado = new CambiosDTO();
+
+        Instant vencimiento = Instant.now().minus(Duration.ofHours(retencionHoras)).plus(MARGEN_RELOJ);
+        if (leido != null && leido.emitido().isBefore(vencimiento)) {
+            // Puede haber bajas posteriores al token que ya se compactaron: el cliente descarga todo
+            resultado.setResincronizar(true);
+            return resultado;
+        }
+        long desde = leido != null ? leido.secuencia() : 0;
+        // Tope común de las dos consultas; lo posterior llega en la próxima llamada
+        Long contador = contadorRepository.valorActual();
+        long hasta = contador != null ? contador : 0;
+
+        // Pido una página de cada tabla y las intercalo por secuencia hasta llenar la respuesta
+        List<Producto> productos = desde >= hasta ? List.of() : productoRepository
+                .findBySecuenciaCambioBetweenOrderBySecuenciaCambioAsc(desde + 1, hasta, Limit.of(tamanoPagina + 1));
+        List<ProductoEliminado> bajas = desde >= hasta ? List.of() : eliminadoRepository
+                .findBySecuenciaCambioBetweenOrderBySecuenciaCambioAsc(desde + 1, hasta, Limit.of(tamanoPagina + 1));
+        int p = 0, b = 0;
+        long ultima = desde;
+        while (resultado.getCambiados().size() + resultado.getEliminados().size() < tamanoPagina
+                && (p < productos.size() || b < bajas.size())) {
+            boolean tomarProducto = b >= bajas.size() || (p < productos.size()
+                    && productos.get(p).getSecuenciaCambio() < bajas.get(b).getSecuenciaCambio());
+            if (tomarProducto) {
+                Producto producto = productos.get(p++);
+                resultado.getCambiados().add(convertirAProductoDTO(producto));
+                ultima = producto.getSecuenciaCambio();
+            } else {
+                ProductoEliminado baja = bajas.get(b++);
+                resultado.getEliminados().add(baja.getProductoId());
+                ultima = baja.getSecuenciaCambio();
+            }
+        }
+        resultado.setHayMas(p < productos.size() || b < bajas.size());
+        // Un token de continuación conserva la fecha original: la descarga empezó en ese momento
+        Instant emitido = resultado.isHayMas() && leido != null ? leido.emitido() : Instant.now();
+        resultado.setToken(crearToken(new Token(ultima, emitido)));
+        return resultado;
+    }
+
+    // Compacta las lápidas más viejas que la retención
+    @Scheduled(fixedDelayString = "${app.sync.compactacion-intervalo-ms:3600000}")
+    @Transactional
+    public void compactar() {
+        int borradas = eliminadoRepository.borrarAnterioresA(Instant.now().minus(Duration.ofHours(retencionHoras)));
+        if (borradas > 0) {
+            logger.info("Compactadas {} lápidas de productos eliminados", borradas);
+        }
+    }
+
+    // El token es opaco para el cliente: "v1:<secuencia>:<emitido en epoch ms>" en Base64 URL
+    static String crearToken(Token token) {
+        String texto = PREFIJO_TOKEN + token.secuencia() + ":" + token.emitido().toEpochMilli();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Token leerToken(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String texto = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            if (!texto.startsWith(PREFIJO_TOKEN)) {
+                throw new IllegalArgumentException(texto);
+            }
+            String[] partes = texto.substring(PREFIJO_TOKEN.length()).split(":");
+            return new Token(Long.parseLong(partes[0]), Instant.ofEpochMilli(Long.parseLong(partes[1])));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Token de sincronización inválido");
+        }
+    }
+
+    private ProductoDTO convertirAProductoDTO(Producto producto) {
+        ProductoDTO dto = new ProductoDTO();
+        dto.setId(producto.getId());
+        dto.setNombre(producto.getNombre());
+        dto.setDescripcion(producto.getDescripcion());
+        dto.setPrecio(producto.getPrecio());
+        dto.setCategoria(producto.getCategoria());
+        return dto;
+    }
+}
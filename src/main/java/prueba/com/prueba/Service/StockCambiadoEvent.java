@@ -0,0 +1,21 @@
+package prueba.com.prueba.Service;
+
+// EVENTO: el inventario devolvió para un producto un stock distinto al de la lectura anterior
+// Lo publica ProductoService al leer stock (no hay notificaciones desde el servicio de inventario),
+// así que solo se detectan los cambios de productos que alguien consulta
+public class StockCambiadoEvent {
+
+    private final Long productoId;
+    private final Integer anterior;
+    private final Integer actual;
+
+    public StockCambiadoEvent(Long productoId, Integer anterior, Integer actual) {
+        this.productoId = productoId;
+        this.anterior = anterior;
+        this.actual = actual;
+    }
+
+    public Long getProductoId() { return productoId; }
+    public Integer getAnterior() { return anterior; }
+    public Integer getActual() { return actual; }
+}
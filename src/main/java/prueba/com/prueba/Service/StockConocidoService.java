@@ -0,0 +1,158 @@
+package prueba.com.prueba.Service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// ÚLTIMO STOCK CONOCIDO (LAST-KNOWN-GOOD) DE CADA PRODUCTO
+// Guarda cada lectura exitosa del inventario con el momento en que se hizo. Cuando el inventario
+// falla o está deshabilitado, ProductoService sirve este valor marcado como desactualizado en
+// lugar de stock 0.
+// Las lecturas viven en memoria y se vuelcan a un archivo local cada guardado-ms (solo si hubo
+// cambios) y al apagar; al arrancar se vuelven a cargar. Un archivo en lugar de una tabla: la
+// lectura de stock es el camino caliente y no quiero sumarle una escritura en la BD por producto.
+// Con app.stock-conocido.archivo vacío el almacén es solo en memoria (no sobrevive reinicios).
+@Service
+public class StockConocidoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockConocidoService.class);
+
+    // Cabecera del archivo: "STK" + versión del formato
+    private static final int FORMATO = 0x53544B01;
+
+    // Lectura guardada: stock y momento de la lectura (epoch ms)
+    public record Lectura(int stock, long leidoEnMs) {}
+
+    @Value("${app.stock-conocido.archivo:data/stock-conocido.bin}")
+    private String archivo = "";
+
+    private final Map<Long, Lectura> lecturas = new ConcurrentHashMap<>();
+    private volatile boolean sucio;
+    private final ReentrantLock guardando = new ReentrantLock();
+
+    @PostConstruct
+    public void cargar() {
+        Path ruta = ruta();
+        if (ruta == null || !Files.exists(ruta)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(ruta)))) {
+            if (in.readInt() != FORMATO) {
+                logger.warn("Archivo de stock conocido {} con formato desconocido, se ignora", ruta);
+                return;
+            }
+            int cantidad = in.readInt();
+            for (int i = 0; i < cantidad; i++) {
+                long id = in.readLong();
+                int stock = in.readInt();
+                long leidoEnMs = in.readLong();
+                lecturas.merge(id, new Lectura(stock, leidoEnMs),
+                        (actual, cargada) -> actual.leidoEnMs() >= cargada.leidoEnMs() ? actual : cargada);
+            }
+            logger.info("Stock conocido cargado: {} productos desde {}", cantidad, ruta);
+        } catch (IOException e) {
+            // Un archivo dañado no impide arrancar: se empieza sin valores conocidos
+            logger.warn("No se pudo leer el stock conocido de {}: {}", ruta, e.getMessage());
+        }
+    }
+
+    // Guarda una lectura exitosa; devuelve el stock de la lectura anterior (null si no había)
+    public Integer registrar(Long productoId, int stock) {
+        Lectura anterior = lecturas.put(productoId, new Lectura(stock, System.currentTimeMillis()));
+        sucio = true;
+        return anterior != null ? anterior.stock() : null;
+    }
+
+    // Última lectura exitosa del producto, o null si nunca se leyó
+    public Lectura ultima(Long productoId) {
+        return lecturas.get(productoId);
+    }
+
+    // El producto se eliminó: su stock ya no sirve como respaldo
+    public void olvidar(Long productoId) {
+        if (lecturas.remove(productoId) != null) {
+            sucio = true;
+        }
+    }
+
+    // Solo después del commit: si la baja hace rollback, el producto conserva su último stock conocido
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alCambiarProducto(ProductoCambiadoEvent evento) {
+        if (evento.getTipo() == ProductoCambiadoEvent.Tipo.ELIMINADO) {
+            olvidar(evento.getProductoId());
+        }
+    }
+
+    public int size() {
+        return lecturas.size();
+    }
+
+    // Vuelca las lecturas a un archivo temporal y lo mueve sobre el definitivo:
+    // un corte a mitad de escritura deja el archivo anterior intacto
+    @Scheduled(fixedDelayString = "${app.stock-conocido.guardado-ms:30000}",
+            initialDelayString = "${app.stock-conocido.guardado-ms:30000}")
+    public void guardar() {
+        Path ruta = ruta();
+        if (ruta == null || !sucio || !guardando.tryLock()) {
+            return;
+        }
+        try {
+            sucio = false;
+            Path temporal = ruta.resolveSibling(ruta.getFileName() + ".tmp");
+            if (ruta.getParent() != null) {
+                Files.createDirectories(ruta.getParent());
+            }
+            // Copia sin bloquear a los lectores de stock: la cantidad escrita coincide con las filas
+            Map<Long, Lectura> copia = Map.copyOf(lecturas);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporal)))) {
+                out.writeInt(FORMATO);
+                out.writeInt(copia.size());
+                for (Map.Entry<Long, Lectura> e : copia.entrySet()) {
+                    out.writeLong(e.getKey());
+                    out.writeInt(e.getValue().stock());
+                    out.writeLong(e.getValue().leidoEnMs());
+                }
+            }
+            try {
+                Files.move(temporal, ruta, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporal, ruta, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            // Se reintenta en el próximo ciclo
+            sucio = true;
+            logger.warn("No se pudo guardar el stock conocido en {}: {}", ruta, e.getMessage());
+        } finally {
+            guardando.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        guardar();
+    }
+
+    private Path ruta() {
+        return archivo == null || archivo.isBlank() ? null : Path.of(archivo);
+    }
+}
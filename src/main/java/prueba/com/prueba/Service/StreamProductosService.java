@@ -0,0 +1,461 @@
+package prueba.com.prueba.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import prueba.com.prueba.DTO.EventoProductoDTO;
+import prueba.com.prueba.Model.Producto;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+// STREAM DE CAMBIOS (GET /api/productos/stream, text/event-stream)
+// Reemplaza el polling de GET /api/productos: cada alta, cambio, baja (ProductoCambiadoEvent), ajuste
+// de precios por conjunto (PreciosAjustadosEvent) y cada cambio de stock detectado (StockCambiadoEvent)
+// se serializa UNA vez y se encola a cada suscriptor. Cada suscriptor tiene una cola acotada y a lo
+// sumo una tarea de envío en curso: el hilo que publica nunca espera a un cliente lento.
+// - Una conexión ociosa no ocupa hilos (SseEmitter usa el modo async del servlet), solo su cola.
+// - Cliente lento (cola llena): se desconecta y al reconectar con Last-Event-ID recibe lo que se
+//   perdió desde el historial; con app.stream.lento=DESCARTAR se descarta el evento más viejo.
+// - Cliente que dejó de leer (un envío lleva más de app.stream.envio-timeout-ms): se desconecta
+//   igual. Su hilo de envío queda bloqueado hasta que el servidor corta la escritura, pero el pool
+//   de envío crece por suscriptor y los demás siguen recibiendo.
+// - El emitter nunca se completa desde el hilo que publica: send() y complete() sincronizan sobre
+//   el emitter y un envío bloqueado dejaría a quien tiene el lock de publicación (y a toda escritura
+//   de productos detrás) esperando. Lo completa su tarea de envío al terminar el envío en curso.
+// - Si lo que falta ya no está en el historial recibe "resincronizar": debe recargar el listado.
+// - Heartbeat (comentario SSE) cada app.stream.heartbeat-ms para que proxies y balanceadores no
+//   corten la conexión y para detectar clientes que ya no están.
+@Service
+public class StreamProductosService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamProductosService.class);
+
+    // Comentario SSE: no tiene id y el cliente lo ignora
+    private static final Evento HEARTBEAT = new Evento(-1, null, null);
+
+    public enum PoliticaLento { DESCONECTAR, DESCARTAR }
+
+    record Evento(long id, String nombre, String datos) {}
+
+    // Un cliente conectado
+    static final class Suscriptor {
+        final SseEmitter emitter;
+        final ArrayBlockingQueue<Evento> cola;
+        final AtomicBoolean enviando = new AtomicBoolean();
+        final AtomicBoolean completado = new AtomicBoolean();
+        volatile boolean cerrado;
+        // Lo cerró el servicio (lento o envío vencido): su tarea de envío completa el emitter
+        volatile boolean completar;
+        // Inicio (nanoTime) del envío en curso, 0 si no hay; y el hilo que lo hace (guardado por this)
+        volatile long enviandoDesde;
+        Thread hilo;
+
+        Suscriptor(SseEmitter emitter, int capacidad) {
+            this.emitter = emitter;
+            this.cola = new ArrayBlockingQueue<>(capacidad);
+        }
+    }
+
+    @Value("${app.stream.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.stream.max-suscriptores:5000}")
+    private int maxSuscriptores = 5000;
+
+    // Eventos pendientes por suscriptor antes de considerarlo lento
+    @Value("${app.stream.buffer:128}")
+    private int buffer = 128;
+
+    // Últimos eventos que se guardan para reenviar a quien reconecta con Last-Event-ID
+    @Value("${app.stream.historial:1024}")
+    private int tamanoHistorial = 1024;
+
+    @Value("${app.stream.lento:DESCONECTAR}")
+    private PoliticaLento politicaLento = PoliticaLento.DESCONECTAR;
+
+    // Duración máxima de una conexión; el cliente (EventSource) reconecta solo con Last-Event-ID
+    @Value("${app.stream.timeout-ms:1800000}")
+    private long timeoutMs = 1800000;
+
+    // Hilos de envío que se mantienen vivos; el pool crece si hay más envíos en curso a la vez
+    @Value("${app.stream.hilos-envio:8}")
+    private int hilosEnvio = 8;
+
+    // Un envío que tarda más que esto es un cliente que dejó de leer: se desconecta
+    @Value("${app.stream.envio-timeout-ms:10000}")
+    private long envioTimeoutMs = 10000;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Autowired
+    private Environment environment;
+
+    private final List<Suscriptor> suscriptores = new CopyOnWriteArrayList<>();
+
+    // Desconectados cuyo emitter todavía no se completó (su envío en curso puede estar colgado)
+    private final Set<Suscriptor> cerrando = ConcurrentHashMap.newKeySet();
+
+    // Numeración e historial se modifican bajo el mismo lock que el encolado: cada suscriptor
+    // recibe los eventos en orden de id y el reenvío al reconectar no pierde ni duplica eventos
+    private final ReentrantLock publicacion = new ReentrantLock();
+    private Evento[] historial;
+    private long ultimoId = 0;
+
+    private Executor executor;
+    private ThreadPoolExecutor pool;
+
+    private Counter desconectadosLentos;
+    private Counter descartados;
+
+    @PostConstruct
+    public void init() {
+        historial = new Evento[Math.max(1, tamanoHistorial)];
+        if (environment != null && Threading.VIRTUAL.isActive(environment)) {
+            executor = new VirtualThreadTaskExecutor("stream-productos-");
+        } else {
+            // Sin cola de espera y sin tope: cada suscriptor tiene a lo sumo una tarea de envío, así que
+            // los hilos quedan acotados por los envíos en curso. Con un tope fijo, unos pocos clientes que
+            // no leen ocuparían todos los hilos y el stream se frenaría para todos
+            AtomicInteger numero = new AtomicInteger();
+            pool = new ThreadPoolExecutor(hilosEnvio, Integer.MAX_VALUE, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+                Thread t = new Thread(r, "stream-productos-" + numero.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+            pool.allowCoreThreadTimeOut(true);
+            executor = pool;
+        }
+
+        MeterRegistry registry = meterRegistry != null ? meterRegistry.getIfAvailable() : null;
+        if (registry != null) {
+            Gauge.builder("stream.suscriptores", suscriptores, List::size).register(registry);
+            desconectadosLentos = Counter.builder("stream.lentos").tag("accion", "desconectado").register(registry);
+            descartados = Counter.builder("stream.lentos").tag("accion", "descartado").register(registry);
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        for (Suscriptor suscriptor : suscriptores) {
+            quitar(suscriptor);
+            completar(suscriptor);
+        }
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    // Nuevo suscriptor; con ultimoIdVisto (header Last-Event-ID) recibe primero lo que se perdió
+    public SseEmitter suscribir(String ultimoIdVisto) {
+        if (!enabled) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Stream deshabilitado");
+        }
+        if (suscriptores.size() >= maxSuscriptores) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Demasiados suscriptores");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Suscriptor suscriptor = new Suscriptor(emitter, buffer);
+        emitter.onCompletion(() -> quitar(suscriptor));
+        emitter.onTimeout(() -> quitar(suscriptor));
+        emitter.onError(e -> quitar(suscriptor));
+
+        publicacion.lock();
+        try {
+            // El primer envío manda los headers enseguida (sin esperar al primer cambio)
+            suscriptor.cola.offer(HEARTBEAT);
+            Long desde = leerId(ultimoIdVisto);
+            if (desde != null && desde < ultimoId) {
+                reenviar(suscriptor, desde);
+            }
+            suscriptores.add(suscriptor);
+        } finally {
+            publicacion.unlock();
+        }
+        programarEnvio(suscriptor);
+        return emitter;
+    }
+
+    // Copia a la cola los eventos posteriores a "desde"; si ya no están todos, pide resincronizar
+    private void reenviar(Suscriptor suscriptor, long desde) {
+        long primero = Math.max(1, ultimoId - historial.length + 1);
+        long pendientes = ultimoId - desde;
+        if (desde + 1 < primero || pendientes >= suscriptor.cola.remainingCapacity()) {
+            suscriptor.cola.offer(new Evento(ultimoId, "resincronizar", "{}"));
+            return;
+        }
+        for (long id = desde + 1; id <= ultimoId; id++) {
+            suscriptor.cola.offer(historial[(int) (id % historial.length)]);
+        }
+    }
+
+    private static Long leerId(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(texto.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // EVENTOS DE DOMINIO (después del commit, igual que el snapshot y las caches)
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alCambiarProducto(ProductoCambiadoEvent evento) {
+        EventoProductoDTO datos = evento.getProducto() != null
+                ? convertir(evento.getProducto())
+                : new EventoProductoDTO(evento.getProductoId());
+        publicar(evento.getTipo().name().toLowerCase(), datos);
+    }
+
+    // Ajuste de precios por conjunto: un solo evento "precios" con [{id, precio}, ...] en lugar de uno por
+    // fila (miles de eventos llenarían la cola de cada suscriptor y lo desconectarían por lento)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alAjustarPrecios(PreciosAjustadosEvent evento) {
+        List<EventoProductoDTO> datos = new ArrayList<>(evento.size());
+        for (int i = 0; i < evento.size(); i++) {
+            EventoProductoDTO dto = new EventoProductoDTO(evento.getIds()[i]);
+            dto.setPrecio(evento.getPrecios()[i]);
+            datos.add(dto);
+        }
+        publicar("precios", datos);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alCambiarStock(StockCambiadoEvent evento) {
+        EventoProductoDTO datos = new EventoProductoDTO(evento.getProductoId());
+        datos.setStock(evento.getActual());
+        datos.setStockAnterior(evento.getAnterior());
+        publicar("stock", datos);
+    }
+
+    private void publicar(String nombre, Object datos) {
+        if (!enabled) {
+            return;
+        }
+        String json;
+        try {
+            // Se serializa una sola vez para todos los suscriptores
+            json = objectMapper.writeValueAsString(datos);
+        } catch (JsonProcessingException e) {
+            logger.error("No se pudo serializar el evento {}: {}", nombre, e.getMessage());
+            return;
+        }
+        publicacion.lock();
+        try {
+            Evento evento = new Evento(++ultimoId, nombre, json);
+            historial[(int) (evento.id() % historial.length)] = evento;
+            for (Suscriptor suscriptor : suscriptores) {
+                encolar(suscriptor, evento);
+            }
+        } finally {
+            publicacion.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Suscriptor suscriptor : suscriptores) {
+            encolar(suscriptor, HEARTBEAT);
+        }
+    }
+
+    // Desconecta a los suscriptores con un envío en curso hace más de envio-timeout-ms y le corta el
+    // envío a su hilo (interrupción; si la escritura no la atiende, el hilo se libera cuando el
+    // servidor corta la escritura por su propio timeout)
+    @Scheduled(fixedDelayString = "${app.stream.envio-timeout-ms:10000}")
+    public void vigilarEnvios() {
+        long limite = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(envioTimeoutMs);
+        for (Suscriptor suscriptor : suscriptores) {
+            if (vencido(suscriptor, limite)) {
+                incrementar(desconectadosLentos);
+                logger.debug("Suscriptor desconectado: un envío lleva más de {} ms", envioTimeoutMs);
+                desconectar(suscriptor);
+                interrumpir(suscriptor);
+            }
+        }
+        // Los desconectados por cola llena pueden tener su envío colgado igual
+        for (Suscriptor suscriptor : cerrando) {
+            if (vencido(suscriptor, limite)) {
+                interrumpir(suscriptor);
+            }
+        }
+    }
+
+    private static boolean vencido(Suscriptor suscriptor, long limite) {
+        long desde = suscriptor.enviandoDesde;
+        return desde != 0 && desde - limite < 0;
+    }
+
+    private static void interrumpir(Suscriptor suscriptor) {
+        synchronized (suscriptor) {
+            if (suscriptor.hilo != null) {
+                suscriptor.hilo.interrupt();
+            }
+        }
+    }
+
+    private void encolar(Suscriptor suscriptor, Evento evento) {
+        if (suscriptor.cerrado) {
+            return;
+        }
+        if (!suscriptor.cola.offer(evento)) {
+            if (evento == HEARTBEAT) {
+                // Con la cola llena el cliente ya tiene tráfico pendiente, el heartbeat sobra
+                return;
+            }
+            if (politicaLento == PoliticaLento.DESCARTAR) {
+                suscriptor.cola.poll();
+                suscriptor.cola.offer(evento);
+                incrementar(descartados);
+            } else {
+                // Al reconectar con Last-Event-ID recupera lo perdido desde el historial
+                incrementar(desconectadosLentos);
+                logger.debug("Suscriptor lento desconectado ({} eventos pendientes)", suscriptor.cola.size());
+                desconectar(suscriptor);
+                return;
+            }
+        }
+        programarEnvio(suscriptor);
+    }
+
+    // Lo saca de la lista y deja el complete() a su tarea de envío: si hay un envío en curso lo hace
+    // esa misma tarea al terminarlo, si no se programa una. Nunca bloquea a quien llama
+    private void desconectar(Suscriptor suscriptor) {
+        quitar(suscriptor);
+        suscriptor.completar = true;
+        cerrando.add(suscriptor);
+        programarEnvio(suscriptor);
+    }
+
+    // A lo sumo una tarea de envío por suscriptor: los eventos salen en orden
+    private void programarEnvio(Suscriptor suscriptor) {
+        if ((!suscriptor.cerrado || suscriptor.completar) && !suscriptor.completado.get()
+                && suscriptor.enviando.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> vaciar(suscriptor));
+            } catch (RuntimeException e) {
+                suscriptor.enviando.set(false);
+            }
+        }
+    }
+
+    private void vaciar(Suscriptor suscriptor) {
+        synchronized (suscriptor) {
+            suscriptor.hilo = Thread.currentThread();
+        }
+        try {
+            Evento evento;
+            while (!suscriptor.cerrado && (evento = suscriptor.cola.poll()) != null) {
+                suscriptor.enviandoDesde = System.nanoTime();
+                enviar(suscriptor.emitter, evento);
+                suscriptor.enviandoDesde = 0;
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Cliente desconectado o emitter ya completado
+            quitar(suscriptor);
+        } finally {
+            suscriptor.enviandoDesde = 0;
+            // La interrupción de vigilarEnvios() es para este envío, no para la próxima tarea del hilo
+            synchronized (suscriptor) {
+                suscriptor.hilo = null;
+                Thread.interrupted();
+            }
+            suscriptor.enviando.set(false);
+        }
+        if (suscriptor.completar) {
+            completar(suscriptor);
+        } else if (!suscriptor.cerrado && !suscriptor.cola.isEmpty()) {
+            // Un evento encolado justo después del último poll no puede quedar esperando al siguiente
+            programarEnvio(suscriptor);
+        }
+    }
+
+    private void completar(Suscriptor suscriptor) {
+        if (suscriptor.completado.compareAndSet(false, true)) {
+            try {
+                suscriptor.emitter.complete();
+            } catch (RuntimeException e) {
+                logger.debug("No se pudo completar el emitter: {}", e.getMessage());
+            }
+        }
+        cerrando.remove(suscriptor);
+    }
+
+    // Package-private: los tests lo reemplazan para ver qué recibe cada suscriptor
+    void enviar(SseEmitter emitter, Evento evento) throws IOException {
+        if (evento == HEARTBEAT) {
+            emitter.send(SseEmitter.event().comment("hb"));
+        } else {
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(evento.id()))
+                    .name(evento.nombre())
+                    .data(evento.datos(), MediaType.APPLICATION_JSON));
+        }
+    }
+
+    private void quitar(Suscriptor suscriptor) {
+        suscriptor.cerrado = true;
+        suscriptores.remove(suscriptor);
+        suscriptor.cola.clear();
+    }
+
+    private static EventoProductoDTO convertir(Producto producto) {
+        EventoProductoDTO dto = new EventoProductoDTO(producto.getId());
+        dto.setNombre(producto.getNombre());
+        dto.setDescripcion(producto.getDescripcion());
+        dto.setPrecio(producto.getPrecio());
+        dto.setCategoria(producto.getCategoria());
+        return dto;
+    }
+
+    private static void incrementar(Counter contador) {
+        if (contador != null) {
+            contador.increment();
+        }
+    }
+
+    public int getSuscriptores() {
+        return suscriptores.size();
+    }
+}
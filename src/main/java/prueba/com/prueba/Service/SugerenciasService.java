@@ -0,0 +1,153 @@
+package prueba.com.prueba.Service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import prueba.com.prueba.DTO.SugerenciaDTO;
+import prueba.com.prueba.Repository.ProductoRepository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// AUTOCOMPLETADO POR PREFIJO (GET /api/productos/suggest)
+// Mantiene un IndiceSugerencias en memoria con el mismo esquema que CatalogoSnapshotService:
+// se carga al arrancar (solo id y nombre), cada escritura publica ProductoCambiadoEvent y aquí se
+// genera un índice nuevo que se publica con una escritura volatile. Los lectores nunca toman locks.
+// Popularidad: cada GET /api/productos/{id} suma una vista en un LongAdder por producto; una tarea
+// periódica pasa las vistas acumuladas (por el peso configurado) a los pesos del índice.
+@Service
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SugerenciasService implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SugerenciasService.class);
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Value("${app.sugerencias.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.sugerencias.limite-maximo:20}")
+    private int limiteMaximo = 20;
+
+    // Cuánto suma cada vista al ranking; 0 deja el orden alfabético
+    @Value("${app.sugerencias.peso-vista:1}")
+    private int pesoVista = 1;
+
+    private volatile IndiceSugerencias indice = IndiceSugerencias.VACIO;
+    private volatile boolean cargado = false;
+
+    private final ConcurrentHashMap<Long, LongAdder> vistas = new ConcurrentHashMap<>();
+
+    // Serializa a los escritores (los lectores nunca lo toman)
+    private final ReentrantLock escritura = new ReentrantLock();
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            recargar();
+        }
+    }
+
+    public boolean isDisponible() {
+        return enabled && cargado;
+    }
+
+    // Reconstrucción completa desde la BD; los pesos acumulados se pierden (vuelven a crecer con las vistas)
+    public void recargar() {
+        escritura.lock();
+        try {
+            long inicio = System.currentTimeMillis();
+            indice = IndiceSugerencias.desde(productoRepository.findColumnas(Set.of("nombre")));
+            cargado = true;
+            logger.info("Índice de sugerencias cargado: {} productos en {} ms",
+                    indice.size(), System.currentTimeMillis() - inicio);
+        } catch (Exception e) {
+            logger.error("No se pudo cargar el índice de sugerencias: {}", e.getMessage());
+        } finally {
+            escritura.unlock();
+        }
+    }
+
+    // Hasta "limite" productos cuyo nombre normalizado empieza con el prefijo, los más vistos primero
+    public List<SugerenciaDTO> sugerir(String prefijo, int limite) {
+        String normalizado = IndiceSugerencias.normalizar(prefijo);
+        int k = Math.min(limite, limiteMaximo);
+        if (!isDisponible() || normalizado.isEmpty() || k <= 0) {
+            return Collections.emptyList();
+        }
+        // Leo el volatile una sola vez: posiciones y datos salen del mismo índice
+        IndiceSugerencias actual = indice;
+        int[] posiciones = new int[k];
+        int n = actual.buscar(normalizado, k, posiciones);
+        List<SugerenciaDTO> resultado = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            resultado.add(new SugerenciaDTO(actual.getId(posiciones[i]), actual.getNombre(posiciones[i])));
+        }
+        return resultado;
+    }
+
+    public void registrarVista(Long id) {
+        if (isDisponible() && pesoVista > 0 && id != null) {
+            vistas.computeIfAbsent(id, k -> new LongAdder()).increment();
+        }
+    }
+
+    // Pasa las vistas acumuladas a los pesos del índice
+    @Scheduled(fixedDelayString = "${app.sugerencias.popularidad.intervalo-ms:10000}")
+    public void aplicarVistas() {
+        if (!isDisponible() || vistas.isEmpty()) {
+            return;
+        }
+        escritura.lock();
+        try {
+            Map<Long, Long> deltas = new HashMap<>();
+            vistas.forEach((id, contador) -> {
+                long cantidad = contador.sumThenReset();
+                if (cantidad > 0) {
+                    deltas.put(id, cantidad * pesoVista);
+                }
+            });
+            indice.sumarPesos(deltas);
+        } finally {
+            escritura.unlock();
+        }
+    }
+
+    // Actualización incremental después del commit (también los cambios que llegan de otras réplicas)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alCambiarProducto(ProductoCambiadoEvent evento) {
+        if (!isDisponible()) {
+            return;
+        }
+        escritura.lock();
+        try {
+            indice = switch (evento.getTipo()) {
+                case CREADO, ACTUALIZADO -> indice.conProducto(evento.getProducto());
+                case ELIMINADO -> indice.sinProducto(evento.getProductoId());
+            };
+            if (evento.getTipo() == ProductoCambiadoEvent.Tipo.ELIMINADO) {
+                vistas.remove(evento.getProductoId());
+            }
+        } finally {
+            escritura.unlock();
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package prueba.com.prueba.Service;
+
+// Imports de Spring para inyección de dependencias y arranque
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+// Import para logging
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Imports de mis clases del proyecto
+import prueba.com.prueba.Model.Producto;
+import prueba.com.prueba.Repository.ProductoRepository;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// SERVICIO DE CALENTAMIENTO (WARM-UP)
+// Justo después de un deploy el pool de conexiones, los serializadores de Jackson
+// y el JIT están fríos. Este ApplicationRunner se ejecuta ANTES de que Spring publique
+// ReadinessState.ACCEPTING_TRAFFIC, así que el grupo de salud "readiness" no reporta UP
+// hasta que el calentamiento termina (ver WarmupHealthIndicator)
+@Service
+public class WarmupService implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(WarmupService.class);
+
+    // Marca las llamadas HTTP del calentamiento (como X-Listado-Cache en ListadoCacheFilter): el
+    // controller no las cuenta como vistas de sugerencias. Solo se respeta desde loopback
+    public static final String HEADER_CALENTAMIENTO = "X-Warmup";
+
+    private static final Set<String> LOOPBACK = Set.of("127.0.0.1", "0:0:0:0:0:0:0:1", "::1");
+
+    // Estados posibles del calentamiento
+    public enum Estado { PENDIENTE, EN_CURSO, COMPLETADO, DESHABILITADO }
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${app.warmup.enabled:true}")
+    private boolean enabled;
+
+    // Cuántos productos se precargan (los primeros N por ID)
+    @Value("${app.warmup.top-n:20}")
+    private int topN;
+
+    // Cuántas vueltas de llamadas sintéticas se hacen para que el JIT compile las rutas calientes
+    @Value("${app.warmup.iteraciones:50}")
+    private int iteraciones;
+
+    // Tiempo máximo: el calentamiento nunca debe retrasar el readiness indefinidamente
+    @Value("${app.warmup.max-duracion-ms:30000}")
+    private long maxDuracionMs;
+
+    // Tope de llamadas a inventario entre todas las etapas (mitad para el service, mitad para HTTP):
+    // el calentamiento no debe cargar a un servicio cuya latencia de cola ya es el problema
+    @Value("${app.warmup.max-llamadas-inventario:200}")
+    private int maxLlamadasInventario = 200;
+
+    // Conexiones a abrir: el mínimo de conexiones ociosas del pool (por defecto Hikari usa 10)
+    @Value("${spring.datasource.hikari.minimum-idle:10}")
+    private int conexionesMinimas;
+
+    // Resultado visible desde el actuator (volatile: lo lee el hilo del health check)
+    private volatile Estado estado = Estado.PENDIENTE;
+    private volatile Map<String, Object> resultado = Map.of();
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            estado = Estado.DESHABILITADO;
+            logger.info("Calentamiento deshabilitado (app.warmup.enabled=false)");
+            return;
+        }
+        calentar();
+    }
+
+    // Ejecuta todas las etapas. Ningún error detiene el arranque: se registra y se sigue
+    public void calentar() {
+        estado = Estado.EN_CURSO;
+        long inicio = System.currentTimeMillis();
+        long limite = inicio + maxDuracionMs;
+        Map<String, Object> detalle = new LinkedHashMap<>();
+        List<String> errores = new ArrayList<>();
+        logger.info("=== INICIO calentamiento ===");
+
+        // 1. Abrir las conexiones mínimas del pool (Hikari las crea bajo demanda)
+        detalle.put("conexionesAbiertas", abrirConexiones(errores));
+
+        // 2. Obtener la lista top-N de productos
+        List<Long> ids = new ArrayList<>();
+        try {
+            for (Producto producto : productoRepository.findAll(PageRequest.of(0, topN, Sort.by("id")))) {
+                ids.add(producto.getId());
+            }
+        } catch (Exception e) {
+            errores.add("topN: " + e.getMessage());
+        }
+        detalle.put("productosPrecargados", ids.size());
+
+        // 3. Llamadas sintéticas a ProductoService (JPA + cliente de inventario + mapeo a DTO)
+        // Cada llamada consulta el inventario una vez
+        int presupuestoServicio = maxLlamadasInventario / 2;
+        int llamadasServicio = 0;
+        try {
+            int total = llamadasPorEtapa(ids, presupuestoServicio);
+            while (llamadasServicio < total && System.currentTimeMillis() < limite) {
+                productoService.obtenerProductoConStock(ids.get(llamadasServicio % ids.size()));
+                llamadasServicio++;
+            }
+        } catch (Exception e) {
+            errores.add("servicio: " + e.getMessage());
+        }
+        detalle.put("llamadasServicio", llamadasServicio);
+
+        // 4. Peticiones HTTP reales contra el propio servidor para calentar
+        // filtros, controller, enlaces HATEOAS y la serialización HAL de Jackson
+        detalle.put("llamadasHttp", llamarEndpoints(ids, maxLlamadasInventario - presupuestoServicio, limite, errores));
+
+        long duracion = System.currentTimeMillis() - inicio;
+        detalle.put("duracionMs", duracion);
+        detalle.put("errores", errores);
+        resultado = detalle;
+        estado = Estado.COMPLETADO;
+        logger.info("=== FIN calentamiento en {} ms: {} ===", duracion, detalle);
+    }
+
+    private int abrirConexiones(List<String> errores) {
+        int objetivo = conexionesMinimas;
+        List<Connection> conexiones = new ArrayList<>();
+        try {
+            // Mantengo todas abiertas a la vez para que el pool tenga que crear cada una
+            for (int i = 0; i < objetivo; i++) {
+                conexiones.add(dataSource.getConnection());
+            }
+        } catch (Exception e) {
+            errores.add("pool: " + e.getMessage());
+        } finally {
+            for (Connection conexion : conexiones) {
+                try {
+                    conexion.close();  // close() devuelve la conexión al pool
+                } catch (Exception e) {
+                    logger.debug("Error devolviendo conexión al pool: {}", e.getMessage());
+                }
+            }
+        }
+        return conexiones.size();
+    }
+
+    // Llamadas de una etapa: iteraciones vueltas sobre los ids, recortadas al presupuesto de inventario
+    private int llamadasPorEtapa(List<Long> ids, int presupuesto) {
+        return (int) Math.min((long) iteraciones * ids.size(), Math.max(0, presupuesto));
+    }
+
+    private int llamarEndpoints(List<Long> ids, int presupuesto, long limite, List<String> errores) {
+        // Sin servidor embebido (por ejemplo en tests con MockMvc) no hay nada que llamar
+        String puerto = environment.getProperty("local.server.port");
+        if (puerto == null) {
+            return 0;
+        }
+        String base = "http://localhost:" + puerto + "/api/productos";
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaTypes.HAL_JSON));
+        headers.set(HEADER_CALENTAMIENTO, "true");
+        HttpEntity<Void> peticion = new HttpEntity<>(headers);
+
+        int llamadas = 0;
+        try {
+            // El listado se pide sin stock: con stock consultaría el inventario por todo el catálogo
+            restTemplate.exchange(base + "?fields=id,nombre,descripcion,precio,categoria,_links",
+                    HttpMethod.GET, peticion, String.class);
+            llamadas++;
+            int total = llamadasPorEtapa(ids, presupuesto);
+            for (int n = 0; n < total && System.currentTimeMillis() < limite; n++) {
+                restTemplate.exchange(base + "/" + ids.get(n % ids.size()), HttpMethod.GET, peticion, String.class);
+                llamadas++;
+            }
+        } catch (Exception e) {
+            errores.add("http: " + e.getMessage());
+        }
+        return llamadas;
+    }
+
+    // true si la petición la hizo el calentamiento de esta misma instancia
+    public static boolean esCalentamiento(HttpServletRequest request) {
+        return "true".equals(request.getHeader(HEADER_CALENTAMIENTO)) && LOOPBACK.contains(request.getRemoteAddr());
+    }
+
+    public Estado getEstado() {
+        return estado;
+    }
+
+    public Map<String, Object> getResultado() {
+        return resultado;
+    }
+}
@@ -0,0 +1,106 @@
+package prueba.com.prueba.Benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.mediatype.MessageResolver;
+import org.springframework.hateoas.mediatype.hal.CurieProvider;
+import org.springframework.hateoas.mediatype.hal.Jackson2HalModule;
+import org.springframework.hateoas.server.core.DefaultLinkRelationProvider;
+
+import prueba.com.prueba.Config.FormatosBinariosConfig;
+import prueba.com.prueba.DTO.ProductoConStockDTO;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// BENCHMARK DE FORMATOS DE RESPUESTA para GET /api/productos
+// Mide la CPU de serializar el listado HAL en JSON, JSON+gzip, CBOR y Smile.
+// El tamaño de cada payload se imprime al inicio de cada fork.
+// Ejecutar con: mvn test-compile exec:exec -Pbenchmark -Djmh.args="FormatosRespuesta -f 1"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class FormatosRespuestaBenchmark {
+
+    @Param({"100", "1000"})
+    private int productos;
+
+    private CollectionModel<ProductoConStockDTO> listado;
+    private ObjectMapper json;
+    private ObjectMapper cbor;
+    private ObjectMapper smile;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper base = new ObjectMapper();
+        json = mapperHal(base, new JsonFactory());
+        cbor = mapperHal(base, new CBORFactory());
+        smile = mapperHal(base, new SmileFactory());
+        listado = crearListado(productos);
+
+        System.out.printf("%n[%d productos] JSON=%d bytes, JSON+gzip=%d bytes, CBOR=%d bytes, Smile=%d bytes%n",
+                productos, json().length, jsonGzip().length, cbor().length, smile().length);
+    }
+
+    @Benchmark
+    public byte[] json() throws IOException {
+        return json.writeValueAsBytes(listado);
+    }
+
+    @Benchmark
+    public byte[] jsonGzip() throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida)) {
+            json.writeValue(gzip, listado);
+        }
+        return salida.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] cbor() throws IOException {
+        return cbor.writeValueAsBytes(listado);
+    }
+
+    @Benchmark
+    public byte[] smile() throws IOException {
+        return smile.writeValueAsBytes(listado);
+    }
+
+    private static ObjectMapper mapperHal(ObjectMapper base, JsonFactory factory) {
+        return FormatosBinariosConfig.halMapper(base, factory, new Jackson2HalModule.HalHandlerInstantiator(
+                new DefaultLinkRelationProvider(), CurieProvider.NONE, MessageResolver.DEFAULTS_ONLY));
+    }
+
+    // Mismo contenido y enlaces que arma ProductoController.listarProductos()
+    static CollectionModel<ProductoConStockDTO> crearListado(int cantidad) {
+        String base = "http://localhost:8089/api/productos";
+        List<ProductoConStockDTO> lista = new ArrayList<>();
+        for (long id = 1; id <= cantidad; id++) {
+            ProductoConStockDTO dto = new ProductoConStockDTO();
+            dto.setId(id);
+            dto.setNombre("Producto " + id);
+            dto.setDescripcion("Descripción del producto número " + id);
+            dto.setPrecio(100.0 + id);
+            dto.setCategoria(id % 2 == 0 ? "Electrónicos" : "Hogar");
+            dto.setStock((int) (id % 50));
+            dto.add(Link.of(base + "/" + id).withSelfRel());
+            dto.add(Link.of(base + "/" + id).withRel("update"));
+            dto.add(Link.of(base + "/" + id).withRel("delete"));
+            lista.add(dto);
+        }
+        return CollectionModel.of(lista)
+                .add(Link.of(base).withSelfRel())
+                .add(Link.of(base).withRel("create"));
+    }
+}
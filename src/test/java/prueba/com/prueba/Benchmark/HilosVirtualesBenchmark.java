@@ -0,0 +1,114 @@
+package prueba.com.prueba.Benchmark;
+
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.*;
+
+// BENCHMARK DE HILOS VIRTUALES vs POOL DE HILOS DE PLATAFORMA con un inventario lento
+// Cada operación atiende "peticiones" peticiones concurrentes que hacen una llamada bloqueante
+// (RestTemplate + HttpURLConnection, como RestTemplateConfig) a un inventario local que tarda latencia-ms.
+// "plataforma" reproduce el pool por defecto de Tomcat (200 hilos); "virtual" un hilo virtual por petición.
+// Al final de cada fork se imprime el pico de hilos de plataforma (incluye los del inventario simulado) y el heap usado.
+// Requiere Java 21 para el modo virtual. Ejecutar con:
+//   mvn test-compile exec:exec -Pbenchmark -Djmh.args="HilosVirtuales -f 1 -prof gc"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class HilosVirtualesBenchmark {
+
+    private static final int HILOS_TOMCAT = 200;
+
+    @Param({"plataforma", "virtual"})
+    private String modo;
+
+    @Param({"200", "1000"})
+    private int peticiones;
+
+    @Param({"50"})
+    private int latenciaMs;
+
+    private HttpServer inventario;
+    private ExecutorService servidorExecutor;
+    private RestTemplate restTemplate;
+    private Executor executor;
+    private ThreadPoolExecutor pool;
+    private String url;
+
+    @Setup
+    public void setUp() throws IOException {
+        // Inventario lento: responde después de latenciaMs con un JSON fijo
+        servidorExecutor = Executors.newCachedThreadPool();
+        inventario = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 4096);
+        byte[] respuesta = "{\"idProducto\":1,\"stockActual\":5}".getBytes(StandardCharsets.UTF_8);
+        inventario.createContext("/inventario", exchange -> {
+            try {
+                Thread.sleep(latenciaMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, respuesta.length);
+            exchange.getResponseBody().write(respuesta);
+            exchange.close();
+        });
+        inventario.setExecutor(servidorExecutor);
+        inventario.start();
+        url = "http://127.0.0.1:" + inventario.getAddress().getPort() + "/inventario/1";
+
+        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+        factory.setConnectTimeout(3000);
+        factory.setReadTimeout(3000);
+        restTemplate = new RestTemplate(factory);
+
+        if ("virtual".equals(modo)) {
+            executor = new VirtualThreadTaskExecutor("peticion-");
+        } else {
+            pool = new ThreadPoolExecutor(HILOS_TOMCAT, HILOS_TOMCAT, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+            pool.prestartAllCoreThreads();
+            executor = pool;
+        }
+        ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+    }
+
+    @TearDown
+    public void tearDown() {
+        ThreadMXBean hilos = ManagementFactory.getThreadMXBean();
+        MemoryMXBean memoria = ManagementFactory.getMemoryMXBean();
+        System.out.printf("%n[%s, %d peticiones] pico de hilos de plataforma=%d, heap usado=%d MB%n",
+                modo, peticiones, hilos.getPeakThreadCount(), memoria.getHeapMemoryUsage().getUsed() / (1024 * 1024));
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+        inventario.stop(0);
+        servidorExecutor.shutdownNow();
+    }
+
+    // Una operación = una ráfaga de "peticiones" peticiones concurrentes atendidas por completo
+    @Benchmark
+    public int rafaga() throws InterruptedException {
+        CountDownLatch terminadas = new CountDownLatch(peticiones);
+        for (int i = 0; i < peticiones; i++) {
+            executor.execute(() -> {
+                try {
+                    restTemplate.getForObject(url, String.class);
+                } finally {
+                    terminadas.countDown();
+                }
+            });
+        }
+        terminadas.await();
+        return peticiones;
+    }
+}
@@ -0,0 +1,64 @@
+package prueba.com.prueba.Benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.mediatype.MessageResolver;
+import org.springframework.hateoas.mediatype.hal.CurieProvider;
+import org.springframework.hateoas.mediatype.hal.Jackson2HalModule;
+import org.springframework.hateoas.server.core.DefaultLinkRelationProvider;
+
+import prueba.com.prueba.Config.FormatosBinariosConfig;
+import prueba.com.prueba.Config.SerializadoresProductoModule;
+import prueba.com.prueba.DTO.ProductoConStockDTO;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+// BENCHMARK DE SERIALIZACIÓN HAL: serializador por reflexión de Jackson vs SerializadoresProductoModule
+// Se escribe a un OutputStream descartable (como el conversor de Spring al stream de la respuesta)
+// para medir solo la serialización y no la copia a un byte[].
+// Ejecutar con: mvn test-compile exec:exec -Pbenchmark -Djmh.args="SerializacionProductos -f 1 -prof gc"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SerializacionProductosBenchmark {
+
+    @Param({"100", "1000"})
+    private int productos;
+
+    private CollectionModel<ProductoConStockDTO> listado;
+    private ObjectMapper reflexion;
+    private ObjectMapper manual;
+
+    @Setup
+    public void setUp() throws IOException {
+        reflexion = mapperHal(new ObjectMapper());
+        manual = mapperHal(new ObjectMapper().registerModule(new SerializadoresProductoModule()));
+        listado = FormatosRespuestaBenchmark.crearListado(productos);
+
+        if (!Arrays.equals(reflexion.writeValueAsBytes(listado), manual.writeValueAsBytes(listado))) {
+            throw new IllegalStateException("Los serializadores manuales no producen la misma salida HAL");
+        }
+    }
+
+    @Benchmark
+    public void reflexion() throws IOException {
+        reflexion.writeValue(OutputStream.nullOutputStream(), listado);
+    }
+
+    @Benchmark
+    public void manual() throws IOException {
+        manual.writeValue(OutputStream.nullOutputStream(), listado);
+    }
+
+    private static ObjectMapper mapperHal(ObjectMapper base) {
+        return FormatosBinariosConfig.halMapper(base, new JsonFactory(), new Jackson2HalModule.HalHandlerInstantiator(
+                new DefaultLinkRelationProvider(), CurieProvider.NONE, MessageResolver.DEFAULTS_ONLY));
+    }
+}
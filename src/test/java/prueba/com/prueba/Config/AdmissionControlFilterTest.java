@@ -0,0 +1,134 @@
+package prueba.com.prueba.Config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// PRUEBAS UNITARIAS DEL CONTROL DE ADMISIÓN
+// No levantan Spring: uso requests/responses simulados y anido llamadas al filtro
+// dentro de la cadena para reproducir peticiones concurrentes de forma determinista
+public class AdmissionControlFilterTest {
+
+    private AdmissionControlFilter filtro;
+
+    @BeforeEach
+    void setUp() {
+        filtro = new AdmissionControlFilter();
+        // Máximo global 2: el listado (cuota 0.6) solo puede tener 1 en vuelo
+        ReflectionTestUtils.setField(filtro, "maxGlobal", 2);
+        filtro.init();
+    }
+
+    // TEST 1: Con el cupo del listado ocupado, un segundo listado recibe 503 + Retry-After
+    // pero una consulta puntual (mayor prioridad) todavía entra
+    @Test
+    void testRechazaListadoPeroAdmiteConsulta() throws Exception {
+        MockHttpServletResponse listadoAnidado = new MockHttpServletResponse();
+        MockHttpServletResponse consultaAnidada = new MockHttpServletResponse();
+
+        // Mientras el primer listado está "en vuelo" llegan otro listado y una consulta
+        filtro.doFilter(get("/api/productos"), new MockHttpServletResponse(), (req, res) -> {
+            filtro.doFilter(get("/api/productos"), listadoAnidado, (r2, s2) -> { });
+            filtro.doFilter(get("/api/productos/1"), consultaAnidada, (r2, s2) -> { });
+        });
+
+        assertEquals(503, listadoAnidado.getStatus());
+        assertEquals("1", listadoAnidado.getHeader("Retry-After"));
+        assertEquals(200, consultaAnidada.getStatus());
+    }
+
+    // TEST 2: Fuera de /api/** y /graphql (actuator, Swagger) nunca se rechaza
+    @Test
+    void testNoControlaRutasFueraDeLaApi() {
+        assertNull(filtro.clasificar(get("/actuator/health")));
+        assertEquals(AdmissionControlFilter.ClaseEndpoint.LISTADO, filtro.clasificar(get("/api/productos")));
+        assertEquals(AdmissionControlFilter.ClaseEndpoint.CONSULTA, filtro.clasificar(get("/api/productos/5")));
+        // ?ids= trae muchos productos como POST /por-ids: no compite con las consultas puntuales
+        MockHttpServletRequest porIds = get("/api/productos");
+        porIds.setParameter("ids", "1,2,3");
+        assertEquals(AdmissionControlFilter.ClaseEndpoint.LISTADO, filtro.clasificar(porIds));
+        assertEquals(AdmissionControlFilter.ClaseEndpoint.ESCRITURA,
+                filtro.clasificar(new MockHttpServletRequest("PUT", "/api/productos/5")));
+        // GraphQL es de solo lectura pero puede traer cientos de productos con stock
+        assertEquals(AdmissionControlFilter.ClaseEndpoint.LISTADO,
+                filtro.clasificar(new MockHttpServletRequest("POST", "/graphql")));
+        assertNull(filtro.clasificar(get("/graphiql")));
+    }
+
+    // TEST 3: AIMD - las respuestas lentas reducen el límite y las rápidas lo recuperan de a poco
+    @Test
+    void testLimiteAdaptativoAimd() {
+        LimiteAdaptativo limite = new LimiteAdaptativo(10, 1, 20, 0, 0.5);
+
+        // Una respuesta lenta (latencia objetivo 0 ms) reduce el límite a la mitad
+        assertTrue(limite.intentarAdquirir());
+        limite.liberar(1_000_000, true);
+        assertEquals(5, limite.getLimite());
+
+        // Respuestas rápidas con el límite en uso lo hacen crecer de a 1/límite
+        LimiteAdaptativo rapido = new LimiteAdaptativo(2, 1, 20, 1000, 0.5);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(rapido.intentarAdquirir());
+            assertTrue(rapido.intentarAdquirir());
+            rapido.liberar(0, true);
+            rapido.liberar(0, true);
+        }
+        assertTrue(rapido.getLimite() > 2);
+        assertEquals(0, rapido.getEnVuelo());
+    }
+
+    // TEST 4: Los 504 por el deadline del cliente (vencido al llegar o durante el proceso) liberan el
+    // lugar sin reducir el límite; un 504 de otro origen sí lo reduce
+    @Test
+    void testDeadlineDelClienteNoReduceElLimite() throws Exception {
+        ReflectionTestUtils.setField(filtro, "maxGlobal", 20);
+        filtro.init();
+        DeadlineFilter deadlineFilter = new DeadlineFilter();
+        deadlineFilter.init();
+        int inicial = limiteConsulta();
+
+        for (int i = 0; i < 3; i++) {
+            // Vencido al llegar
+            MockHttpServletRequest vencida = get("/api/productos/1");
+            vencida.addHeader(Deadline.HEADER_TIMEOUT, "0");
+            MockHttpServletResponse respuesta = new MockHttpServletResponse();
+            filtro.doFilter(vencida, respuesta, (req, res) -> deadlineFilter.doFilter(req, res, (r2, s2) -> fail()));
+            assertEquals(504, respuesta.getStatus());
+
+            // Vencido durante el proceso (DeadlineExcedidoException → 504)
+            MockHttpServletRequest lenta = get("/api/productos/1");
+            lenta.addHeader(Deadline.HEADER_TIMEOUT, "1");
+            filtro.doFilter(lenta, new MockHttpServletResponse(), (req, res) -> deadlineFilter.doFilter(req, res, (r2, s2) -> {
+                LockSupport.parkNanos(5_000_000);
+                ((MockHttpServletResponse) s2).setStatus(504);
+            }));
+        }
+        assertEquals(inicial, limiteConsulta());
+        assertEquals(0, ((LimiteAdaptativo) limites().get(AdmissionControlFilter.ClaseEndpoint.CONSULTA)).getEnVuelo());
+
+        // Un 504 sin deadline del cliente (timeout propio del inventario) es un fallo
+        filtro.doFilter(get("/api/productos/1"), new MockHttpServletResponse(),
+                (req, res) -> ((MockHttpServletResponse) res).setStatus(504));
+        assertTrue(limiteConsulta() < inicial);
+    }
+
+    private int limiteConsulta() {
+        return ((LimiteAdaptativo) limites().get(AdmissionControlFilter.ClaseEndpoint.CONSULTA)).getLimite();
+    }
+
+    private Map<?, ?> limites() {
+        return (Map<?, ?>) ReflectionTestUtils.getField(filtro, "limites");
+    }
+
+    private static MockHttpServletRequest get(String ruta) {
+        return new MockHttpServletRequest("GET", ruta);
+    }
+}
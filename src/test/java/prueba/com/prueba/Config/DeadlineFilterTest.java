@@ -0,0 +1,81 @@
+package prueba.com.prueba.Config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.*;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+// PRUEBAS UNITARIAS DE LA PROPAGACIÓN DE DEADLINES
+// Sin Spring: el filtro con requests simulados y el interceptor con MockRestServiceServer
+public class DeadlineFilterTest {
+
+    private DeadlineFilter filtro;
+
+    @BeforeEach
+    void setUp() {
+        filtro = new DeadlineFilter();
+        filtro.init();
+    }
+
+    // TEST 1: Una petición que llega con el deadline vencido se responde 504 sin procesarla
+    @Test
+    void testDeadlineVencidoAlLlegarResponde504() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/productos");
+        request.addHeader(Deadline.HEADER_DEADLINE, String.valueOf(System.currentTimeMillis() - 10));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filtro.doFilter(request, response, (req, res) -> fail("No debería procesarse"));
+
+        assertEquals(504, response.getStatus());
+    }
+
+    // TEST 2: El timeout relativo queda como Deadline de la petición y se limpia al terminar
+    @Test
+    void testDeadlineDisponibleDuranteLaPeticion() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/productos/1");
+        request.addHeader(Deadline.HEADER_TIMEOUT, "1500");
+        AtomicReference<Deadline> visto = new AtomicReference<>();
+
+        filtro.doFilter(request, new MockHttpServletResponse(), (req, res) -> visto.set(Deadline.actual()));
+
+        assertNotNull(visto.get());
+        assertTrue(visto.get().restanteMs() <= 1500);
+        assertNull(Deadline.actual());
+        // Sin headers (y sin deadline por defecto) no hay deadline
+        assertNull(filtro.leerRestanteMs(new MockHttpServletRequest("GET", "/api/productos")));
+    }
+
+    // TEST 3: El interceptor reenvía el deadline restante al servicio de inventario
+    @Test
+    void testInterceptorReenviaDeadline() {
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.getInterceptors().add(new DeadlineInterceptor());
+        MockRestServiceServer servidor = MockRestServiceServer.bindTo(restTemplate).build();
+        servidor.expect(requestTo("http://inventario/inventario/1"))
+                .andExpect(method(HttpMethod.GET))
+                .andExpect(header(Deadline.HEADER_TIMEOUT, matchesPattern("\\d+")))
+                .andExpect(header(Deadline.HEADER_DEADLINE, matchesPattern("\\d+")))
+                .andRespond(withSuccess());
+
+        Deadline deadline = Deadline.dentroDe(2000);
+        Deadline.establecer(deadline);
+        try {
+            restTemplate.getForObject("http://inventario/inventario/1", String.class);
+        } finally {
+            Deadline.limpiar();
+        }
+        servidor.verify();
+        assertTrue(deadline.recortar(3000) <= 2000);
+    }
+}
@@ -0,0 +1,148 @@
+package prueba.com.prueba.Config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import prueba.com.prueba.Service.ProductoCambiadoEvent;
+
+import jakarta.servlet.FilterChain;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// PRUEBAS UNITARIAS DE LA CACHE DEL LISTADO SERIALIZADO
+// Sin Spring: el "controller" es un FilterChain que cuenta cuántas veces se ejecuta
+public class ListadoCacheFilterTest {
+
+    private ListadoCacheFilter filtro;
+    private final AtomicInteger generaciones = new AtomicInteger();
+
+    // Respuesta de más de 2 KB para que también se guarde la versión gzip
+    private final FilterChain controller = (req, res) -> {
+        int n = generaciones.incrementAndGet();
+        res.setContentType("application/hal+json");
+        res.getOutputStream().write(("{\"generacion\":" + n + ",\"relleno\":\"" + "x".repeat(3000) + "\"}")
+                .getBytes(StandardCharsets.UTF_8));
+    };
+
+    @BeforeEach
+    void setUp() {
+        filtro = new ListadoCacheFilter();
+        ReflectionTestUtils.setField(filtro, "enabled", true);
+        filtro.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        filtro.cerrar();
+    }
+
+    private MockHttpServletResponse get(String accept, String query) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/productos");
+        if (accept != null) {
+            request.addHeader("Accept", accept);
+        }
+        if (query != null) {
+            request.setQueryString(query);
+            for (String par : query.split("&")) {
+                String[] kv = par.split("=", 2);
+                request.addParameter(kv[0], kv.length > 1 ? kv[1] : "");
+            }
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filtro.doFilter(request, response, controller);
+        return response;
+    }
+
+    // TEST 1: La segunda petición sale de la cache con los mismos bytes (y en gzip si el cliente lo acepta)
+    @Test
+    void testAciertoDevuelveLosMismosBytes() throws Exception {
+        MockHttpServletResponse primera = get(null, null);
+        assertEquals("MISS", primera.getHeader(ListadoCacheFilter.HEADER_CACHE));
+
+        MockHttpServletResponse segunda = get(null, null);
+        assertEquals("HIT", segunda.getHeader(ListadoCacheFilter.HEADER_CACHE));
+        assertArrayEquals(primera.getContentAsByteArray(), segunda.getContentAsByteArray());
+        assertEquals("application/hal+json", segunda.getContentType());
+        assertEquals(1, generaciones.get());
+
+        MockHttpServletRequest conGzip = new MockHttpServletRequest("GET", "/api/productos");
+        conGzip.addHeader("Accept-Encoding", "gzip, deflate");
+        MockHttpServletResponse comprimida = new MockHttpServletResponse();
+        filtro.doFilter(conGzip, comprimida, controller);
+        assertEquals("gzip", comprimida.getHeader("Content-Encoding"));
+        byte[] descomprimida = new GZIPInputStream(new ByteArrayInputStream(comprimida.getContentAsByteArray())).readAllBytes();
+        assertArrayEquals(primera.getContentAsByteArray(), descomprimida);
+        assertEquals(1, generaciones.get());
+    }
+
+    // TEST 2: Cada Accept y cada ?fields= es una variante; ?ids= no se cachea; una escritura invalida todo
+    @Test
+    void testVariantesEInvalidacion() throws Exception {
+        get(null, null);
+        get("application/cbor", null);
+        get(null, "fields=id,nombre");
+        assertEquals(3, generaciones.get());
+        get("application/cbor", null);
+        get(null, "fields=id,nombre");
+        assertEquals(3, generaciones.get());
+
+        get(null, "ids=1,2");
+        get(null, "ids=1,2");
+        assertEquals(5, generaciones.get());
+
+        filtro.alCambiarProducto(ProductoCambiadoEvent.eliminado(1L));
+        assertEquals("MISS", get(null, null).getHeader(ListadoCacheFilter.HEADER_CACHE));
+        assertEquals(6, generaciones.get());
+    }
+
+    // TEST 3: Con varias peticiones simultáneas sin cache el listado se genera una sola vez
+    @Test
+    void testSingleFlight() throws Exception {
+        CountDownLatch dentro = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        FilterChain lento = (req, res) -> {
+            dentro.countDown();
+            try {
+                liberar.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            controller.doFilter(req, res);
+        };
+        ExecutorService hilos = Executors.newFixedThreadPool(4);
+        try {
+            Future<MockHttpServletResponse> primera = hilos.submit(() -> {
+                MockHttpServletResponse response = new MockHttpServletResponse();
+                filtro.doFilter(new MockHttpServletRequest("GET", "/api/productos"), response, lento);
+                return response;
+            });
+            assertTrue(dentro.await(5, TimeUnit.SECONDS));
+            Future<MockHttpServletResponse> segunda = hilos.submit(() -> get(null, null));
+            Future<MockHttpServletResponse> tercera = hilos.submit(() -> get(null, null));
+            Thread.sleep(100);
+            liberar.countDown();
+
+            byte[] esperado = primera.get(5, TimeUnit.SECONDS).getContentAsByteArray();
+            assertArrayEquals(esperado, segunda.get(5, TimeUnit.SECONDS).getContentAsByteArray());
+            assertArrayEquals(esperado, tercera.get(5, TimeUnit.SECONDS).getContentAsByteArray());
+            assertEquals(1, generaciones.get());
+        } finally {
+            hilos.shutdownNow();
+        }
+    }
+}
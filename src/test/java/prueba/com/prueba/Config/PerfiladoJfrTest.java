@@ -0,0 +1,141 @@
+package prueba.com.prueba.Config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import prueba.com.prueba.Service.ProductoService;
+import prueba.com.prueba.Service.StockConocidoService;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// PRUEBAS DEL PERFILADO JFR BAJO DEMANDA
+// Graban de verdad con la JVM de los tests (el muestreo de CPU necesita unos segundos de trabajo)
+public class PerfiladoJfrTest {
+
+    @TempDir
+    Path directorio;
+
+    private PerfiladoJfr perfilado;
+
+    @BeforeEach
+    void setUp() {
+        perfilado = new PerfiladoJfr();
+        ReflectionTestUtils.setField(perfilado, "enabled", true);
+        ReflectionTestUtils.setField(perfilado, "directorio", directorio.toString());
+        ReflectionTestUtils.setField(perfilado, "periodoMuestreoMs", 10L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        perfilado.cerrar();
+    }
+
+    // TEST 1: La grabación resume CPU y las operaciones de ProductoService (vía el advisor de JfrConfig),
+    // no admite una segunda en paralelo y al detenerla deja el .jfr para descargar
+    @Test
+    void testGrabacionResumeYDejaArchivo() throws Exception {
+        ProductoService target = new ProductoService();
+        ReflectionTestUtils.setField(target, "stockConocido", new StockConocidoService());
+        ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvisor(new JfrConfig().operacionesProductoJfrAdvisor());
+        ProductoService productoService = (ProductoService) proxyFactory.getProxy();
+
+        PerfiladoJfr.Estado iniciada = perfilado.iniciar(30);
+        assertEquals("GRABANDO", iniciada.estado());
+        assertNull(perfilado.iniciar(30));
+
+        PerfiladoJfr.Resumen resumen = null;
+        long limite = System.nanoTime() + 15_000_000_000L;
+        while (System.nanoTime() < limite) {
+            assertEquals(0, productoService.obtenerStockSeguro(1L));  // inventario deshabilitado: último conocido (0)
+            trabajar();
+            resumen = perfilado.estado().resumen();
+            if (resumen.muestrasCpu() > 0 && !resumen.operacionesProducto().isEmpty()) {
+                break;
+            }
+        }
+        assertTrue(resumen.muestrasCpu() > 0);
+        assertFalse(resumen.metodosCpu().isEmpty());
+        assertTrue(resumen.operacionesProducto().stream().anyMatch(o -> o.nombre().equals("obtenerStockSeguro")));
+
+        assertTrue(perfilado.detener());
+        PerfiladoJfr.Estado terminada = perfilado.estado();
+        assertEquals("TERMINADA", terminada.estado());
+        Path archivo = perfilado.archivo(terminada.id());
+        assertNotNull(archivo);
+        assertTrue(Files.size(archivo) > 0);
+        assertNull(perfilado.archivo(terminada.id() + 1));
+    }
+
+    // TEST 2: /actuator/jfr exige el token; sin token configurado queda cerrado, deshabilitado responde 404
+    // y el resto de rutas no se toca
+    @Test
+    void testAccesoConToken() throws Exception {
+        JfrAccesoFilter filtro = new JfrAccesoFilter();
+        assertEquals(404, filtrar(filtro, "/actuator/jfr", null).getStatus());
+        ReflectionTestUtils.setField(filtro, "enabled", true);
+
+        assertEquals(403, filtrar(filtro, "/actuator/jfr", null).getStatus());
+
+        ReflectionTestUtils.setField(filtro, "token", "secreto");
+        assertEquals(401, filtrar(filtro, "/actuator/jfr/1", null).getStatus());
+        assertEquals(401, filtrar(filtro, "/actuator/jfr", "otro").getStatus());
+
+        MockFilterChain cadena = new MockFilterChain();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/actuator/jfr");
+        request.addHeader(JfrAccesoFilter.HEADER, "secreto");
+        filtro.doFilter(request, new MockHttpServletResponse(), cadena);
+        assertNotNull(cadena.getRequest());
+
+        MockFilterChain otra = new MockFilterChain();
+        filtro.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), new MockHttpServletResponse(), otra);
+        assertNotNull(otra.getRequest());
+    }
+
+    // TEST 3: Deshabilitado (app.jfr.enabled=false) no graba aunque el bean exista
+    @Test
+    void testDeshabilitadoNoGraba() {
+        PerfiladoJfr deshabilitado = new PerfiladoJfr();
+        assertFalse(deshabilitado.isHabilitado());
+        assertThrows(IllegalStateException.class, () -> deshabilitado.iniciar(1));
+        assertNull(deshabilitado.estado());
+    }
+
+    private MockHttpServletResponse filtrar(JfrAccesoFilter filtro, String ruta, String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", ruta);
+        if (token != null) {
+            request.addHeader(JfrAccesoFilter.HEADER, token);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain cadena = new MockFilterChain();
+        filtro.doFilter(request, response, cadena);
+        assertNull(cadena.getRequest());
+        return response;
+    }
+
+    // Trabajo de CPU con asignaciones para que haya muestras
+    private static void trabajar() {
+        long fin = System.nanoTime() + 200_000_000L;
+        List<String> basura = new ArrayList<>();
+        while (System.nanoTime() < fin) {
+            basura.add(Long.toHexString(System.nanoTime()));
+            if (basura.size() > 10_000) {
+                basura.clear();
+            }
+        }
+    }
+}
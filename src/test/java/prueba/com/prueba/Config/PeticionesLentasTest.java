@@ -0,0 +1,77 @@
+package prueba.com.prueba.Config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// PRUEBAS UNITARIAS DEL DESGLOSE DE TIEMPOS Y LAS PETICIONES LENTAS
+// El filtro corre con una cadena simulada que abre fases y duerme para fijar la duración
+public class PeticionesLentasTest {
+
+    private PeticionesLentas peticionesLentas;
+    private TiemposPeticionFilter filtro;
+
+    @BeforeEach
+    void setUp() {
+        peticionesLentas = new PeticionesLentas();
+        ReflectionTestUtils.setField(peticionesLentas, "capacidad", 2);
+        filtro = new TiemposPeticionFilter();
+        ReflectionTestUtils.setField(filtro, "destino", peticionesLentas);
+    }
+
+    // TEST 1: Solo quedan las N más lentas, ordenadas, con el tiempo de cada fase
+    @Test
+    void testGuardaLasMasLentasConSusFases() throws Exception {
+        peticion("/api/productos/1", 5);
+        peticion("/api/productos", 60);
+        peticion("/api/productos/2", 30);
+        peticion("/api/productos/3", 1);
+
+        List<PeticionesLentas.PeticionLenta> lentas = peticionesLentas.getLentas();
+        assertEquals(2, lentas.size());
+        assertEquals("/api/productos", lentas.get(0).ruta());
+        assertEquals("/api/productos/2", lentas.get(1).ruta());
+
+        PeticionesLentas.PeticionLenta masLenta = lentas.get(0);
+        assertEquals(200, masLenta.estado());
+        assertEquals(2, masLenta.fases().get("inventario").veces());
+        assertTrue(masLenta.fases().get("inventario").ms() >= 60);
+        assertTrue(masLenta.fases().containsKey("db"));
+        assertTrue(masLenta.fases().containsKey("otros"));
+        assertNull(TiemposPeticion.actual());
+    }
+
+    // TEST 2: Fuera de una petición las fases no miden nada, y fuera de /api/** no se registra
+    @Test
+    void testSinPeticionNoMide() throws Exception {
+        try (TiemposPeticion.Fase fase = TiemposPeticion.fase("db")) {
+            assertNull(TiemposPeticion.actual());
+        }
+        filtro.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), new MockHttpServletResponse(),
+                (req, res) -> assertNull(TiemposPeticion.actual()));
+        assertTrue(peticionesLentas.getLentas().isEmpty());
+    }
+
+    // Petición simulada: una fase "db" y dos llamadas a inventario de la mitad de la duración cada una
+    private void peticion(String ruta, long inventarioMs) throws Exception {
+        filtro.doFilter(new MockHttpServletRequest("GET", ruta), new MockHttpServletResponse(), (req, res) -> {
+            try (TiemposPeticion.Fase fase = TiemposPeticion.fase("db")) {
+                assertNotNull(TiemposPeticion.actual());
+            }
+            for (int i = 0; i < 2; i++) {
+                try (TiemposPeticion.Fase fase = TiemposPeticion.fase("inventario")) {
+                    Thread.sleep(inventarioMs / 2);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,85 @@
+package prueba.com.prueba.Config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.mediatype.MessageResolver;
+import org.springframework.hateoas.mediatype.hal.CurieProvider;
+import org.springframework.hateoas.mediatype.hal.Jackson2HalModule;
+import org.springframework.hateoas.server.core.DefaultLinkRelationProvider;
+
+import prueba.com.prueba.DTO.ProductoConStockDTO;
+import prueba.com.prueba.DTO.ProductoDTO;
+import prueba.com.prueba.DTO.ProductoParcialDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// PRUEBAS DE LOS SERIALIZADORES MANUALES
+// La salida con SerializadoresProductoModule tiene que ser idéntica byte a byte a la del serializador por defecto
+public class SerializadoresProductoModuleTest {
+
+    private static final String BASE = "http://localhost:8089/api/productos";
+
+    // TEST 1: Listado HAL de ProductoConStockDTO en JSON, CBOR y Smile (incluye campos null y texto con escapes)
+    @Test
+    void testListadoIdenticoEnTodosLosFormatos() throws Exception {
+        List<ProductoConStockDTO> lista = new ArrayList<>();
+        for (long id = 1; id <= 20; id++) {
+            ProductoConStockDTO dto = new ProductoConStockDTO();
+            dto.setId(id);
+            dto.setNombre("Producto \"" + id + "\" ñ €");
+            dto.setDescripcion(id % 3 == 0 ? null : "Línea 1\nLínea 2\t" + id);
+            dto.setPrecio(id % 4 == 0 ? null : 100.0 / id);
+            dto.setCategoria("Electrónicos");
+            dto.setStock(id % 5 == 0 ? null : (int) id);
+            dto.add(Link.of(BASE + "/" + id).withSelfRel());
+            dto.add(Link.of(BASE + "/" + id).withRel("update"));
+            lista.add(dto);
+        }
+        CollectionModel<ProductoConStockDTO> listado = CollectionModel.of(lista).add(Link.of(BASE).withSelfRel());
+
+        for (JsonFactory factory : List.of(new JsonFactory(), new CBORFactory(), new SmileFactory())) {
+            ObjectMapper porDefecto = mapperHal(new ObjectMapper(), factory);
+            ObjectMapper manual = mapperHal(new ObjectMapper().registerModule(new SerializadoresProductoModule()), factory);
+
+            assertArrayEquals(porDefecto.writeValueAsBytes(listado), manual.writeValueAsBytes(listado),
+                    "Salida distinta en " + factory.getFormatName());
+            assertInstanceOf(ProductoBeanSerializer.class,
+                    manual.getSerializerProviderInstance().findValueSerializer(ProductoConStockDTO.class));
+        }
+    }
+
+    // TEST 2: ProductoDTO suelto (respuesta de GET /{id}) y ProductoParcialDTO con NON_NULL
+    @Test
+    void testProductoYParcialIdenticos() throws Exception {
+        ObjectMapper porDefecto = mapperHal(new ObjectMapper(), new JsonFactory());
+        ObjectMapper manual = mapperHal(new ObjectMapper().registerModule(new SerializadoresProductoModule()), new JsonFactory());
+
+        ProductoDTO producto = new ProductoDTO();
+        producto.setId(7L);
+        producto.setNombre("Silla");
+        producto.setPrecio(49.9);
+        producto.add(Link.of(BASE + "/7").withSelfRel());
+        producto.add(Link.of(BASE).withRel("productos"));
+        assertEquals(porDefecto.writeValueAsString(producto), manual.writeValueAsString(producto));
+
+        ProductoParcialDTO parcial = new ProductoParcialDTO();
+        parcial.setId(7L);
+        parcial.setStock(3);
+        String json = manual.writeValueAsString(CollectionModel.of(List.of(parcial)));
+        assertEquals(porDefecto.writeValueAsString(CollectionModel.of(List.of(parcial))), json);
+        assertFalse(json.contains("nombre"));
+    }
+
+    private static ObjectMapper mapperHal(ObjectMapper base, JsonFactory factory) {
+        return FormatosBinariosConfig.halMapper(base, factory, new Jackson2HalModule.HalHandlerInstantiator(
+                new DefaultLinkRelationProvider(), CurieProvider.NONE, MessageResolver.DEFAULTS_ONLY));
+    }
+}
@@ -1,7 +1,9 @@
 package prueba.com.prueba.Controller;
 
 // Imports para testing con Jackson (serialización JSON)
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 
 // Imports para JUnit 5 - Framework de pruebas unitarias
 import org.junit.jupiter.api.BeforeEach;
@@ -11,18 +13,34 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.hateoas.MediaTypes;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 // Imports de mis clases a testear
+import prueba.com.prueba.DTO.AjustePreciosDTO;
+import prueba.com.prueba.DTO.CambiosDTO;
 import prueba.com.prueba.DTO.ProductoConStockDTO;
+import prueba.com.prueba.DTO.ProductoParcialDTO;
+import prueba.com.prueba.DTO.ProductosPorIdsDTO;
+import prueba.com.prueba.DTO.ResultadoAjustePreciosDTO;
+import prueba.com.prueba.DTO.SugerenciaDTO;
 import prueba.com.prueba.Model.Producto;
+import prueba.com.prueba.Service.EscrituraDiferidaService;
 import prueba.com.prueba.Service.ProductoService;
+import prueba.com.prueba.Service.SincronizacionService;
+import prueba.com.prueba.Service.StreamProductosService;
+import prueba.com.prueba.Service.SugerenciasService;
+import prueba.com.prueba.Service.WarmupService;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 
 // Imports para Mockito (framework de mocking) y MockMvc (testing de controllers)
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -43,6 +61,22 @@ public class ProductoControllerTest {
     @MockitoBean
     private ProductoService productoService;
 
+    // Mock de la cola de escrituras diferidas; deshabilitada salvo que el test diga lo contrario
+    @MockitoBean
+    private EscrituraDiferidaService escrituraDiferidaService;
+
+    // Mock de la sincronización incremental
+    @MockitoBean
+    private SincronizacionService sincronizacionService;
+
+    // Mock del índice de autocompletado
+    @MockitoBean
+    private SugerenciasService sugerenciasService;
+
+    // Mock del stream de cambios
+    @MockitoBean
+    private StreamProductosService streamProductosService;
+
     // @Autowired: Spring inyecta ObjectMapper para convertir objetos Java <-> JSON
     @Autowired
     private ObjectMapper objectMapper;
@@ -161,17 +195,202 @@ public class ProductoControllerTest {
         // - HTTP 404 si el producto no existe
         // - HTTP 204 (No Content) como respuesta estándar para DELETE exitoso
     }
+
+
+    // TEST 6: Probar GET /api/productos con Accept: application/cbor
+    // Verifica que el listado se negocie en CBOR manteniendo la estructura HAL
+    @Test
+    void testListarProductosEnCbor() throws Exception {
+        // GIVEN - El service devuelve un producto con stock
+        when(productoService.listarProductosConStock()).thenReturn(Arrays.asList(productoConStockDTO));
+
+        // Sin Accept la respuesta sigue siendo HAL JSON (los conversores binarios no deben ganar por defecto)
+        mockMvc.perform(get("/api/productos"))
+                .andExpect(content().contentTypeCompatibleWith(MediaTypes.HAL_JSON));
+
+        // WHEN - Pido el listado en formato binario CBOR
+        byte[] cuerpo = mockMvc.perform(get("/api/productos").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // THEN - Al decodificar el CBOR encuentro _embedded y _links igual que en HAL JSON
+        JsonNode arbol = new ObjectMapper(new CBORFactory()).readTree(cuerpo);
+        JsonNode producto = arbol.path("_embedded").path("productoConStockDTOList").get(0);
+        assertEquals("Laptop Dell", producto.path("nombre").asText());
+        assertEquals(10, producto.path("stock").asInt());
+        assertTrue(producto.path("_links").has("self"));
+        assertTrue(arbol.path("_links").has("create"));
+    }
+
+
+    // TEST 7: Probar GET /api/productos?ids=1,2 - Varios productos en una sola llamada
+    // Verifica que se use la consulta múltiple (no el listado) y que se informen los IDs inexistentes
+    @Test
+    void testObtenerProductosPorIds() throws Exception {
+        // GIVEN - El producto 1 existe y el 2 no
+        when(productoService.obtenerProductosConStock(List.of(1L, 2L)))
+                .thenReturn(new ProductosPorIdsDTO(new ArrayList<>(List.of(productoConStockDTO)), List.of(2L)));
+
+        // WHEN & THEN
+        mockMvc.perform(get("/api/productos").param("ids", "1,2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.productos[0].nombre").value("Laptop Dell"))
+                .andExpect(jsonPath("$.productos[0]._links.self.href").exists())
+                .andExpect(jsonPath("$.noEncontrados[0]").value(2));
+
+        verify(productoService, times(1)).obtenerProductosConStock(List.of(1L, 2L));
+        verify(productoService, never()).listarProductosConStock();
+    }
+
+
+    // TEST 8: PUT con escritura diferida habilitada - responde 202 sin pasar por la actualización síncrona
+    @Test
+    void testActualizarProductoDiferido() throws Exception {
+        when(escrituraDiferidaService.isHabilitada()).thenReturn(true);
+        when(productoService.existeProducto(1L)).thenReturn(true);
+        when(escrituraDiferidaService.encolar(eq(1L), any(Producto.class))).thenReturn(true);
+
+        mockMvc.perform(put("/api/productos/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(producto)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.nombre").value("Laptop Dell"));
+
+        verify(productoService, never()).actualizarProducto(anyLong(), any(Producto.class));
+
+        // Cola llena: 503 con Retry-After
+        when(escrituraDiferidaService.encolar(eq(1L), any(Producto.class))).thenReturn(false);
+        mockMvc.perform(put("/api/productos/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(producto)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+
+        // Producto inexistente: 404 sin encolar
+        mockMvc.perform(put("/api/productos/99")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(producto)))
+                .andExpect(status().isNotFound());
+        verify(escrituraDiferidaService, never()).encolar(eq(99L), any(Producto.class));
+    }
+
+
+    // TEST 9: GET /api/productos?fields=id,nombre - Solo los campos pedidos, sin stock ni enlaces por producto
+    @Test
+    void testListarProductosConCamposSeleccionados() throws Exception {
+        ProductoParcialDTO parcial = new ProductoParcialDTO();
+        parcial.setId(1L);
+        parcial.setNombre("Laptop Dell");
+        when(productoService.listarProductosParciales(Set.of("id", "nombre"))).thenReturn(List.of(parcial));
+
+        mockMvc.perform(get("/api/productos").param("fields", "id,nombre"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.productoConStockDTOList[0].nombre").value("Laptop Dell"))
+                .andExpect(jsonPath("$._embedded.productoConStockDTOList[0].precio").doesNotExist())
+                .andExpect(jsonPath("$._embedded.productoConStockDTOList[0].stock").doesNotExist())
+                .andExpect(jsonPath("$._embedded.productoConStockDTOList[0]._links").doesNotExist());
+
+        verify(productoService, never()).listarProductosConStock();
+
+        // Con _links se agregan los enlaces por producto
+        mockMvc.perform(get("/api/productos").param("fields", "id,nombre,_links"))
+                .andExpect(jsonPath("$._embedded.productoConStockDTOList[0]._links.self.href").exists());
+    }
+
+
+    // TEST 10: GET /api/productos/changes - 200 con token y enlace "next"; 410 si el token venció
+    @Test
+    void testObtenerCambios() throws Exception {
+        CambiosDTO cambios = new CambiosDTO();
+        cambios.setEliminados(List.of(3L));
+        cambios.setToken("nuevo");
+        when(sincronizacionService.cambiosDesde("viejo")).thenReturn(cambios);
+
+        mockMvc.perform(get("/api/productos/changes").param("since", "viejo"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.eliminados[0]").value(3))
+                .andExpect(jsonPath("$.token").value("nuevo"))
+                .andExpect(jsonPath("$._links.next.href").exists());
+
+        CambiosDTO vencido = new CambiosDTO();
+        vencido.setResincronizar(true);
+        when(sincronizacionService.cambiosDesde("vencido")).thenReturn(vencido);
+
+        mockMvc.perform(get("/api/productos/changes").param("since", "vencido"))
+                .andExpect(status().isGone())
+                .andExpect(jsonPath("$.resincronizar").value(true));
+    }
+
+    // TEST 11: GET /api/productos/suggest - Delega en el índice; las vistas por ID (salvo las del calentamiento) alimentan la popularidad
+    @Test
+    void testSugerirYRegistrarVista() throws Exception {
+        when(sugerenciasService.sugerir("lap", 5)).thenReturn(List.of(new SugerenciaDTO(1L, "Laptop")));
+
+        mockMvc.perform(get("/api/productos/suggest").param("prefix", "lap").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].nombre").value("Laptop"));
+
+        when(productoService.obtenerProductoConStock(1L)).thenReturn(productoConStockDTO);
+        mockMvc.perform(get("/api/productos/1")).andExpect(status().isOk());
+        verify(sugerenciasService).registrarVista(1L);
+
+        // Las llamadas del calentamiento (header desde loopback) no suman vistas
+        mockMvc.perform(get("/api/productos/1").header(WarmupService.HEADER_CALENTAMIENTO, "true"))
+                .andExpect(status().isOk());
+        verify(sugerenciasService, times(1)).registrarVista(1L);
+    }
+
+    // TEST 12: POST /api/productos/price-adjustments - Delega en el service; sin operación responde 400
+    @Test
+    void testAjustarPrecios() throws Exception {
+        when(productoService.ajustarPrecios(any(AjustePreciosDTO.class))).thenReturn(new ResultadoAjustePreciosDTO(3, true));
+
+        mockMvc.perform(post("/api/productos/price-adjustments")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"categoria\":\"Electrónicos\",\"operacion\":\"PORCENTAJE\",\"valor\":10,\"dryRun\":true}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.afectados").value(3))
+                .andExpect(jsonPath("$.dryRun").value(true));
+
+        mockMvc.perform(post("/api/productos/price-adjustments")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"categoria\":\"Electrónicos\",\"valor\":10}"))
+                .andExpect(status().isBadRequest());
+        verify(productoService, times(1)).ajustarPrecios(any(AjustePreciosDTO.class));
+    }
+
+    // TEST 13: GET /api/productos/stream - Abre una respuesta asíncrona y pasa el Last-Event-ID al service
+    @Test
+    void testStreamConLastEventId() throws Exception {
+        when(streamProductosService.suscribir("41")).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/productos/stream")
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .header("Last-Event-ID", "41"))
+                .andExpect(request().asyncStarted());
+        verify(streamProductosService).suscribir("41");
+    }
 }
 
 /*
  * RESUMEN DE PRUEBAS DEL CONTROLLER:
  * 
- * Estas 5 pruebas cubren todos los endpoints REST principales:
+ * Estas pruebas cubren todos los endpoints REST principales:
  * 1. GET /api/productos - Listar productos con stock
  * 2. POST /api/productos - Crear nuevo producto (con validaciones)  
  * 3. GET /api/productos/{id} - Obtener producto específico con stock
  * 4. PUT /api/productos/{id} - Actualizar producto existente
  * 5. DELETE /api/productos/{id} - Eliminar producto
+ * 6. GET /api/productos en CBOR (formato binario con estructura HAL)
+ * 7. GET /api/productos?ids=... - Varios productos por ID
+ * 8. PUT /api/productos/{id} con escritura diferida (202 / 503)
+ * 9. GET /api/productos?fields=... - Solo los campos pedidos
+ * 10. GET /api/productos/changes - Sincronización incremental (200 / 410)
+ * 11. GET /api/productos/suggest - Autocompletado por prefijo
+ * 12. POST /api/productos/price-adjustments - Ajuste de precios por filtro
+ * 13. GET /api/productos/stream - Stream de cambios (Server-Sent Events)
  * 
  * QUÉ VERIFICAN ESTAS PRUEBAS:
  * - Códigos de respuesta HTTP correctos
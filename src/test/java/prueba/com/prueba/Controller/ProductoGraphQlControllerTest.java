@@ -0,0 +1,125 @@
+package prueba.com.prueba.Controller;
+
+import org.junit.jupiter.api.Test;
+
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.GraphQlTest;
+import org.springframework.graphql.test.tester.GraphQlTester;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import prueba.com.prueba.Config.LimitesGraphQlInstrumentation;
+import prueba.com.prueba.DTO.FiltroProductosDTO;
+import prueba.com.prueba.Model.Producto;
+import prueba.com.prueba.Service.LecturaStock;
+import prueba.com.prueba.Service.ProductoService;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// PRUEBAS DEL ENDPOINT GRAPHQL
+// @GraphQlTest: carga solo la capa GraphQL (controllers, instrumentaciones, resolvers de errores)
+// con el service simulado, para contar las llamadas a inventario
+@GraphQlTest(ProductoGraphQlController.class)
+public class ProductoGraphQlControllerTest {
+
+    @Autowired
+    private GraphQlTester graphQlTester;
+
+    @Autowired
+    private LimitesGraphQlInstrumentation limites;
+
+    @MockitoBean
+    private ProductoService productoService;
+
+    // TEST 1: Sin campos de stock no hay ninguna llamada a inventario y el SELECT trae solo las columnas pedidas
+    @Test
+    void testSinStockNoConsultaInventario() {
+        when(productoService.buscarProductos(any(), any(), eq(0), eq(100)))
+                .thenReturn(List.of(producto(1L, "Laptop"), producto(2L, "Mouse")));
+
+        graphQlTester.document("{ productos(filtro: { categoria: \"Electrónicos\" }) { id nombre } }")
+                .execute()
+                .path("productos[*].nombre").entityList(String.class).containsExactly("Laptop", "Mouse");
+
+        ArgumentCaptor<FiltroProductosDTO> filtro = ArgumentCaptor.forClass(FiltroProductosDTO.class);
+        verify(productoService).buscarProductos(filtro.capture(), eq(Set.of("id", "nombre")), eq(0), eq(100));
+        assertEquals("Electrónicos", filtro.getValue().getCategoria());
+        verify(productoService, never()).leerStockLote(any());
+        verify(productoService, never()).obtenerStockSeguro(any());
+    }
+
+    // TEST 2: El stock de todos los productos de la consulta (incluidos otros campos raíz y los tres
+    // campos de stock) se resuelve con UNA sola llamada por lotes, sin IDs repetidos
+    @Test
+    void testStockPorLotes() {
+        when(productoService.buscarProductos(any(), any(), anyInt(), anyInt())).thenAnswer(inv -> {
+            FiltroProductosDTO filtro = inv.getArgument(0);
+            return filtro != null && filtro.getIds() != null
+                    ? List.of(producto(2L, "Mouse"))
+                    : List.of(producto(1L, "Laptop"), producto(2L, "Mouse"), producto(3L, "Monitor"));
+        });
+        Instant leido = Instant.parse("2026-01-01T10:00:00Z");
+        when(productoService.leerStockLote(anyList())).thenReturn(Map.of(
+                1L, new LecturaStock(5, false, leido),
+                2L, new LecturaStock(0, true, leido),
+                3L, LecturaStock.DESCONOCIDA));
+
+        GraphQlTester.Response respuesta = graphQlTester.document("""
+                        { productos(limite: 10) { id stock stockStale stockAsOf }
+                          destacado: producto(id: 2) { nombre stock } }""")
+                .execute();
+
+        respuesta.path("productos[*].stock").entityList(Integer.class).containsExactly(5, 0, 0);
+        respuesta.path("productos[1].stockStale").entity(Boolean.class).isEqualTo(true);
+        respuesta.path("productos[0].stockAsOf").entity(String.class).isEqualTo("2026-01-01T10:00:00Z");
+        respuesta.path("productos[2].stockAsOf").valueIsNull();
+        respuesta.path("destacado.stock").entity(Integer.class).isEqualTo(0);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Long>> ids = ArgumentCaptor.forClass(List.class);
+        verify(productoService, times(1)).leerStockLote(ids.capture());
+        assertEquals(Set.of(1L, 2L, 3L), Set.copyOf(ids.getValue()));
+        assertEquals(3, ids.getValue().size());
+    }
+
+    // TEST 3: Consultas demasiado complejas o profundas se rechazan sin tocar el service;
+    // la introspección no cuenta para la profundidad
+    @Test
+    void testLimitesDeComplejidadYProfundidad() {
+        graphQlTester.document("""
+                        { a: productos(limite: 500) { id nombre descripcion precio categoria stock }
+                          b: productos(limite: 500) { id nombre descripcion precio categoria stock } }""")
+                .execute()
+                .errors().satisfy(errores -> assertTrue(errores.get(0).getMessage().contains("complejidad")));
+        verifyNoInteractions(productoService);
+
+        int anterior = (int) ReflectionTestUtils.getField(limites, "maxProfundidad");
+        ReflectionTestUtils.setField(limites, "maxProfundidad", 1);
+        try {
+            graphQlTester.document("{ productos { id } }")
+                    .execute()
+                    .errors().satisfy(errores -> assertTrue(errores.get(0).getMessage().contains("profundidad")));
+            graphQlTester.document("{ __schema { types { name fields { name type { name ofType { name } } } } } }")
+                    .execute()
+                    .errors().verify();
+        } finally {
+            ReflectionTestUtils.setField(limites, "maxProfundidad", anterior);
+        }
+        verifyNoInteractions(productoService);
+    }
+
+    private static Producto producto(Long id, String nombre) {
+        Producto producto = new Producto();
+        producto.setId(id);
+        producto.setNombre(nombre);
+        return producto;
+    }
+}
@@ -0,0 +1,105 @@
+package prueba.com.prueba.Presupuesto;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.lang.NonNull;
+import org.springframework.web.client.RestTemplate;
+import prueba.com.prueba.Service.InventarioHedging;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Cuenta las sentencias SQL y las llamadas HTTP salientes hechas dentro de peticiones HTTP
+ * Es un BeanPostProcessor: envuelve el DataSource con datasource-proxy y agrega un interceptor
+ * a cada RestTemplate del contexto. InventarioHedging usa un RestTemplate propio y llama desde
+ * hilos de su pool, así que ahí se cuenta cada consulta en la entrada (getForObject), en el hilo
+ * de la petición: una llamada por consulta, aunque el hedge haga una segunda.
+ * "Dentro de una petición" lo marca PeticionMedidaFilter (no sirve RequestContextHolder: el
+ * soporte de tests de Spring lo llena también en el hilo del test).
+ */
+public class ContadorPresupuesto implements BeanPostProcessor, QueryExecutionListener {
+
+    private static final ThreadLocal<Boolean> EN_PETICION = new ThreadLocal<>();
+
+    private final List<String> sentencias = new ArrayList<>();
+    private final List<String> llamadas = new ArrayList<>();
+
+    @Override
+    public Object postProcessAfterInitialization(@NonNull Object bean, @NonNull String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+            return ProxyDataSourceBuilder.create(beanName, dataSource).listener(this).build();
+        }
+        if (bean instanceof RestTemplate restTemplate) {
+            restTemplate.getInterceptors().add((request, body, execution) -> {
+                if (dentroDePeticion()) {
+                    registrar(llamadas, request.getMethod() + " " + request.getURI());
+                }
+                return execution.execute(request, body);
+            });
+        }
+        if (bean instanceof InventarioHedging hedging) {
+            ProxyFactory proxy = new ProxyFactory(hedging);
+            proxy.setProxyTargetClass(true);
+            proxy.addAdvice((MethodInterceptor) invocation -> {
+                if ("getForObject".equals(invocation.getMethod().getName()) && dentroDePeticion()) {
+                    registrar(llamadas, "GET " + invocation.getArguments()[1]);
+                }
+                return invocation.proceed();
+            });
+            return proxy.getProxy();
+        }
+        return bean;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    // Una ejecución JDBC (un batch cuenta como una) es una sentencia
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (dentroDePeticion()) {
+            registrar(sentencias, queryInfoList.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; ")));
+        }
+    }
+
+    private static boolean dentroDePeticion() {
+        return EN_PETICION.get() != null;
+    }
+
+    static void marcarPeticion(boolean enPeticion) {
+        if (enPeticion) {
+            EN_PETICION.set(Boolean.TRUE);
+        } else {
+            EN_PETICION.remove();
+        }
+    }
+
+    private void registrar(List<String> destino, String entrada) {
+        synchronized (this) {
+            destino.add(entrada);
+        }
+    }
+
+    public synchronized void reiniciar() {
+        sentencias.clear();
+        llamadas.clear();
+    }
+
+    public synchronized List<String> getSentencias() {
+        return new ArrayList<>(sentencias);
+    }
+
+    public synchronized List<String> getLlamadas() {
+        return new ArrayList<>(llamadas);
+    }
+}
@@ -0,0 +1,24 @@
+package prueba.com.prueba.Presupuesto;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+
+import java.io.IOException;
+
+// Marca el hilo mientras procesa una petición HTTP: solo eso consume el presupuesto de ContadorPresupuesto
+public class PeticionMedidaFilter implements Filter {
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        ContadorPresupuesto.marcarPeticion(true);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ContadorPresupuesto.marcarPeticion(false);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package prueba.com.prueba.Presupuesto;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+// Lo importa @PresupuestoConsultas en el contexto del test
+@TestConfiguration(proxyBeanMethods = false)
+public class PresupuestoConfig {
+
+    // Estático: un BeanPostProcessor tiene que crearse antes que el resto de los beans
+    @Bean
+    public static ContadorPresupuesto contadorPresupuesto() {
+        return new ContadorPresupuesto();
+    }
+
+    // Primero de la cadena: cuenta todo lo que hace la petición, filtros incluidos
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public PeticionMedidaFilter peticionMedidaFilter() {
+        return new PeticionMedidaFilter();
+    }
+}
@@ -0,0 +1,33 @@
+package prueba.com.prueba.Presupuesto;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.context.annotation.Import;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Presupuesto de consultas SQL y llamadas HTTP salientes de un test de Spring
+ * En la clase activa el conteo (proxy JDBC sobre el DataSource, interceptor en los RestTemplate
+ * y en la entrada de InventarioHedging)
+ * y fija el presupuesto por defecto; en un método lo reemplaza para ese test.
+ * Solo se cuenta lo que ocurre dentro de una petición HTTP (MockMvc o servidor real): los datos
+ * que el test prepara llamando a repositorios o servicios no consumen presupuesto.
+ * Si el test hace varias peticiones, el presupuesto es para la suma.
+ * Ejemplo: GET /api/productos con N productos y lotes de inventario de tamaño L
+ *   @PresupuestoConsultas(sql = 2, http = ceil(N / L))
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(PresupuestoExtension.class)
+@Import(PresupuestoConfig.class)
+public @interface PresupuestoConsultas {
+
+    // Máximo de sentencias SQL ejecutadas (-1 = sin límite)
+    int sql() default -1;
+
+    // Máximo de llamadas HTTP salientes (-1 = sin límite)
+    int http() default -1;
+}
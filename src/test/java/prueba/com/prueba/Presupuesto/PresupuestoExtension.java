@@ -0,0 +1,59 @@
+package prueba.com.prueba.Presupuesto;
+
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Extensión JUnit de @PresupuestoConsultas
+ * Reinicia los contadores antes de cada test y, si el test pasó, falla si se excedió el presupuesto
+ * del método (o el de la clase si el método no declara uno) listando lo que se ejecutó.
+ */
+public class PresupuestoExtension implements BeforeEachCallback, AfterEachCallback {
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        contador(context).reiniciar();
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        if (context.getExecutionException().isPresent()) {
+            return;
+        }
+        PresupuestoConsultas presupuesto = AnnotationSupport.findAnnotation(context.getRequiredTestMethod(), PresupuestoConsultas.class)
+                .or(() -> AnnotationSupport.findAnnotation(context.getRequiredTestClass(), PresupuestoConsultas.class))
+                .orElse(null);
+        if (presupuesto == null) {
+            return;
+        }
+        ContadorPresupuesto contador = contador(context);
+        StringBuilder errores = new StringBuilder();
+        verificar(errores, "sentencias SQL", presupuesto.sql(), contador.getSentencias());
+        verificar(errores, "llamadas HTTP salientes", presupuesto.http(), contador.getLlamadas());
+        if (!errores.isEmpty()) {
+            fail("Presupuesto excedido en " + context.getDisplayName() + errores);
+        }
+    }
+
+    private static void verificar(StringBuilder errores, String que, int maximo, List<String> ejecutadas) {
+        if (maximo < 0 || ejecutadas.size() <= maximo) {
+            return;
+        }
+        errores.append(System.lineSeparator()).append(" - ").append(ejecutadas.size()).append(' ').append(que)
+                .append(" (máximo ").append(maximo).append("):");
+        for (int i = 0; i < ejecutadas.size(); i++) {
+            errores.append(System.lineSeparator()).append("     ").append(i + 1).append(". ").append(ejecutadas.get(i));
+        }
+    }
+
+    private static ContadorPresupuesto contador(ExtensionContext context) {
+        return SpringExtension.getApplicationContext(context).getBean(ContadorPresupuesto.class);
+    }
+}
@@ -1,13 +1,92 @@
 package prueba.com.prueba;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.client.RestTemplate;
 
-@SpringBootTest
+import prueba.com.prueba.Model.Producto;
+import prueba.com.prueba.Presupuesto.PresupuestoConsultas;
+import prueba.com.prueba.Repository.ProductoRepository;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Contexto completo con H2 propia, inventario simulado con MockRestServiceServer
+// y presupuestos de consultas: un N+1 nuevo en SQL o en llamadas a inventario hace fallar estos tests
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:presupuestos;DB_CLOSE_DELAY=-1",
+		"inventario.service.batch-enabled=true",
+		"inventario.service.batch-size=2"
+})
+@AutoConfigureMockMvc
+@PresupuestoConsultas
 class PruebaApplicationTests {
 
+	private static final int PRODUCTOS = 5;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ProductoRepository productoRepository;
+
+	@Autowired
+	private RestTemplate restTemplate;
+
+	private MockRestServiceServer inventario;
+
+	@BeforeEach
+	void setUp() {
+		if (productoRepository.count() == 0) {
+			for (int i = 1; i <= PRODUCTOS; i++) {
+				Producto producto = new Producto();
+				producto.setNombre("Producto " + i);
+				producto.setDescripcion("Descripción " + i);
+				producto.setPrecio(10.0 * i);
+				producto.setCategoria("Hogar");
+				productoRepository.save(producto);
+			}
+		}
+		inventario = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
+	}
+
 	@Test
 	void contextLoads() {
 	}
 
+	// GET /api/productos: un SELECT de productos y ceil(5 / 2) = 3 llamadas de inventario por lote
+	@Test
+	@PresupuestoConsultas(sql = 2, http = 3)
+	void testListadoDentroDelPresupuesto() throws Exception {
+		inventario.expect(ExpectedCount.manyTimes(), requestTo(startsWith("http://localhost:8085/inventario?ids=")))
+				.andRespond(withSuccess("[]", MediaType.APPLICATION_JSON));
+
+		mockMvc.perform(get("/api/productos"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$._embedded.productoConStockDTOList.length()").value(PRODUCTOS));
+	}
+
+	// GET /api/productos/{id}: un SELECT por ID y una llamada de inventario
+	@Test
+	@PresupuestoConsultas(sql = 1, http = 1)
+	void testConsultaPorIdDentroDelPresupuesto() throws Exception {
+		Long id = productoRepository.findAll().get(0).getId();
+		inventario.expect(ExpectedCount.manyTimes(), requestTo(startsWith("http://localhost:8085/inventario/")))
+				.andRespond(withSuccess("{\"idProducto\":" + id + ",\"stockActual\":4}", MediaType.APPLICATION_JSON));
+
+		mockMvc.perform(get("/api/productos/" + id))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.stock").value(4));
+	}
 }
@@ -0,0 +1,127 @@
+package prueba.com.prueba.Repository;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+
+import prueba.com.prueba.DTO.AjustePreciosDTO;
+import prueba.com.prueba.DTO.FiltroProductosDTO;
+import prueba.com.prueba.Model.Producto;
+import prueba.com.prueba.Repository.ProductoRepositoryCustom.ResumenAjuste;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// PRUEBAS DEL REPOSITORY CONTRA H2
+// @DataJpaTest: levanta solo JPA con una BD en memoria; cada test hace rollback al terminar
+@DataJpaTest
+public class ProductoRepositoryTest {
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Producto guardar(String nombre, double precio, String categoria) {
+        Producto producto = new Producto();
+        producto.setNombre(nombre);
+        producto.setPrecio(precio);
+        producto.setCategoria(categoria);
+        return productoRepository.save(producto);
+    }
+
+    // TEST 1: La proyección trae solo las columnas pedidas (y siempre el ID)
+    @Test
+    void testFindColumnasSoloTraeLasPedidas() {
+        Producto producto = new Producto();
+        producto.setNombre("Laptop Dell");
+        producto.setDescripcion("Laptop Dell Inspiron 15");
+        producto.setPrecio(799.99);
+        producto.setCategoria("Electrónicos");
+        Long id = productoRepository.save(producto).getId();
+
+        List<Producto> resultado = productoRepository.findColumnas(Set.of("nombre", "precio"));
+
+        assertEquals(1, resultado.size());
+        assertEquals(id, resultado.get(0).getId());
+        assertEquals("Laptop Dell", resultado.get(0).getNombre());
+        assertEquals(799.99, resultado.get(0).getPrecio());
+        assertNull(resultado.get(0).getDescripcion());
+        assertNull(resultado.get(0).getCategoria());
+
+        // El IllegalArgumentException del fragmento llega traducido por Spring Data
+        assertThrows(InvalidDataAccessApiUsageException.class, () -> productoRepository.findColumnas(Set.of("PASSWORD")));
+    }
+
+    // TEST 2: El ajuste de precios es un solo UPDATE: solo toca las filas del filtro, redondea y
+    // las deja marcadas como pendientes de numerar (se leen en orden de ID)
+    @Test
+    void testAjustarPreciosPorFiltro() {
+        Long laptop = guardar("Laptop", 1000.0, "Electrónicos").getId();
+        Long mouse = guardar("Mouse", 10.99, "Electrónicos").getId();
+        Long silla = guardar("Silla", 50.0, "Hogar").getId();
+
+        AjustePreciosDTO ajuste = new AjustePreciosDTO();
+        ajuste.setCategoria("Electrónicos");
+        ajuste.setOperacion(AjustePreciosDTO.Operacion.PORCENTAJE);
+        ajuste.setValor(10.0);
+
+        ResumenAjuste resumen = productoRepository.resumirAjuste(ajuste);
+        assertEquals(2, resumen.afectados());
+        assertEquals(laptop, resumen.minId());
+        assertEquals(mouse, resumen.maxId());
+        assertEquals(0, resumen.invalidos());
+
+        assertEquals(2, productoRepository.ajustarPrecios(ajuste, laptop, mouse));
+        entityManager.clear();
+
+        assertEquals(1100.0, productoRepository.findById(laptop).orElseThrow().getPrecio());
+        assertEquals(12.09, productoRepository.findById(mouse).orElseThrow().getPrecio());
+        assertEquals(50.0, productoRepository.findById(silla).orElseThrow().getPrecio());
+        assertEquals(List.of(laptop, mouse), productoRepository
+                .findBySecuenciaCambioOrderByIdAsc(ProductoRepository.SECUENCIA_PENDIENTE).stream().map(Producto::getId).toList());
+
+        // Un descuento que deja algún precio en 0 o menos se detecta en el resumen
+        ajuste.setCategoria(null);
+        ajuste.setPrecioMax(20.0);
+        ajuste.setOperacion(AjustePreciosDTO.Operacion.DELTA);
+        ajuste.setValor(-15.0);
+        assertEquals(1, productoRepository.resumirAjuste(ajuste).invalidos());
+    }
+
+    // TEST 3: Búsqueda de GraphQL - filtros combinados con AND, nombre sin distinguir mayúsculas
+    // (con % literal), paginado por ID y solo las columnas pedidas
+    @Test
+    void testBuscarConFiltroYPaginado() {
+        Long laptop = guardar("Laptop Pro", 1000.0, "Electrónicos").getId();
+        Long portatil = guardar("LAPTOP Air", 800.0, "Electrónicos").getId();
+        guardar("Laptop 100%", 50.0, "Electrónicos");
+        guardar("Mesa para laptop", 900.0, "Hogar");
+
+        FiltroProductosDTO filtro = new FiltroProductosDTO();
+        filtro.setCategoria("Electrónicos");
+        filtro.setNombreContiene("laptop");
+        filtro.setPrecioMin(100.0);
+
+        List<Producto> pagina = productoRepository.buscar(filtro, Set.of("nombre"), 0, 1);
+        assertEquals(1, pagina.size());
+        assertEquals(laptop, pagina.get(0).getId());
+        assertEquals("Laptop Pro", pagina.get(0).getNombre());
+        assertNull(pagina.get(0).getPrecio());
+        assertEquals(portatil, productoRepository.buscar(filtro, Set.of(), 1, 10).get(0).getId());
+
+        FiltroProductosDTO porcentaje = new FiltroProductosDTO();
+        porcentaje.setNombreContiene("0%");
+        assertEquals(1, productoRepository.buscar(porcentaje, Set.of(), 0, 10).size());
+
+        FiltroProductosDTO sinIds = new FiltroProductosDTO();
+        sinIds.setIds(List.of());
+        assertTrue(productoRepository.buscar(sinIds, Set.of(), 0, 10).isEmpty());
+    }
+}
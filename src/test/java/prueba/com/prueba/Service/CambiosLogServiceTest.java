@@ -0,0 +1,205 @@
+package prueba.com.prueba.Service;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import prueba.com.prueba.DTO.AjustePreciosDTO;
+import prueba.com.prueba.Model.Producto;
+import prueba.com.prueba.Model.ProductoCambio;
+import prueba.com.prueba.PruebaApplication;
+import prueba.com.prueba.Repository.ProductoCambioRepository;
+import prueba.com.prueba.Repository.ProductoRepository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// PRUEBA DE INTEGRACIÓN: DOS INSTANCIAS DE LA APLICACIÓN CONTRA LA MISMA BD H2
+// La instancia A crea el esquema; la B se conecta a la misma BD en memoria sin tocarlo.
+// Los cambios hechos en A tienen que llegar al snapshot en memoria de B a través de PRODUCTO_CAMBIOS
+public class CambiosLogServiceTest {
+
+    private static ConfigurableApplicationContext instanciaA;
+    private static ConfigurableApplicationContext instanciaB;
+
+    @BeforeAll
+    static void levantarInstancias() {
+        instanciaA = levantar("A", "create");
+        instanciaB = levantar("B", "none");
+    }
+
+    @AfterAll
+    static void bajarInstancias() {
+        if (instanciaB != null) instanciaB.close();
+        if (instanciaA != null) instanciaA.close();
+    }
+
+    private static ConfigurableApplicationContext levantar(String id, String ddlAuto) {
+        return new SpringApplicationBuilder(PruebaApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:cambios;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "spring.jpa.hibernate.ddl-auto=" + ddlAuto,
+                        // Los @Scheduled solo se registran en beans creados al arrancar
+                        "spring.main.lazy-initialization=false",
+                        "app.instancia.id=" + id,
+                        "app.cambios.enabled=true",
+                        "app.cambios.intervalo-ms=100",
+                        "app.catalogo.snapshot.enabled=true",
+                        "app.warmup.enabled=false",
+                        "inventario.service.enabled=false")
+                .run();
+    }
+
+    // TEST 1: Alta, modificación y baja en A se reflejan en el snapshot de B
+    @Test
+    void testCambiosDeOtraInstanciaLleganAlSnapshot() {
+        ProductoService servicioA = instanciaA.getBean(ProductoService.class);
+        CatalogoSnapshotService snapshotB = instanciaB.getBean(CatalogoSnapshotService.class);
+
+        Producto producto = new Producto();
+        producto.setNombre("Teclado");
+        producto.setDescripcion("Teclado mecánico");
+        producto.setPrecio(50.0);
+        producto.setCategoria("Periféricos");
+        Long id = servicioA.crearProducto(producto).getId();
+        esperar(() -> snapshotB.getSnapshot().indiceDe(id) >= 0, "el alta no llegó a la instancia B");
+
+        Producto cambio = new Producto();
+        cambio.setNombre("Teclado");
+        cambio.setDescripcion("Teclado mecánico");
+        cambio.setPrecio(65.0);
+        cambio.setCategoria("Periféricos");
+        servicioA.actualizarProducto(id, cambio);
+        esperar(() -> {
+            CatalogoSnapshot s = snapshotB.getSnapshot();
+            int fila = s.indiceDe(id);
+            return fila >= 0 && Double.valueOf(65.0).equals(s.getPrecio(fila));
+        }, "la modificación no llegó a la instancia B");
+
+        servicioA.eliminarProducto(id);
+        esperar(() -> snapshotB.getSnapshot().indiceDe(id) < 0, "la baja no llegó a la instancia B");
+    }
+
+    // TEST 2: La limpieza borra las filas más viejas que la retención
+    @Test
+    void testLimpiezaBorraCambiosViejos() {
+        CambiosLogService cambiosA = instanciaA.getBean(CambiosLogService.class);
+        ProductoCambioRepository repositorio = instanciaA.getBean(ProductoCambioRepository.class);
+
+        Producto producto = new Producto();
+        producto.setNombre("Mouse");
+        producto.setPrecio(10.0);
+        producto.setCategoria("Periféricos");
+        instanciaA.getBean(ProductoService.class).crearProducto(producto);
+        assertTrue(repositorio.count() > 0);
+
+        ReflectionTestUtils.setField(cambiosA, "retencionHoras", 0L);
+        cambiosA.limpiar();
+
+        assertEquals(0, repositorio.count());
+    }
+
+    // TEST 3: Un cambio que confirma después de otros con ID mayor se lee igual (sin las dos instancias)
+    @Test
+    void testCambioConfirmadoTardeNoSePierde() {
+        ProductoCambioRepository cambios = mock(ProductoCambioRepository.class);
+        ProductoRepository productos = mock(ProductoRepository.class);
+        ApplicationEventPublisher publicador = mock(ApplicationEventPublisher.class);
+        CambiosLogService servicio = new CambiosLogService();
+        ReflectionTestUtils.setField(servicio, "cambioRepository", cambios);
+        ReflectionTestUtils.setField(servicio, "productoRepository", productos);
+        ReflectionTestUtils.setField(servicio, "eventPublisher", publicador);
+        ReflectionTestUtils.setField(servicio, "enabled", true);
+        ReflectionTestUtils.setField(servicio, "instanciaId", "A");
+        ReflectionTestUtils.setField(servicio, "ultimoId", 10L);
+
+        // Primera consulta: aparecen 11 y 13, el 12 sigue en una transacción abierta
+        when(cambios.findByIdGreaterThanOrderByIdAsc(eq(10L), any(Limit.class)))
+                .thenReturn(List.of(cambio(11, 1L), cambio(13, 3L)));
+        servicio.consultarCambios();
+
+        // Segunda consulta: el 12 ya confirmó
+        when(cambios.findByIdIn(List.of(12L))).thenReturn(List.of(cambio(12, 2L)));
+        Producto producto = new Producto();
+        producto.setId(2L);
+        when(productos.findByIdIn(List.of(2L))).thenReturn(List.of(producto));
+        servicio.consultarCambios();
+
+        verify(publicador).publishEvent(argThat((Object e) ->
+                e instanceof ProductoCambiadoEvent evento && evento.getProductoId() == 2L && evento.isRemoto()));
+        verify(cambios, times(1)).findByIdIn(anyCollection());
+    }
+
+    // TEST 4: Un ajuste de precios por conjunto deja una fila de log por producto (un solo INSERT ... SELECT)
+    // con secuencias consecutivas; el snapshot de A lo aplica localmente y B lo recibe por PRODUCTO_CAMBIOS
+    @Test
+    void testAjusteDePreciosLlegaAOtraInstancia() {
+        ProductoService servicioA = instanciaA.getBean(ProductoService.class);
+        ProductoRepository productosA = instanciaA.getBean(ProductoRepository.class);
+        CatalogoSnapshotService snapshotA = instanciaA.getBean(CatalogoSnapshotService.class);
+        CatalogoSnapshotService snapshotB = instanciaB.getBean(CatalogoSnapshotService.class);
+
+        List<Long> ids = new ArrayList<>();
+        for (double precio : new double[]{10.0, 20.0, 30.0}) {
+            Producto producto = new Producto();
+            producto.setNombre("Cuaderno " + precio);
+            producto.setPrecio(precio);
+            producto.setCategoria("Librería");
+            ids.add(servicioA.crearProducto(producto).getId());
+        }
+        for (Long id : ids) {
+            esperar(() -> snapshotB.getSnapshot().indiceDe(id) >= 0, "el alta no llegó a la instancia B");
+        }
+
+        AjustePreciosDTO ajuste = new AjustePreciosDTO();
+        ajuste.setIds(ids);
+        ajuste.setOperacion(AjustePreciosDTO.Operacion.DELTA);
+        ajuste.setValor(1.0);
+        assertEquals(3, servicioA.ajustarPrecios(ajuste).getAfectados());
+
+        List<Long> secuencias = productosA.findAllById(ids).stream().map(Producto::getSecuenciaCambio).sorted().toList();
+        assertEquals(List.of(secuencias.get(0), secuencias.get(0) + 1, secuencias.get(0) + 2), secuencias);
+        CatalogoSnapshot locales = snapshotA.getSnapshot();
+        assertEquals(31.0, locales.getPrecio(locales.indiceDe(ids.get(2))));
+        esperar(() -> {
+            CatalogoSnapshot s = snapshotB.getSnapshot();
+            return Double.valueOf(11.0).equals(s.getPrecio(s.indiceDe(ids.get(0))))
+                    && Double.valueOf(31.0).equals(s.getPrecio(s.indiceDe(ids.get(2))));
+        }, "el ajuste no llegó a la instancia B");
+    }
+
+    private static ProductoCambio cambio(long id, Long productoId) {
+        ProductoCambio cambio = new ProductoCambio(productoId, "ACTUALIZADO", "B", Instant.now());
+        ReflectionTestUtils.setField(cambio, "id", id);
+        return cambio;
+    }
+
+    private static void esperar(BooleanSupplier condicion, String mensaje) {
+        long limite = System.currentTimeMillis() + 5000;
+        while (!condicion.getAsBoolean()) {
+            if (System.currentTimeMillis() > limite) {
+                fail(mensaje);
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail("interrumpido");
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package prueba.com.prueba.Service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import org.springframework.test.util.ReflectionTestUtils;
+
+import prueba.com.prueba.Model.Producto;
+import prueba.com.prueba.Repository.ProductoRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// PRUEBAS UNITARIAS DEL SERVICIO DEL SNAPSHOT
+// Orden de los eventos: cambios confirmados durante la carga y listeners que llegan desordenados
+@ExtendWith(MockitoExtension.class)
+public class CatalogoSnapshotServiceTest {
+
+    @Mock
+    private ProductoRepository productoRepository;
+
+    @InjectMocks
+    private CatalogoSnapshotService snapshotService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(snapshotService, "enabled", true);
+    }
+
+    private static Producto producto(long id, String nombre, long secuencia) {
+        Producto p = new Producto();
+        p.setId(id);
+        p.setNombre(nombre);
+        p.setSecuenciaCambio(secuencia);
+        return p;
+    }
+
+    // TEST 1: Un cambio confirmado mientras se lee la BD se aplica sobre la carga
+    @Test
+    void testCambioDuranteLaCargaNoSePierde() {
+        // GIVEN - La lectura devuelve la versión 1 y, mientras tanto, se confirma la versión 2
+        when(productoRepository.findAll()).thenAnswer(inv -> {
+            snapshotService.alCambiarProducto(ProductoCambiadoEvent.actualizado(producto(1, "Mesa nueva", 2)));
+            return List.of(producto(1, "Mesa", 1));
+        });
+
+        // WHEN
+        snapshotService.recargar();
+
+        // THEN
+        assertTrue(snapshotService.isDisponible());
+        assertEquals("Mesa nueva", snapshotService.getSnapshot().getNombre(0));
+    }
+
+    // TEST 2: Un listener atrasado no pisa una versión más nueva ni revive un producto borrado
+    @Test
+    void testEventosDesordenados() {
+        // GIVEN - Snapshot cargado con dos productos
+        when(productoRepository.findAll()).thenReturn(List.of(producto(1, "Mesa", 5), producto(2, "Silla", 5)));
+        snapshotService.recargar();
+
+        // WHEN - Llegan primero la versión 7 y la baja, después la versión 6 y un cambio previo a la baja
+        snapshotService.alCambiarProducto(ProductoCambiadoEvent.actualizado(producto(1, "Mesa v7", 7)));
+        snapshotService.alCambiarProducto(ProductoCambiadoEvent.actualizado(producto(1, "Mesa v6", 6)));
+        snapshotService.alCambiarProducto(ProductoCambiadoEvent.eliminado(2L));
+        snapshotService.alCambiarProducto(ProductoCambiadoEvent.actualizado(producto(2, "Silla v6", 6)));
+
+        // THEN
+        CatalogoSnapshot snapshot = snapshotService.getSnapshot();
+        assertEquals(1, snapshot.size());
+        assertEquals("Mesa v7", snapshot.getNombre(snapshot.indiceDe(1)));
+        assertEquals(-1, snapshot.indiceDe(2));
+    }
+}
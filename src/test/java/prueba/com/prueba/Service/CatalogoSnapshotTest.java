@@ -0,0 +1,94 @@
+package prueba.com.prueba.Service;
+
+import org.junit.jupiter.api.Test;
+
+import prueba.com.prueba.Model.Producto;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// PRUEBAS UNITARIAS DEL SNAPSHOT COLUMNAR
+// No necesita Spring ni mocks: es una estructura de datos inmutable
+public class CatalogoSnapshotTest {
+
+    private static Producto producto(long id, String nombre, double precio, String categoria) {
+        Producto p = new Producto();
+        p.setId(id);
+        p.setNombre(nombre);
+        p.setPrecio(precio);
+        p.setCategoria(categoria);
+        return p;
+    }
+
+    // TEST 1: La carga ordena por id y guarda cada categoría una sola vez
+    @Test
+    void testDesdeOrdenaEInternaCategorias() {
+        CatalogoSnapshot snapshot = CatalogoSnapshot.desde(List.of(
+                producto(3, "Mouse", 10.0, "Electrónicos"),
+                producto(1, "Laptop", 800.0, "Electrónicos"),
+                producto(2, "Silla", 50.0, "Hogar")));
+
+        assertEquals(3, snapshot.size());
+        assertEquals(2, snapshot.cantidadCategorias());
+        assertEquals(1L, snapshot.getId(0));
+        assertEquals("Mouse", snapshot.getNombre(snapshot.indiceDe(3)));
+        assertSame(snapshot.getCategoria(0), snapshot.getCategoria(2));
+        assertEquals(-1, snapshot.indiceDe(99));
+    }
+
+    // TEST 2: Insertar, reemplazar y quitar generan snapshots nuevos sin tocar el original
+    @Test
+    void testCopyOnWrite() {
+        CatalogoSnapshot original = CatalogoSnapshot.desde(List.of(producto(1, "Laptop", 800.0, "Electrónicos")));
+
+        CatalogoSnapshot conNuevo = original.conProducto(producto(2, "Silla", 50.0, "Hogar"));
+        CatalogoSnapshot actualizado = conNuevo.conProducto(producto(1, "Laptop Pro", 900.0, "Electrónicos"));
+        CatalogoSnapshot sinLaptop = actualizado.sinProducto(1);
+
+        assertEquals(1, original.size());
+        assertEquals("Laptop", original.getNombre(0));
+        assertEquals(2, conNuevo.size());
+        assertEquals("Laptop Pro", actualizado.getNombre(actualizado.indiceDe(1)));
+        assertEquals(900.0, actualizado.getPrecio(actualizado.indiceDe(1)));
+        assertEquals(1, sinLaptop.size());
+        assertEquals("Hogar", sinLaptop.getCategoria(0));
+        assertSame(sinLaptop, sinLaptop.sinProducto(42));
+    }
+
+    // TEST 3: Un cambio con una secuencia vieja (listener atrasado) no pisa al más nuevo
+    @Test
+    void testConProductoIgnoraSecuenciaVieja() {
+        Producto nuevo = producto(1, "Laptop Pro", 900.0, "Electrónicos");
+        nuevo.setSecuenciaCambio(8L);
+        Producto viejo = producto(1, "Laptop", 800.0, "Electrónicos");
+        viejo.setSecuenciaCambio(7L);
+        CatalogoSnapshot snapshot = CatalogoSnapshot.desde(List.of(nuevo));
+
+        assertSame(snapshot, snapshot.conProducto(viejo));
+        assertSame(snapshot, snapshot.conProducto(nuevo));
+        assertEquals("Laptop Pro", snapshot.getNombre(0));
+    }
+
+    // TEST 4: Un ajuste por conjunto cambia precio y secuencia de las filas que están, saltea las
+    // que ya tienen una secuencia más nueva y las que no existen, y no toca el original
+    @Test
+    void testConPreciosEnUnaPasada() {
+        Producto laptop = producto(1, "Laptop", 800.0, "Electrónicos");
+        laptop.setSecuenciaCambio(5L);
+        Producto mouse = producto(3, "Mouse", 10.0, "Electrónicos");
+        mouse.setSecuenciaCambio(50L);
+        CatalogoSnapshot snapshot = CatalogoSnapshot.desde(List.of(laptop, producto(2, "Silla", 50.0, "Hogar"), mouse));
+
+        CatalogoSnapshot ajustado = snapshot.conPrecios(new long[]{1, 2, 3, 4},
+                new double[]{880.0, 55.0, 11.0, 1.0}, new long[]{10, 11, 12, 13});
+
+        assertEquals(3, ajustado.size());
+        assertEquals(880.0, ajustado.getPrecio(0));
+        assertEquals(55.0, ajustado.getPrecio(1));
+        assertEquals(10.0, ajustado.getPrecio(2));
+        assertEquals("Laptop", ajustado.getNombre(0));
+        assertEquals(800.0, snapshot.getPrecio(0));
+        assertSame(ajustado, ajustado.conPrecios(new long[]{1}, new double[]{1.0}, new long[]{10}));
+    }
+}
@@ -0,0 +1,118 @@
+package prueba.com.prueba.Service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import prueba.com.prueba.Model.Producto;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// PRUEBAS UNITARIAS DE LA COLA DE ESCRITURAS DIFERIDAS
+@ExtendWith(MockitoExtension.class)
+public class EscrituraDiferidaServiceTest {
+
+    @Mock
+    private ProductoService productoService;
+
+    @InjectMocks
+    private EscrituraDiferidaService escrituraDiferida;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(escrituraDiferida, "enabled", true);
+        // Lote grande para que solo se vacíe cuando el test lo pide
+        ReflectionTestUtils.setField(escrituraDiferida, "tamanoLote", 1000);
+    }
+
+    // TEST 1: Muchas actualizaciones del mismo producto se escriben una sola vez, con el último valor
+    @Test
+    void testCoalesceActualizacionesPorProducto() throws Exception {
+        when(productoService.actualizarProductosLote(anyList())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+
+        for (int i = 1; i <= 10; i++) {
+            assertTrue(escrituraDiferida.encolar(1L, producto("Laptop", 100.0 + i)));
+            assertTrue(escrituraDiferida.encolar(2L, producto("Mouse", 10.0 + i)));
+        }
+        assertEquals(2, escrituraDiferida.getPendientes());
+        assertEquals(18, escrituraDiferida.getCoalescidas());
+
+        escrituraDiferida.vaciar();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Producto>> lote = ArgumentCaptor.forClass(List.class);
+        verify(productoService, times(1)).actualizarProductosLote(lote.capture());
+        assertEquals(2, lote.getValue().size());
+        assertEquals(110.0, lote.getValue().get(0).getPrecio());
+        assertEquals(20.0, lote.getValue().get(1).getPrecio());
+        assertEquals(0, escrituraDiferida.getPendientes());
+    }
+
+    // TEST 2: Con la cola llena se espera espera-maxima-ms y se rechaza; el mismo producto sigue entrando
+    @Test
+    void testBackpressureConColaLlena() throws Exception {
+        ReflectionTestUtils.setField(escrituraDiferida, "capacidad", 1);
+        ReflectionTestUtils.setField(escrituraDiferida, "esperaMaximaMs", 20L);
+
+        assertTrue(escrituraDiferida.encolar(1L, producto("Laptop", 100.0)));
+        assertFalse(escrituraDiferida.encolar(2L, producto("Mouse", 10.0)));
+        assertTrue(escrituraDiferida.encolar(1L, producto("Laptop", 101.0)));
+        assertEquals(1, escrituraDiferida.getRechazadas());
+    }
+
+    // TEST 3: Si la transacción falla, el lote vuelve a la cola para el próximo vaciado
+    @Test
+    void testReencolaSiFallaElLote() throws Exception {
+        when(productoService.actualizarProductosLote(anyList())).thenThrow(new RuntimeException("BD caída"));
+
+        escrituraDiferida.encolar(1L, producto("Laptop", 100.0));
+        escrituraDiferida.vaciar();
+
+        assertEquals(1, escrituraDiferida.getPendientes());
+    }
+
+    // TEST 4: Una fila inválida no bloquea al resto del lote y se descarta a los max-intentos
+    @Test
+    void testFilaInvalidaSeAislaYSeDescarta() throws Exception {
+        ReflectionTestUtils.setField(escrituraDiferida, "maxIntentos", 2);
+        when(productoService.actualizarProductosLote(anyList())).thenAnswer(inv -> {
+            List<Producto> lote = inv.getArgument(0);
+            if (lote.stream().anyMatch(p -> p.getId() == 2L)) {
+                throw new DataIntegrityViolationException("precio fuera de rango");
+            }
+            return lote.size();
+        });
+        escrituraDiferida.encolar(1L, producto("Laptop", 100.0));
+        escrituraDiferida.encolar(2L, producto("Mouse", -1.0));
+
+        // Primer vaciado: falla el lote, el 1 se escribe solo y el 2 vuelve a la cola
+        escrituraDiferida.vaciar();
+        assertEquals(1, escrituraDiferida.getPendientes());
+        verify(productoService).actualizarProductosLote(argThat(lote -> lote.size() == 1 && lote.get(0).getId() == 1L));
+
+        // Segundo vaciado: el 2 falla otra vez y se descarta
+        escrituraDiferida.vaciar();
+        assertEquals(0, escrituraDiferida.getPendientes());
+        assertEquals(1, escrituraDiferida.getDescartadas());
+    }
+
+    private static Producto producto(String nombre, double precio) {
+        Producto p = new Producto();
+        p.setNombre(nombre);
+        p.setPrecio(precio);
+        p.setCategoria("Test");
+        return p;
+    }
+}
@@ -0,0 +1,84 @@
+package prueba.com.prueba.Service;
+
+import org.junit.jupiter.api.Test;
+
+import prueba.com.prueba.Model.Producto;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// PRUEBAS UNITARIAS DEL ÍNDICE DE PREFIJOS
+// Igual que CatalogoSnapshotTest: estructura de datos pura, sin Spring
+public class IndiceSugerenciasTest {
+
+    private static Producto producto(long id, String nombre) {
+        Producto p = new Producto();
+        p.setId(id);
+        p.setNombre(nombre);
+        return p;
+    }
+
+    private static long[] buscar(IndiceSugerencias indice, String prefijo, int limite) {
+        int[] posiciones = new int[limite];
+        int n = indice.buscar(IndiceSugerencias.normalizar(prefijo), limite, posiciones);
+        return Arrays.stream(posiciones, 0, n).mapToLong(indice::getId).toArray();
+    }
+
+    // TEST 1: El prefijo ignora mayúsculas, acentos y espacios repetidos; sin vistas el orden es alfabético
+    @Test
+    void testPrefijoNormalizadoYOrdenAlfabetico() {
+        IndiceSugerencias indice = IndiceSugerencias.desde(List.of(
+                producto(1, "Café  Molido"),
+                producto(2, "Cafetera"),
+                producto(3, "Mouse"),
+                producto(4, "cable USB")));
+
+        assertArrayEquals(new long[]{4, 1, 2}, buscar(indice, "CA", 10));
+        assertArrayEquals(new long[]{1}, buscar(indice, "cafe m", 10));
+        assertArrayEquals(new long[]{4}, buscar(indice, "ca", 1));
+        assertArrayEquals(new long[0], buscar(indice, "z", 10));
+        assertEquals("Café  Molido", indice.getNombre(1));
+    }
+
+    // TEST 2: Los pesos reordenan el top-k y se conservan al renombrar; alta y baja generan índices nuevos
+    @Test
+    void testPopularidadYCambiosIncrementales() {
+        IndiceSugerencias indice = IndiceSugerencias.desde(List.of(
+                producto(1, "Lámpara"), producto(2, "Laptop"), producto(3, "Lapicera"), producto(4, "Mouse")));
+        indice.sumarPesos(Map.of(3L, 5L, 2L, 2L));
+
+        assertArrayEquals(new long[]{3, 2, 1}, buscar(indice, "la", 10));
+        assertArrayEquals(new long[]{3, 2}, buscar(indice, "la", 2));
+
+        IndiceSugerencias renombrado = indice.conProducto(producto(3, "Zapatilla"));
+        assertArrayEquals(new long[]{2, 1}, buscar(renombrado, "la", 10));
+        assertArrayEquals(new long[]{3}, buscar(renombrado, "za", 10));
+        assertEquals(5, renombrado.getPeso(renombrado.size() - 1));
+
+        IndiceSugerencias conAlta = renombrado.conProducto(producto(5, "Lana"));
+        IndiceSugerencias sinBaja = conAlta.sinProducto(2);
+        assertArrayEquals(new long[]{1, 5}, buscar(sinBaja, "la", 10));
+        // El índice original no cambió
+        assertArrayEquals(new long[]{3, 2, 1}, buscar(indice, "la", 10));
+        assertSame(sinBaja, sinBaja.sinProducto(99));
+    }
+
+    // TEST 3: Un cambio que no toca la clave normalizada no reconstruye el índice
+    @Test
+    void testMismoNombreDevuelveElMismoIndice() {
+        IndiceSugerencias indice = IndiceSugerencias.desde(List.of(producto(1, "Café"), producto(2, "Cafetera")));
+        indice.sumarPesos(Map.of(1L, 3L));
+
+        assertSame(indice, indice.conProducto(producto(1, "Café")));
+
+        IndiceSugerencias mayusculas = indice.conProducto(producto(1, "CAFÉ"));
+        assertNotSame(indice, mayusculas);
+        assertEquals("CAFÉ", mayusculas.getNombre(0));
+        assertEquals(3, mayusculas.getPeso(0));
+        assertArrayEquals(new long[]{1, 2}, buscar(mayusculas, "caf", 10));
+        assertEquals("Café", indice.getNombre(0));
+    }
+}
@@ -0,0 +1,123 @@
+package prueba.com.prueba.Service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import prueba.com.prueba.Config.Deadline;
+import prueba.com.prueba.Config.DeadlineExcedidoException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// PRUEBAS UNITARIAS DEL HEDGING DE INVENTARIO
+// El RestTemplate es un mock: la primera llamada "se cuelga" y la segunda responde al instante
+public class InventarioHedgingTest {
+
+    private static final String URL = "http://inventario/inventario/1";
+
+    private InventarioHedging hedging;
+    private RestTemplate restTemplate;
+
+    @BeforeEach
+    void setUp() {
+        hedging = new InventarioHedging();
+        ReflectionTestUtils.setField(hedging, "minMuestras", 10);
+        hedging.init();
+        restTemplate = mock(RestTemplate.class);
+        ReflectionTestUtils.setField(hedging, "restTemplate", restTemplate);
+        // Latencia reciente de 50 ms: el p95 queda en 50 ms (margen para que la primaria ya haya arrancado)
+        for (int i = 0; i < 20; i++) {
+            hedging.registrarLatencia("stock", TimeUnit.MILLISECONDS.toNanos(50));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        hedging.cerrar();
+    }
+
+    // TEST 1: La llamada lenta se cubre con un hedge, gana el hedge y la lenta se cancela
+    @Test
+    void testHedgeGanaYCancelaLaLenta() {
+        ReflectionTestUtils.setField(hedging, "presupuesto", 1.0);
+        CountDownLatch lentaCancelada = new CountDownLatch(1);
+        AtomicInteger llamadas = new AtomicInteger();
+        when(restTemplate.getForObject(eq(URL), eq(String.class))).thenAnswer(inv -> {
+            if (llamadas.incrementAndGet() == 1) {
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException e) {
+                    lentaCancelada.countDown();
+                    throw e;
+                }
+            }
+            return "rapida";
+        });
+
+        long inicio = System.nanoTime();
+        String resultado = hedging.getForObject("stock", URL, String.class);
+
+        assertEquals("rapida", resultado);
+        assertTrue(System.nanoTime() - inicio < TimeUnit.SECONDS.toNanos(2));
+        assertEquals(1, hedging.getHedgesLanzados());
+        assertEquals(1, hedging.getHedgesGanados());
+        assertDoesNotThrow(() -> assertTrue(lentaCancelada.await(2, TimeUnit.SECONDS)));
+    }
+
+    // TEST 2: Sin presupuesto no se lanza ningún hedge y se espera a la llamada primaria
+    @Test
+    void testSinPresupuestoNoHaceHedge() {
+        ReflectionTestUtils.setField(hedging, "presupuesto", 0.0);
+        when(restTemplate.getForObject(eq(URL), eq(String.class))).thenAnswer(inv -> {
+            Thread.sleep(50);
+            return "primaria";
+        });
+
+        assertEquals("primaria", hedging.getForObject("stock", URL, String.class));
+        assertEquals(0, hedging.getHedgesLanzados());
+        assertEquals(1, hedging.getHedgesSinPresupuesto());
+        verify(restTemplate, times(1)).getForObject(anyString(), eq(String.class));
+    }
+
+    // TEST 3: Con deadline, la espera no pasa del tiempo restante; la llamada colgada se cancela
+    // y el deadline llega al hilo del pool
+    @Test
+    void testDeadlineCortaLaEsperaYSePropaga() {
+        ReflectionTestUtils.setField(hedging, "presupuesto", 0.0);
+        CountDownLatch cancelada = new CountDownLatch(1);
+        AtomicInteger deadlineEnHilo = new AtomicInteger();
+        when(restTemplate.getForObject(eq(URL), eq(String.class))).thenAnswer(inv -> {
+            if (Deadline.actual() != null) {
+                deadlineEnHilo.incrementAndGet();
+            }
+            try {
+                Thread.sleep(5000);
+            } catch (InterruptedException e) {
+                cancelada.countDown();
+                throw e;
+            }
+            return "lenta";
+        });
+
+        Deadline.establecer(Deadline.dentroDe(200));
+        long inicio = System.nanoTime();
+        try {
+            assertThrows(DeadlineExcedidoException.class, () -> hedging.getForObject("stock", URL, String.class));
+        } finally {
+            Deadline.limpiar();
+        }
+
+        assertTrue(System.nanoTime() - inicio < TimeUnit.SECONDS.toNanos(2));
+        assertEquals(1, deadlineEnHilo.get());
+        assertDoesNotThrow(() -> assertTrue(cancelada.await(2, TimeUnit.SECONDS)));
+    }
+}
@@ -6,21 +6,36 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 
 // Imports para Mockito - Framework de mocking
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 // Import de Spring para cliente REST
 import org.springframework.web.client.RestTemplate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
 
 // Imports de mis clases del proyecto
+import prueba.com.prueba.Config.Deadline;
+import prueba.com.prueba.Config.DeadlineExcedidoException;
+import prueba.com.prueba.DTO.AjustePreciosDTO;
 import prueba.com.prueba.DTO.ProductoConStockDTO;
+import prueba.com.prueba.DTO.ProductoParcialDTO;
+import prueba.com.prueba.DTO.ProductosPorIdsDTO;
+import prueba.com.prueba.DTO.ResultadoAjustePreciosDTO;
 import prueba.com.prueba.Model.Producto;
 import prueba.com.prueba.Repository.ProductoRepository;
+import prueba.com.prueba.Repository.ProductoRepositoryCustom.ResumenAjuste;
 
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 // Imports para assertions y mocking
 import static org.junit.jupiter.api.Assertions.*;
@@ -43,6 +58,26 @@ public class ProductoServiceTest {
     @Mock
     private RestTemplate restTemplate;
 
+    // @Mock: Simulo el publicador de eventos (las escrituras publican ProductoCambiadoEvent)
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    // @Mock: Simulo el snapshot en memoria; por defecto no está disponible y se lee de la BD
+    @Mock
+    private CatalogoSnapshotService catalogoSnapshotService;
+
+    // @Mock: Simulo el hedging de inventario; deshabilitado por defecto, se usa restTemplate directo
+    @Mock
+    private InventarioHedging inventarioHedging;
+
+    // @Mock: Simulo la numeración de cambios para la sincronización incremental
+    @Mock
+    private SincronizacionService sincronizacionService;
+
+    // @Spy: Almacén real de último stock conocido, solo en memoria (sin archivo)
+    @Spy
+    private StockConocidoService stockConocido = new StockConocidoService();
+
     // @InjectMocks: Mockito inyecta automáticamente los mocks en ProductoService
     // Crea una instancia real del service pero con dependencias simuladas
     @InjectMocks
@@ -196,14 +231,22 @@ public class ProductoServiceTest {
 
 
     // TEST 7: Probar eliminarProducto()
-    // Verifica que delegate correctamente la eliminación al repository
+    // Verifica que delegue la eliminación al repository y que un ID inexistente no deje lápida
     @Test
     void testEliminarProducto() {
-        // WHEN - Elimino un producto (no necesito Given porque solo delega)
+        // GIVEN - El 1 existe, el 99 no
+        when(productoRepository.borrarPorId(1L)).thenReturn(1);
+        when(productoRepository.borrarPorId(99L)).thenReturn(0);
+
+        // WHEN
         productoService.eliminarProducto(1L);
+        productoService.eliminarProducto(99L);
 
-        // THEN - Verifico que se llamó al repository para eliminar
-        verify(productoRepository, times(1)).deleteById(1L);
+        // THEN - Solo la baja real registra lápida y publica el evento
+        verify(productoRepository, times(1)).borrarPorId(1L);
+        verify(sincronizacionService, times(1)).registrarBaja(1L);
+        verify(sincronizacionService, never()).registrarBaja(99L);
+        verify(eventPublisher, times(1)).publishEvent(any(ProductoCambiadoEvent.class));
     }    
     
     
@@ -311,4 +354,236 @@ public class ProductoServiceTest {
         // NOTA: Este test demuestra cómo el service orquesta múltiples fuentes de datos
         // para crear una respuesta completa al cliente
     }
+
+
+
+    // TEST 12: Probar listarProductosConStock() servido desde el snapshot en memoria
+    // Verifica que con el snapshot disponible no se carguen entidades desde la BD
+    @Test
+    void testListarProductosConStockDesdeSnapshot() {
+        // GIVEN - El snapshot está disponible y contiene el producto de prueba
+        when(catalogoSnapshotService.isDisponible()).thenReturn(true);
+        when(catalogoSnapshotService.getSnapshot()).thenReturn(CatalogoSnapshot.desde(List.of(producto)));
+        ProductoService.InventarioResponse inventarioResponse = new ProductoService.InventarioResponse();
+        inventarioResponse.setStockActual(7);
+        when(restTemplate.getForObject(anyString(), eq(ProductoService.InventarioResponse.class)))
+                .thenReturn(inventarioResponse);
+
+        // WHEN
+        List<ProductoConStockDTO> resultado = productoService.listarProductosConStock();
+
+        // THEN - Los datos vienen del snapshot y el stock del microservicio
+        assertEquals(1, resultado.size());
+        assertEquals("Laptop Dell", resultado.get(0).getNombre());
+        assertEquals("Electrónicos", resultado.get(0).getCategoria());
+        assertEquals(7, resultado.get(0).getStock());
+        verify(productoRepository, never()).findAll();
+    }
+
+
+
+    // TEST 13: Probar que las escrituras publican ProductoCambiadoEvent
+    // Es lo que mantiene actualizadas las copias en memoria del catálogo
+    @Test
+    void testEscriturasPublicanEvento() {
+        // GIVEN
+        when(productoRepository.save(any(Producto.class))).thenReturn(producto);
+        when(productoRepository.borrarPorId(1L)).thenReturn(1);
+
+        // WHEN
+        productoService.crearProducto(producto);
+        productoService.eliminarProducto(1L);
+
+        // THEN - Un evento por escritura, con el tipo correcto
+        ArgumentCaptor<ProductoCambiadoEvent> eventos = ArgumentCaptor.forClass(ProductoCambiadoEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(eventos.capture());
+        assertEquals(ProductoCambiadoEvent.Tipo.CREADO, eventos.getAllValues().get(0).getTipo());
+        assertEquals(ProductoCambiadoEvent.Tipo.ELIMINADO, eventos.getAllValues().get(1).getTipo());
+        assertEquals(1L, eventos.getAllValues().get(1).getProductoId());
+    }
+
+
+
+    // TEST 14: Probar obtenerProductosConStock() - varios IDs en una sola llamada
+    // Verifica que se consulte por lotes con IN (...) y que los IDs inexistentes no fallen la petición
+    @Test
+    void testObtenerProductosConStockPorIds() {
+        // GIVEN - Lotes de 2 IDs; el producto 1 existe y el 999 no
+        ReflectionTestUtils.setField(productoService, "multigetChunkSize", 2);
+        when(productoRepository.findByIdIn(anyCollection())).thenAnswer(inv -> {
+            Collection<Long> lote = inv.getArgument(0);
+            return lote.contains(1L) ? List.of(producto) : List.of();
+        });
+        ProductoService.InventarioResponse inventarioResponse = new ProductoService.InventarioResponse();
+        inventarioResponse.setStockActual(5);
+        when(restTemplate.getForObject(anyString(), eq(ProductoService.InventarioResponse.class)))
+                .thenReturn(inventarioResponse);
+
+        // WHEN - Pido 3 IDs distintos (con uno repetido)
+        ProductosPorIdsDTO resultado = productoService.obtenerProductosConStock(List.of(1L, 999L, 1L, 7L));
+
+        // THEN - 2 consultas IN (ids únicos 1, 999, 7 en lotes de 2), 1 encontrado y 2 inexistentes
+        verify(productoRepository, times(2)).findByIdIn(anyCollection());
+        assertEquals(1, resultado.getProductos().size());
+        assertEquals(5, resultado.getProductos().get(0).getStock());
+        assertEquals(List.of(999L, 7L), resultado.getNoEncontrados());
+        // Solo se consultó el stock del producto encontrado
+        verify(restTemplate, times(1)).getForObject(anyString(), eq(ProductoService.InventarioResponse.class));
+    }
+
+
+
+    // TEST 15: Probar obtenerStockLote() con el inventario por lotes habilitado
+    // Verifica que se hagan ceil(N / batch-size) llamadas y que los faltantes queden en 0
+    @Test
+    void testObtenerStockLotePorLotes() {
+        // GIVEN - Lotes de 2 productos y el inventario solo conoce el producto 1
+        ReflectionTestUtils.setField(productoService, "inventarioBatchEnabled", true);
+        ReflectionTestUtils.setField(productoService, "inventarioBatchSize", 2);
+        ProductoService.InventarioResponse inventarioResponse = new ProductoService.InventarioResponse();
+        inventarioResponse.setIdProducto(1L);
+        inventarioResponse.setStockActual(12);
+        when(restTemplate.getForObject(anyString(), eq(ProductoService.InventarioResponse[].class)))
+                .thenReturn(new ProductoService.InventarioResponse[] { inventarioResponse });
+
+        // WHEN - 3 productos
+        Map<Long, Integer> stocks = productoService.obtenerStockLote(List.of(1L, 2L, 3L));
+
+        // THEN - 2 llamadas por lote y ninguna individual
+        assertEquals(12, stocks.get(1L));
+        assertEquals(0, stocks.get(2L));
+        assertEquals(0, stocks.get(3L));
+        verify(restTemplate, times(2)).getForObject(anyString(), eq(ProductoService.InventarioResponse[].class));
+        verify(restTemplate, never()).getForObject(anyString(), eq(ProductoService.InventarioResponse.class));
+    }
+
+
+
+    // TEST 16: Probar listarProductosParciales() sin "stock"
+    // Verifica que se use la proyección de columnas y que NO se llame al inventario
+    @Test
+    void testListarProductosParcialesSinStock() {
+        // GIVEN - La proyección solo trae id y nombre
+        Producto parcial = new Producto();
+        parcial.setId(1L);
+        parcial.setNombre("Laptop Dell");
+        when(productoRepository.findColumnas(Set.of("id", "nombre"))).thenReturn(List.of(parcial));
+
+        // WHEN
+        List<ProductoParcialDTO> resultado = productoService.listarProductosParciales(Set.of("id", "nombre"));
+
+        // THEN - Campos pedidos presentes, el resto null y ninguna llamada externa
+        assertEquals(1, resultado.size());
+        assertEquals("Laptop Dell", resultado.get(0).getNombre());
+        assertNull(resultado.get(0).getPrecio());
+        assertNull(resultado.get(0).getStock());
+        verify(productoRepository, never()).findAll();
+        verifyNoInteractions(restTemplate);
+
+        // Un campo desconocido es un 400
+        assertThrows(ResponseStatusException.class,
+                () -> productoService.listarProductosParciales(Set.of("nombre", "clave")));
+    }
+
+
+
+    // TEST 17: Probar listarProductosParciales() con "stock"
+    // Verifica que solo en ese caso se consulte el inventario
+    @Test
+    void testListarProductosParcialesConStock() {
+        Producto parcial = new Producto();
+        parcial.setId(1L);
+        when(productoRepository.findColumnas(Set.of())).thenReturn(List.of(parcial));
+        ProductoService.InventarioResponse inventarioResponse = new ProductoService.InventarioResponse();
+        inventarioResponse.setStockActual(8);
+        when(restTemplate.getForObject(anyString(), eq(ProductoService.InventarioResponse.class)))
+                .thenReturn(inventarioResponse);
+
+        List<ProductoParcialDTO> resultado = productoService.listarProductosParciales(Set.of("stock"));
+
+        assertEquals(8, resultado.get(0).getStock());
+        verify(restTemplate, times(1)).getForObject(anyString(), eq(ProductoService.InventarioResponse.class));
+    }
+
+    // TEST 18: Con el deadline de la petición vencido no se llama al inventario
+    // Verifica que se abandona con 504 en lugar de seguir trabajando con stock 0
+    @Test
+    void testDeadlineVencidoNoConsultaInventario() {
+        Deadline.establecer(Deadline.dentroDe(0));
+        try {
+            assertThrows(DeadlineExcedidoException.class, () -> productoService.obtenerStockSeguro(1L));
+            assertThrows(DeadlineExcedidoException.class, () -> productoService.obtenerStockLote(List.of(1L, 2L)));
+            verifyNoInteractions(restTemplate);
+        } finally {
+            Deadline.limpiar();
+        }
+    }
+
+    // TEST 19: Ajuste de precios por conjunto - un UPDATE, una reserva de tantas secuencias como filas
+    // cambiaron (numeradas por orden de ID) y un solo evento para todo el lote
+    // Verifica que dryRun no escribe y que un ajuste sin filtro se rechaza
+    @Test
+    void testAjustarPrecios() {
+        AjustePreciosDTO ajuste = new AjustePreciosDTO();
+        ajuste.setCategoria("Electrónicos");
+        ajuste.setOperacion(AjustePreciosDTO.Operacion.PORCENTAJE);
+        ajuste.setValor(-10.0);
+        // El rango de IDs es mucho más ancho que las filas (no entra en un int): solo se reservan 2 secuencias
+        when(productoRepository.resumirAjuste(ajuste)).thenReturn(new ResumenAjuste(2, 5L, 7_000_000_000L, 0));
+        when(sincronizacionService.reservarSecuencias(2)).thenReturn(40L);
+        when(productoRepository.ajustarPrecios(ajuste, 5L, 7_000_000_000L)).thenReturn(2);
+        Producto primero = new Producto();
+        primero.setId(5L);
+        primero.setPrecio(9.0);
+        Producto ultimo = new Producto();
+        ultimo.setId(7_000_000_000L);
+        ultimo.setPrecio(18.0);
+        when(productoRepository.findBySecuenciaCambioOrderByIdAsc(ProductoRepository.SECUENCIA_PENDIENTE))
+                .thenReturn(List.of(primero, ultimo));
+
+        ResultadoAjustePreciosDTO resultado = productoService.ajustarPrecios(ajuste);
+
+        assertEquals(2, resultado.getAfectados());
+        assertFalse(resultado.isDryRun());
+        assertEquals(40L, primero.getSecuenciaCambio());
+        assertEquals(41L, ultimo.getSecuenciaCambio());
+        verify(eventPublisher, times(1)).publishEvent(argThat((Object e) -> e instanceof PreciosAjustadosEvent ajustados
+                && Arrays.equals(ajustados.getIds(), new long[]{5L, 7_000_000_000L})
+                && Arrays.equals(ajustados.getSecuencias(), new long[]{40L, 41L})));
+        verify(eventPublisher, never()).publishEvent(any(ProductoCambiadoEvent.class));
+
+        ajuste.setDryRun(true);
+        assertEquals(2, productoService.ajustarPrecios(ajuste).getAfectados());
+        verify(productoRepository, times(1)).ajustarPrecios(any(), anyLong(), anyLong());
+
+        ajuste.setCategoria(null);
+        assertThrows(ResponseStatusException.class, () -> productoService.ajustarPrecios(ajuste));
+    }
+
+    // TEST 20: Con el inventario caído se sirve el último stock conocido marcado como desactualizado
+    // Verifica stockStale/stockAsOf en el DTO y el 0 de siempre para un producto que nunca se leyó
+    @Test
+    void testInventarioCaidoSirveUltimoStockConocido() {
+        when(productoRepository.findById(1L)).thenReturn(Optional.of(producto));
+        ProductoService.InventarioResponse inventarioResponse = new ProductoService.InventarioResponse();
+        inventarioResponse.setIdProducto(1L);
+        inventarioResponse.setStockActual(12);
+        when(restTemplate.getForObject(anyString(), eq(ProductoService.InventarioResponse.class)))
+                .thenReturn(inventarioResponse)
+                .thenThrow(new RuntimeException("Error de conexión"));
+
+        ProductoConStockDTO fresco = productoService.obtenerProductoConStock(1L);
+        ProductoConStockDTO caido = productoService.obtenerProductoConStock(1L);
+
+        assertEquals(12, fresco.getStock());
+        assertFalse(fresco.getStockStale());
+        assertEquals(12, caido.getStock());
+        assertTrue(caido.getStockStale());
+        assertEquals(stockConocido.ultima(1L).leidoEnMs(), caido.getStockAsOf().toEpochMilli());
+
+        LecturaStock desconocida = productoService.leerStock(2L);
+        assertEquals(0, desconocida.stock());
+        assertTrue(desconocida.stale());
+        assertNull(desconocida.asOf());
+    }
 }
@@ -0,0 +1,143 @@
+package prueba.com.prueba.Service;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import prueba.com.prueba.DTO.CambiosDTO;
+import prueba.com.prueba.DTO.ProductoDTO;
+import prueba.com.prueba.Model.Producto;
+import prueba.com.prueba.Repository.ProductoEliminadoRepository;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// PRUEBA DE INTEGRACIÓN DE LA SINCRONIZACIÓN INCREMENTAL (H2)
+// Usa ProductoService real: altas, modificaciones y bajas tienen que aparecer en /changes
+// solo una vez y en orden, y las bajas como lápidas
+@SpringBootTest
+public class SincronizacionServiceTest {
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private SincronizacionService sincronizacionService;
+
+    @Autowired
+    private ProductoEliminadoRepository eliminadoRepository;
+
+    // TEST 1: Desde un token solo llegan los cambios posteriores, con las bajas como IDs
+    @Test
+    void testCambiosDesdeToken() {
+        Long a = productoService.crearProducto(producto("Monitor", 200.0)).getId();
+        Long b = productoService.crearProducto(producto("Parlante", 30.0)).getId();
+
+        // Me pongo al día (puede haber datos de otros tests en la misma BD)
+        String token = ponerseAlDia(null);
+
+        productoService.actualizarProducto(a, producto("Monitor 27", 250.0));
+        productoService.eliminarProducto(b);
+        // Borrar de nuevo (o un ID que nunca existió) no agrega lápidas
+        productoService.eliminarProducto(b);
+
+        CambiosDTO cambios = sincronizacionService.cambiosDesde(token);
+        assertEquals(1, cambios.getCambiados().size());
+        ProductoDTO cambiado = cambios.getCambiados().get(0);
+        assertEquals(a, cambiado.getId());
+        assertEquals(250.0, cambiado.getPrecio());
+        assertEquals(1, cambios.getEliminados().size());
+        assertEquals(b, cambios.getEliminados().get(0));
+        assertFalse(cambios.isHayMas());
+
+        // Con el token nuevo ya no hay nada
+        CambiosDTO siguiente = sincronizacionService.cambiosDesde(cambios.getToken());
+        assertTrue(siguiente.getCambiados().isEmpty());
+        assertTrue(siguiente.getEliminados().isEmpty());
+    }
+
+    // TEST 2: La descarga se pagina y un token más viejo que la retención exige resincronizar
+    @Test
+    void testPaginacionYTokenVencido() {
+        for (int i = 0; i < 3; i++) {
+            productoService.crearProducto(producto("Cable " + i, 5.0));
+        }
+        ReflectionTestUtils.setField(sincronizacionService, "tamanoPagina", 2);
+        try {
+            CambiosDTO primera = sincronizacionService.cambiosDesde(null);
+            assertEquals(2, primera.getCambiados().size() + primera.getEliminados().size());
+            assertTrue(primera.isHayMas());
+        } finally {
+            ReflectionTestUtils.setField(sincronizacionService, "tamanoPagina", 500);
+        }
+
+        String viejo = SincronizacionService.crearToken(
+                new SincronizacionService.Token(1, Instant.now().minus(30, ChronoUnit.DAYS)));
+        assertTrue(sincronizacionService.cambiosDesde(viejo).isResincronizar());
+    }
+
+    // TEST 3: Un cambio y una baja confirmados entre la lectura de productos y la de lápidas no
+    // adelantan el token por encima del cambio: los dos llegan en la llamada siguiente
+    @Test
+    void testCommitEntreLasDosLecturas() throws Exception {
+        Long a = productoService.crearProducto(producto("Teclado", 40.0)).getId();
+        Long b = productoService.crearProducto(producto("Mouse", 15.0)).getId();
+        String token = ponerseAlDia(null);
+        Long c = productoService.crearProducto(producto("Pad", 5.0)).getId();
+
+        // Antes de leer las lápidas, otro hilo confirma un cambio de "a" y la baja de "b"
+        ProxyFactory factory = new ProxyFactory(eliminadoRepository);
+        factory.addInterface(ProductoEliminadoRepository.class);
+        factory.addAdvice((MethodInterceptor) invocacion -> {
+            if (invocacion.getMethod().getName().startsWith("findBySecuenciaCambio")) {
+                Thread escritor = new Thread(() -> {
+                    productoService.actualizarProducto(a, producto("Teclado mecánico", 60.0));
+                    productoService.eliminarProducto(b);
+                });
+                escritor.start();
+                escritor.join();
+            }
+            return invocacion.proceed();
+        });
+        ReflectionTestUtils.setField(sincronizacionService, "eliminadoRepository", factory.getProxy());
+        CambiosDTO durante;
+        try {
+            durante = sincronizacionService.cambiosDesde(token);
+        } finally {
+            ReflectionTestUtils.setField(sincronizacionService, "eliminadoRepository", eliminadoRepository);
+        }
+        assertEquals(1, durante.getCambiados().size());
+        assertEquals(c, durante.getCambiados().get(0).getId());
+        assertTrue(durante.getEliminados().isEmpty());
+
+        CambiosDTO despues = sincronizacionService.cambiosDesde(durante.getToken());
+        assertEquals(1, despues.getCambiados().size());
+        assertEquals(a, despues.getCambiados().get(0).getId());
+        assertEquals(60.0, despues.getCambiados().get(0).getPrecio());
+        assertEquals(1, despues.getEliminados().size());
+        assertEquals(b, despues.getEliminados().get(0));
+    }
+
+    private String ponerseAlDia(String token) {
+        CambiosDTO cambios;
+        do {
+            cambios = sincronizacionService.cambiosDesde(token);
+            token = cambios.getToken();
+        } while (cambios.isHayMas());
+        return token;
+    }
+
+    private static Producto producto(String nombre, double precio) {
+        Producto p = new Producto();
+        p.setNombre(nombre);
+        p.setPrecio(precio);
+        p.setCategoria("Audio y video");
+        return p;
+    }
+}
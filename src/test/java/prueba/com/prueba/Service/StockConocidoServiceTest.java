@@ -0,0 +1,80 @@
+package prueba.com.prueba.Service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.test.util.ReflectionTestUtils;
+
+import prueba.com.prueba.Model.Producto;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// PRUEBAS UNITARIAS DEL ALMACÉN DE ÚLTIMO STOCK CONOCIDO
+// El archivo va a un directorio temporal de JUnit
+public class StockConocidoServiceTest {
+
+    @TempDir
+    Path directorio;
+
+    private StockConocidoService nuevo(Path archivo) {
+        StockConocidoService servicio = new StockConocidoService();
+        ReflectionTestUtils.setField(servicio, "archivo", archivo.toString());
+        servicio.cargar();
+        return servicio;
+    }
+
+    // TEST 1: Las lecturas sobreviven a un reinicio (guardar al cerrar, cargar al arrancar)
+    @Test
+    void testSobreviveReinicio() {
+        Path archivo = directorio.resolve("datos").resolve("stock.bin");
+        StockConocidoService antes = nuevo(archivo);
+        assertNull(antes.registrar(1L, 7));
+        assertEquals(7, antes.registrar(1L, 9));
+        antes.registrar(2L, 0);
+        antes.registrar(3L, 4);
+        antes.olvidar(3L);
+        long leido = antes.ultima(1L).leidoEnMs();
+        antes.cerrar();
+
+        StockConocidoService despues = nuevo(archivo);
+        assertEquals(2, despues.size());
+        assertEquals(9, despues.ultima(1L).stock());
+        assertEquals(leido, despues.ultima(1L).leidoEnMs());
+        assertEquals(0, despues.ultima(2L).stock());
+        assertNull(despues.ultima(3L));
+        assertFalse(Files.exists(archivo.resolveSibling("stock.bin.tmp")));
+    }
+
+    // TEST 2: Un archivo dañado no impide arrancar; se empieza vacío y se reescribe en el próximo guardado
+    @Test
+    void testArchivoDanadoSeIgnora() throws Exception {
+        Path archivo = directorio.resolve("stock.bin");
+        Files.write(archivo, new byte[] { 1, 2, 3 });
+
+        StockConocidoService servicio = nuevo(archivo);
+        assertEquals(0, servicio.size());
+
+        servicio.registrar(5L, 3);
+        servicio.guardar();
+        assertEquals(3, nuevo(archivo).ultima(5L).stock());
+    }
+
+    // TEST 3: Solo la baja confirmada (evento ELIMINADO) olvida el último stock conocido
+    @Test
+    void testBajaOlvidaElStock() {
+        StockConocidoService servicio = new StockConocidoService();
+        servicio.registrar(1L, 10);
+        servicio.registrar(2L, 20);
+
+        servicio.alCambiarProducto(ProductoCambiadoEvent.eliminado(1L));
+        Producto producto = new Producto();
+        producto.setId(2L);
+        servicio.alCambiarProducto(ProductoCambiadoEvent.actualizado(producto));
+
+        assertNull(servicio.ultima(1L));
+        assertEquals(20, servicio.ultima(2L).stock());
+    }
+}
@@ -0,0 +1,188 @@
+package prueba.com.prueba.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import prueba.com.prueba.Model.Producto;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// PRUEBAS UNITARIAS DEL STREAM DE CAMBIOS
+// Sin servidor: enviar() se reemplaza para guardar lo que recibe cada suscriptor
+public class StreamProductosServiceTest {
+
+    private final Map<SseEmitter, List<String>> recibidos = new ConcurrentHashMap<>();
+    private volatile CountDownLatch bloqueo;
+    // Con bloqueo: solo este emitter se bloquea (null = todos)
+    private volatile SseEmitter bloqueado;
+    private StreamProductosService servicio;
+
+    private StreamProductosService crear(int buffer, StreamProductosService.PoliticaLento politica) {
+        servicio = new StreamProductosService() {
+            @Override
+            void enviar(SseEmitter emitter, Evento evento) throws java.io.IOException {
+                // Como ResponseBodyEmitter.send(): el envío tiene el monitor del emitter
+                synchronized (emitter) {
+                    if (bloqueo != null && (bloqueado == null || bloqueado == emitter)) {
+                        try {
+                            bloqueo.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            throw new java.io.InterruptedIOException("envío interrumpido");
+                        }
+                    }
+                }
+                if (evento.nombre() != null) {
+                    recibidos.computeIfAbsent(emitter, e -> new CopyOnWriteArrayList<>())
+                            .add(evento.id() + ":" + evento.nombre() + ":" + evento.datos());
+                }
+            }
+        };
+        ReflectionTestUtils.setField(servicio, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(servicio, "buffer", buffer);
+        ReflectionTestUtils.setField(servicio, "tamanoHistorial", 4);
+        ReflectionTestUtils.setField(servicio, "politicaLento", politica);
+        servicio.init();
+        return servicio;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (bloqueo != null) {
+            bloqueo.countDown();
+        }
+        servicio.cerrar();
+    }
+
+    private static Producto producto(long id, String nombre) {
+        Producto p = new Producto();
+        p.setId(id);
+        p.setNombre(nombre);
+        return p;
+    }
+
+    private List<String> esperar(SseEmitter emitter, int cantidad) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (recibidos.getOrDefault(emitter, List.of()).size() < cantidad && System.nanoTime() < limite) {
+            Thread.sleep(10);
+        }
+        return recibidos.getOrDefault(emitter, List.of());
+    }
+
+    // TEST 1: Los eventos llegan en orden con id; al reconectar con Last-Event-ID se reenvía lo
+    // perdido y, si ya no está en el historial, se pide resincronizar
+    @Test
+    void testOrdenYReanudacion() throws Exception {
+        crear(16, StreamProductosService.PoliticaLento.DESCONECTAR);
+        SseEmitter primero = servicio.suscribir(null);
+        servicio.alCambiarProducto(ProductoCambiadoEvent.creado(producto(1, "Laptop")));
+        servicio.alCambiarStock(new StockCambiadoEvent(1L, 5, 3));
+        servicio.alCambiarProducto(ProductoCambiadoEvent.eliminado(1L));
+
+        assertEquals(List.of(
+                "1:creado:{\"id\":1,\"nombre\":\"Laptop\"}",
+                "2:stock:{\"id\":1,\"stock\":3,\"stockAnterior\":5}",
+                "3:eliminado:{\"id\":1}"), esperar(primero, 3));
+
+        SseEmitter reconectado = servicio.suscribir("1");
+        assertEquals(List.of("2:stock:{\"id\":1,\"stock\":3,\"stockAnterior\":5}", "3:eliminado:{\"id\":1}"),
+                esperar(reconectado, 2));
+
+        for (long id = 2; id <= 6; id++) {
+            servicio.alCambiarProducto(ProductoCambiadoEvent.eliminado(id));
+        }
+        // El historial guarda 4 eventos: el 2 ya no está
+        SseEmitter atrasado = servicio.suscribir("1");
+        assertEquals(List.of("8:resincronizar:{}"), esperar(atrasado, 1));
+        assertEquals(3, servicio.getSuscriptores());
+    }
+
+    // TEST 2: Un suscriptor que no lee llena su cola y se desconecta sin frenar a los demás;
+    // con la política DESCARTAR se queda conectado y pierde los eventos más viejos
+    @Test
+    void testSuscriptorLento() throws Exception {
+        crear(2, StreamProductosService.PoliticaLento.DESCONECTAR);
+        bloqueo = new CountDownLatch(1);
+        servicio.suscribir(null);
+        Thread.sleep(50);
+        for (long id = 1; id <= 5; id++) {
+            servicio.alCambiarProducto(ProductoCambiadoEvent.eliminado(id));
+        }
+        assertEquals(0, servicio.getSuscriptores());
+        bloqueo.countDown();
+        servicio.cerrar();
+
+        bloqueo = new CountDownLatch(1);
+        crear(2, StreamProductosService.PoliticaLento.DESCARTAR);
+        SseEmitter lento = servicio.suscribir(null);
+        Thread.sleep(50);
+        for (long id = 1; id <= 5; id++) {
+            servicio.alCambiarProducto(ProductoCambiadoEvent.eliminado(id));
+        }
+        assertEquals(1, servicio.getSuscriptores());
+        bloqueo.countDown();
+        List<String> llegaron = esperar(lento, 2);
+        assertEquals(List.of("4:eliminado:{\"id\":4}", "5:eliminado:{\"id\":5}"), llegaron);
+    }
+
+    // TEST 3: Un ajuste de precios por conjunto es un solo evento "precios", aunque tenga más filas
+    // que la cola del suscriptor
+    @Test
+    void testAjusteDePreciosEsUnSoloEvento() throws Exception {
+        crear(2, StreamProductosService.PoliticaLento.DESCONECTAR);
+        SseEmitter emitter = servicio.suscribir(null);
+
+        servicio.alAjustarPrecios(new PreciosAjustadosEvent(new long[]{1, 2, 3},
+                new double[]{11.0, 22.0, 33.0}, new long[]{7, 8, 9}));
+
+        assertEquals(List.of("1:precios:[{\"id\":1,\"precio\":11.0},{\"id\":2,\"precio\":22.0},{\"id\":3,\"precio\":33.0}]"),
+                esperar(emitter, 1));
+        assertEquals(1, servicio.getSuscriptores());
+    }
+
+    // TEST 4: Un cliente que dejó de leer no frena al que publica ni a los demás suscriptores:
+    // el que publica no espera el monitor del emitter, el envío vencido se corta y el pool crece
+    @Test
+    void testClienteQueNoLeeNoFrenaElStream() throws Exception {
+        crear(2, StreamProductosService.PoliticaLento.DESCONECTAR);
+        ReflectionTestUtils.setField(servicio, "hilosEnvio", 1);
+        ReflectionTestUtils.setField(servicio, "envioTimeoutMs", 50L);
+        servicio.cerrar();
+        servicio.init();
+        bloqueo = new CountDownLatch(1);
+        SseEmitter colgado = servicio.suscribir(null);
+        bloqueado = colgado;
+        servicio.alCambiarProducto(ProductoCambiadoEvent.eliminado(1L));
+        servicio.alCambiarProducto(ProductoCambiadoEvent.eliminado(2L));
+        Thread.sleep(50);
+        SseEmitter sano = servicio.suscribir(null);
+
+        // La cola del colgado se llena: se desconecta sin que el que publica espere su envío
+        long inicio = System.nanoTime();
+        servicio.alCambiarProducto(ProductoCambiadoEvent.eliminado(3L));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio) < 1000);
+        assertEquals(1, servicio.getSuscriptores());
+        // Con un solo hilo fijo, el otro suscriptor recibe igual
+        assertEquals(List.of("3:eliminado:{\"id\":3}"), esperar(sano, 1));
+
+        // El envío vencido se corta y el emitter se completa desde su tarea de envío
+        Thread.sleep(100);
+        servicio.vigilarEnvios();
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (!(Boolean) ReflectionTestUtils.getField(colgado, "complete") && System.nanoTime() < limite) {
+            Thread.sleep(10);
+        }
+        assertTrue((Boolean) ReflectionTestUtils.getField(colgado, "complete"));
+        assertEquals(1, bloqueo.getCount());
+    }
+}
@@ -0,0 +1,125 @@
+package prueba.com.prueba.Service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import prueba.com.prueba.Model.Producto;
+import prueba.com.prueba.Repository.ProductoRepository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// PRUEBAS UNITARIAS DEL CALENTAMIENTO
+// Verifican que las etapas se ejecuten y que el resultado quede disponible para el actuator
+@ExtendWith(MockitoExtension.class)
+public class WarmupServiceTest {
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private ProductoRepository productoRepository;
+
+    @Mock
+    private ProductoService productoService;
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    @Mock
+    private Environment environment;
+
+    @InjectMocks
+    private WarmupService warmupService;
+
+    @BeforeEach
+    void setUp() {
+        // @Value no se procesa con Mockito: fijo la configuración a mano
+        ReflectionTestUtils.setField(warmupService, "enabled", true);
+        ReflectionTestUtils.setField(warmupService, "topN", 2);
+        ReflectionTestUtils.setField(warmupService, "iteraciones", 3);
+        ReflectionTestUtils.setField(warmupService, "maxDuracionMs", 30000L);
+        ReflectionTestUtils.setField(warmupService, "conexionesMinimas", 4);
+    }
+
+    // TEST 1: El calentamiento abre el pool y llama al service por cada producto top-N
+    @Test
+    void testCalentarEjecutaTodasLasEtapas() throws SQLException {
+        // GIVEN - Dos productos en la BD y sin servidor embebido (sin puerto local)
+        Producto p1 = new Producto();
+        p1.setId(1L);
+        Producto p2 = new Producto();
+        p2.setId(2L);
+        when(productoRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(p1, p2)));
+        when(dataSource.getConnection()).thenAnswer(inv -> mock(Connection.class));
+
+        // WHEN
+        warmupService.calentar();
+
+        // THEN - 3 iteraciones x 2 productos, 4 conexiones abiertas y devueltas
+        assertEquals(WarmupService.Estado.COMPLETADO, warmupService.getEstado());
+        assertEquals(4, warmupService.getResultado().get("conexionesAbiertas"));
+        assertEquals(6, warmupService.getResultado().get("llamadasServicio"));
+        assertEquals(0, warmupService.getResultado().get("llamadasHttp"));
+        verify(dataSource, times(4)).getConnection();
+        verify(productoService, times(3)).obtenerProductoConStock(1L);
+        verify(productoService, times(3)).obtenerProductoConStock(2L);
+        verifyNoInteractions(restTemplate);
+    }
+
+    // TEST 2: Un error (por ejemplo la BD caída) no impide terminar el calentamiento
+    @Test
+    void testCalentarConErrorTerminaIgual() throws SQLException {
+        // GIVEN - La BD no responde
+        when(dataSource.getConnection()).thenThrow(new SQLException("BD caída"));
+        when(productoRepository.findAll(any(Pageable.class))).thenThrow(new RuntimeException("BD caída"));
+
+        // WHEN
+        warmupService.calentar();
+
+        // THEN - Queda COMPLETADO con los errores registrados para el actuator
+        assertEquals(WarmupService.Estado.COMPLETADO, warmupService.getEstado());
+        assertEquals(0, warmupService.getResultado().get("conexionesAbiertas"));
+        assertFalse(((List<?>) warmupService.getResultado().get("errores")).isEmpty());
+        verifyNoInteractions(productoService);
+    }
+
+    // TEST 3: Las llamadas a inventario se recortan al tope aunque falten iteraciones
+    @Test
+    void testCalentarRespetaTopeDeLlamadasInventario() throws SQLException {
+        // GIVEN - Dos productos, 50 iteraciones y un tope de 6 llamadas (3 para el service)
+        Producto p1 = new Producto();
+        p1.setId(1L);
+        Producto p2 = new Producto();
+        p2.setId(2L);
+        when(productoRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(p1, p2)));
+        when(dataSource.getConnection()).thenAnswer(inv -> mock(Connection.class));
+        ReflectionTestUtils.setField(warmupService, "iteraciones", 50);
+        ReflectionTestUtils.setField(warmupService, "maxLlamadasInventario", 6);
+
+        // WHEN
+        warmupService.calentar();
+
+        // THEN - Solo 3 llamadas al service, repartidas entre los productos
+        assertEquals(3, warmupService.getResultado().get("llamadasServicio"));
+        verify(productoService, times(2)).obtenerProductoConStock(1L);
+        verify(productoService, times(1)).obtenerProductoConStock(2L);
+    }
+}